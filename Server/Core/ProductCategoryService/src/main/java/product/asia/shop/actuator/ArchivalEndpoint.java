@@ -0,0 +1,63 @@
+package product.asia.shop.actuator;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import product.asia.shop.archival.ArchivalJob;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Progress and control of the archival of soft-deleted rows ({@code /actuator/archival}). POST
+ * {@code {"action": "pause" | "resume" | "run"}} to control passes, POST to
+ * {@code /actuator/archival/<table>/<id>} to restore an archived row.
+ */
+@Component
+@Endpoint(id = "archival")
+public class ArchivalEndpoint {
+
+    private final ArchivalJob archivalJob;
+
+    public ArchivalEndpoint(ArchivalJob archivalJob) {
+        this.archivalJob = archivalJob;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scheduled", archivalJob.isEnabled());
+        result.put("running", archivalJob.isRunning());
+        result.put("paused", archivalJob.isPaused());
+        result.put("tables", archivalJob.getProgress());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> control(String action) {
+        switch (action) {
+            case "pause" -> archivalJob.pause();
+            case "resume" -> archivalJob.resume();
+            case "run" -> archivalJob.start();
+            default -> throw new InvalidEndpointRequestException("Unknown action " + action,
+                    "Action must be pause, resume or run");
+        }
+        return progress();
+    }
+
+    /**
+     * Move an archived row, and the archived rows referencing it, back into the hot tables
+     */
+    @WriteOperation
+    public Map<String, Integer> restore(@Selector String table, @Selector String id) {
+        try {
+            return archivalJob.restore(table, UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Unknown table or malformed id");
+        }
+    }
+}
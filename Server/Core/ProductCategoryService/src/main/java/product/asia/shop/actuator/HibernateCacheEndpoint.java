@@ -0,0 +1,70 @@
+package product.asia.shop.actuator;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hit and miss statistics of the second-level cache regions ({@code /actuator/hibernatecache}).
+ * The same counters are published as {@code hibernate.second.level.cache.*} meters.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    private final SessionFactory sessionFactory;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(region, describe(statistics.getDomainDataRegionStatistics(region)));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("hits", statistics.getSecondLevelCacheHitCount());
+        result.put("misses", statistics.getSecondLevelCacheMissCount());
+        result.put("puts", statistics.getSecondLevelCachePutCount());
+        result.put("regions", regions);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        return describe(sessionFactory.getStatistics().getDomainDataRegionStatistics(region));
+    }
+
+    /**
+     * Drop every entry of a region
+     */
+    @DeleteOperation
+    public void evict(@Selector String region) {
+        sessionFactory.getCache().evictRegion(region);
+    }
+
+    private static Map<String, Object> describe(CacheRegionStatistics statistics) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        region.put("hits", hits);
+        region.put("misses", misses);
+        region.put("puts", statistics.getPutCount());
+        region.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return region;
+    }
+}
@@ -0,0 +1,36 @@
+package product.asia.shop.actuator;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import product.asia.shop.repository.query.IndexAudit;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query plans of the repository queries ({@code /actuator/indexaudit}), those scanning a table or index first.
+ * Every call explains every query, so it is meant for diagnostics, not for polling.
+ */
+@Component
+@Endpoint(id = "indexaudit")
+public class IndexAuditEndpoint {
+
+    private final IndexAudit indexAudit;
+
+    public IndexAuditEndpoint(IndexAudit indexAudit) {
+        this.indexAudit = indexAudit;
+    }
+
+    @ReadOperation
+    public Map<String, Object> audit() {
+        List<IndexAudit.Result> results = indexAudit.audit();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queries", results.size());
+        result.put("scans", results.stream().filter(IndexAudit.Result::scan).count());
+        result.put("errors", results.stream().filter(query -> query.error() != null).count());
+        result.put("results", results);
+        return result;
+    }
+}
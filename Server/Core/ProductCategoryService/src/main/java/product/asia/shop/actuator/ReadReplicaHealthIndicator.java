@@ -0,0 +1,47 @@
+package product.asia.shop.actuator;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import product.asia.shop.datasource.ReplicaRoutingDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replica state under {@code /actuator/health}. Stays UP while replicas are down,
+ * since reads then fall back to the primary.
+ */
+@Component("readReplicas")
+public class ReadReplicaHealthIndicator implements HealthIndicator {
+
+    private final ReplicaRoutingDataSource replicaDataSource;
+
+    public ReadReplicaHealthIndicator(ReplicaRoutingDataSource replicaDataSource) {
+        this.replicaDataSource = replicaDataSource;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = Health.up();
+        int healthy = 0;
+        for (ReplicaRoutingDataSource.ReplicaStatus status : replicaDataSource.getReplicaStatus()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("healthy", status.healthy());
+            if (status.replicationLag() != null) {
+                details.put("replicationLagSeconds", status.replicationLag().toSeconds());
+            }
+            if (status.detail() != null) {
+                details.put("detail", status.detail());
+            }
+            if (status.checkedAt() != null) {
+                details.put("checkedAt", status.checkedAt().toString());
+            }
+            health.withDetail(status.name(), details);
+            if (status.healthy()) {
+                healthy++;
+            }
+        }
+        return health.withDetail("readsOnPrimary", healthy == 0).build();
+    }
+}
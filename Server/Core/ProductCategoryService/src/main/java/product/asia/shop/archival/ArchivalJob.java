@@ -0,0 +1,439 @@
+package product.asia.shop.archival;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.config.ArchivalProperties;
+import product.asia.shop.repository.factory.RepositoryFactory;
+
+import java.nio.ByteBuffer;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves soft-deleted rows whose last update is older than the retention window out of the hot tables into
+ * {@code <table>_archive} tables, which hold the same columns plus {@code archived_at} and only an index on
+ * {@code id}, so deleted rows stop weighing on the hot indexes and the buffer pool.
+ * <p>
+ * Tables referencing another configured table through a foreign key are processed before it, so a product
+ * and its variants, images, prices and stock are archived in the same pass. Rows are processed in primary
+ * key order, {@code batch-size} rows per
+ * transaction with {@code batch-pause} in between. A batch locks its rows, checks them again, copies and
+ * deletes them and records the last id in {@code archival_checkpoint}, all in one transaction, so a paused,
+ * failed or restarted pass resumes where it stopped. Rows still referenced through a foreign key are left
+ * in place until the referencing rows are gone. Ids are expected as {@code BINARY(16)}.
+ */
+@Component
+@EnableConfigurationProperties(ArchivalProperties.class)
+public class ArchivalJob implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivalJob.class);
+
+    private static final String ARCHIVE_SUFFIX = "_archive";
+    private static final String ARCHIVED_AT = "archived_at";
+    private static final String CHECKPOINT_TABLE = "archival_checkpoint";
+
+    /**
+     * Columns of a hot table and the foreign keys pointing at its id
+     *
+     * @param columns     Column names in table order
+     * @param referencing Referencing table to its referencing column, one entry per foreign key
+     */
+    private record Layout(List<String> columns, List<Map.Entry<String, String>> referencing) {
+
+        /**
+         * Condition excluding rows of {@code alias} that are still referenced
+         */
+        String unreferenced(String alias) {
+            StringBuilder condition = new StringBuilder();
+            for (Map.Entry<String, String> reference : referencing) {
+                condition.append(" and not exists (select 1 from ").append(reference.getKey()).append(" r where r.")
+                        .append(reference.getValue()).append(" = ").append(alias).append(".id)");
+            }
+            return condition.toString();
+        }
+    }
+
+    /**
+     * Progress of one table, read by the actuator endpoint while a pass runs
+     */
+    private static final class Progress {
+        private volatile long archived;
+        private volatile String lastId;
+        private volatile Instant lastPassCompleted;
+        private volatile String error;
+
+        Map<String, Object> describe() {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("archived", archived);
+            description.put("checkpoint", lastId);
+            description.put("lastPassCompleted", lastPassCompleted);
+            description.put("error", error);
+            return description;
+        }
+    }
+
+    @Autowired
+    private ArchivalProperties properties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+
+    private final Map<String, Progress> progress = new LinkedHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean paused;
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        properties.getTables().forEach(table -> progress.put(table, new Progress()));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "archival");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.isEnabled()) {
+            long interval = properties.getInterval().toMillis();
+            executor.scheduleWithFixedDelay(this::runPass, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start a pass now, in the background, unless one is running
+     */
+    public void start() {
+        executor.execute(this::runPass);
+    }
+
+    /**
+     * Stop the running pass after its current batch, and skip scheduled passes until resumed
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * Allow passes again and continue from the checkpoints
+     */
+    public void resume() {
+        paused = false;
+        start();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Progress per table, in processing order
+     */
+    public Map<String, Map<String, Object>> getProgress() {
+        Map<String, Map<String, Object>> tables = new LinkedHashMap<>();
+        progress.forEach((table, state) -> tables.put(table, state.describe()));
+        return tables;
+    }
+
+    /**
+     * Move an archived row back into its table, undeleted, together with the archived rows of the other
+     * configured tables referencing it through a foreign key (the variants, images, prices, stock and
+     * attribute values of a product). Translations reference their entity without a foreign key and are
+     * restored by their own id. Cached counts and second-level cache entries of the tables are dropped.
+     *
+     * @return Rows restored per table, empty when the row is not archived
+     */
+    public Map<String, Integer> restore(String table, UUID id) {
+        if (!progress.containsKey(table)) {
+            throw new IllegalArgumentException("Table " + table + " is not archived");
+        }
+        Map<String, Integer> restored = transactionTemplate.execute(status -> {
+            Map<String, Integer> rows = new LinkedHashMap<>();
+            restoreWhere(table, "id", List.of(toBytes(id)), rows);
+            return rows;
+        });
+        // Entries cached while the rows were deleted or archived
+        restored.keySet().forEach(restoredTable -> entityOf(restoredTable)
+                .ifPresent(entityClass -> entityManagerFactory.getCache().evict(entityClass)));
+        return restored;
+    }
+
+    /**
+     * One pass over every table, skipped while paused or while another pass runs
+     */
+    void runPass() {
+        if (paused || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("create table if not exists " + CHECKPOINT_TABLE
+                    + " (table_name varchar(64) not null primary key, last_id varbinary(16), updated_at timestamp not null)");
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+            for (String table : inForeignKeyOrder()) {
+                if (paused) {
+                    break;
+                }
+                Progress state = progress.get(table);
+                try {
+                    archive(table, cutoff, state);
+                    state.error = null;
+                } catch (RuntimeException e) {
+                    state.error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    logger.error("Archiving {} failed, the next pass resumes from its checkpoint", table, e);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Archival pass failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void archive(String table, LocalDateTime cutoff, Progress state) {
+        Layout layout = layout(table);
+        createArchiveTable(table, layout);
+        byte[] lastId = jdbcTemplate.query("select last_id from " + CHECKPOINT_TABLE + " where table_name = ?",
+                resultSet -> resultSet.next() ? resultSet.getBytes(1) : null, table);
+        String candidates = "select t.id from " + table + " t where t.is_deleted = true and t.updated_at < ?"
+                + layout.unreferenced("t") + " %s order by t.id limit " + properties.getBatchSize();
+
+        while (!paused) {
+            List<byte[]> ids = lastId == null
+                    ? jdbcTemplate.query(candidates.formatted(""), (resultSet, row) -> resultSet.getBytes(1), cutoff)
+                    : jdbcTemplate.query(candidates.formatted("and t.id > ?"), (resultSet, row) -> resultSet.getBytes(1),
+                    cutoff, lastId);
+            if (ids.isEmpty()) {
+                // Pass complete, the next one starts over
+                transactionTemplate.executeWithoutResult(status -> saveCheckpoint(table, null));
+                state.lastId = null;
+                state.lastPassCompleted = Instant.now();
+                return;
+            }
+            byte[] last = ids.get(ids.size() - 1);
+            Integer moved = transactionTemplate.execute(status -> move(table, layout, ids, cutoff, last));
+            state.archived += moved == null ? 0 : moved;
+            state.lastId = HexFormat.of().formatHex(last);
+            lastId = last;
+            pause(properties.getBatchPause().toMillis());
+        }
+    }
+
+    /**
+     * Lock the batch, copy what still qualifies to the archive and delete it, and move the checkpoint
+     */
+    private int move(String table, Layout layout, List<byte[]> ids, LocalDateTime cutoff, byte[] last) {
+        // A row restored or changed since it was selected no longer qualifies and stays
+        List<Object> arguments = new ArrayList<>(ids);
+        arguments.add(cutoff);
+        List<byte[]> locked = jdbcTemplate.query("select id from " + table + " where id in (" + placeholders(ids.size())
+                        + ") and is_deleted = true and updated_at < ? for update",
+                (resultSet, row) -> resultSet.getBytes(1), arguments.toArray());
+        if (!locked.isEmpty()) {
+            String columns = String.join(", ", layout.columns());
+            String in = placeholders(locked.size());
+            List<Object> insertArguments = new ArrayList<>();
+            insertArguments.add(Timestamp.valueOf(LocalDateTime.now()));
+            insertArguments.addAll(locked);
+            jdbcTemplate.update("insert into " + table + ARCHIVE_SUFFIX + " (" + columns + ", " + ARCHIVED_AT + ") select "
+                    + columns + ", ? from " + table + " where id in (" + in + ")", insertArguments.toArray());
+            jdbcTemplate.update("delete from " + table + " where id in (" + in + ")", locked.toArray());
+        }
+        saveCheckpoint(table, last);
+        return locked.size();
+    }
+
+    /**
+     * Move archived rows whose {@code column} is one of {@code keys} back, undeleted, then the archived rows
+     * of the configured tables referencing them
+     */
+    private void restoreWhere(String table, String column, List<byte[]> keys, Map<String, Integer> restored) {
+        String archive = table + ARCHIVE_SUFFIX;
+        List<byte[]> ids = jdbcTemplate.query("select id from " + archive + " where " + column + " in ("
+                + placeholders(keys.size()) + ")", (resultSet, row) -> resultSet.getBytes(1), keys.toArray());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Layout layout = layout(table);
+        StringJoiner values = new StringJoiner(", ");
+        for (String name : layout.columns()) {
+            values.add(switch (name) {
+                case "is_deleted" -> "false";
+                case "updated_at" -> "?";
+                default -> name;
+            });
+        }
+        String in = placeholders(ids.size());
+        List<Object> arguments = new ArrayList<>();
+        if (layout.columns().contains("updated_at")) {
+            arguments.add(Timestamp.valueOf(LocalDateTime.now()));
+        }
+        arguments.addAll(ids);
+        jdbcTemplate.update("insert into " + table + " (" + String.join(", ", layout.columns()) + ") select " + values
+                + " from " + archive + " where id in (" + in + ")", arguments.toArray());
+        jdbcTemplate.update("delete from " + archive + " where id in (" + in + ")", ids.toArray());
+        restored.merge(table, ids.size(), Integer::sum);
+        // Now and again at commit, as for writes through the repository
+        entityOf(table).ifPresent(entityClass -> repositoryFactory.getRepository(entityClass).getCountCache().invalidateAll());
+
+        for (Map.Entry<String, String> reference : layout.referencing()) {
+            String child = reference.getKey();
+            if (!child.equals(table) && progress.containsKey(child) && archiveExists(child)) {
+                restoreWhere(child, reference.getValue(), ids, restored);
+            }
+        }
+    }
+
+    /**
+     * The configured tables, each after the configured tables referencing it through a foreign key
+     */
+    private List<String> inForeignKeyOrder() {
+        List<String> ordered = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        progress.keySet().forEach(table -> visit(table, visited, ordered));
+        return ordered;
+    }
+
+    private void visit(String table, Set<String> visited, List<String> ordered) {
+        if (!visited.add(table)) {
+            return;
+        }
+        for (Map.Entry<String, String> reference : layout(table).referencing()) {
+            if (progress.containsKey(reference.getKey())) {
+                visit(reference.getKey(), visited, ordered);
+            }
+        }
+        ordered.add(table);
+    }
+
+    /**
+     * The entity mapped to a table, matched by its {@code @Table} name
+     */
+    private Optional<Class<?>> entityOf(String table) {
+        return entityManagerFactory.getMetamodel().getEntities().stream()
+                .<Class<?>>map(EntityType::getJavaType)
+                .filter(type -> type.isAnnotationPresent(Table.class)
+                        && type.getAnnotation(Table.class).name().equalsIgnoreCase(table))
+                .findFirst();
+    }
+
+    private void saveCheckpoint(String table, byte[] lastId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update("update " + CHECKPOINT_TABLE + " set last_id = ?, updated_at = ? where table_name = ?",
+                lastId, now, table) == 0) {
+            jdbcTemplate.update("insert into " + CHECKPOINT_TABLE + " (table_name, last_id, updated_at) values (?, ?, ?)",
+                    table, lastId, now);
+        }
+    }
+
+    /**
+     * Create the archive table as an empty copy of the columns, or check an existing one still has them all
+     */
+    private void createArchiveTable(String table, Layout layout) {
+        String archive = table + ARCHIVE_SUFFIX;
+        if (!archiveExists(table)) {
+            logger.info("Creating archive table {}", archive);
+            jdbcTemplate.execute("create table " + archive + " as select * from " + table + " where 1 = 0");
+            jdbcTemplate.execute("alter table " + archive + " add column " + ARCHIVED_AT + " timestamp null");
+            // Copied columns are not all NOT NULL on every database, an index serves the lookups of restore
+            jdbcTemplate.execute("create index " + archive + "_id on " + archive + " (id)");
+            return;
+        }
+        List<String> missing = new ArrayList<>(layout.columns());
+        missing.removeAll(layout(archive).columns());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Archive table " + archive + " lacks columns " + missing
+                    + ", add them before archiving resumes");
+        }
+    }
+
+    private boolean archiveExists(String table) {
+        return !layout(table + ARCHIVE_SUFFIX).columns().isEmpty();
+    }
+
+    private Layout layout(String table) {
+        return jdbcTemplate.execute((ConnectionCallback<Layout>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            List<String> columns = new ArrayList<>();
+            try (ResultSet resultSet = metaData.getColumns(connection.getCatalog(), connection.getSchema(), name, null)) {
+                while (resultSet.next()) {
+                    columns.add(resultSet.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+            List<Map.Entry<String, String>> referencing = new ArrayList<>();
+            try (ResultSet resultSet = metaData.getExportedKeys(connection.getCatalog(), connection.getSchema(), name)) {
+                while (resultSet.next()) {
+                    referencing.add(Map.entry(resultSet.getString("FKTABLE_NAME").toLowerCase(Locale.ROOT),
+                            resultSet.getString("FKCOLUMN_NAME").toLowerCase(Locale.ROOT)));
+                }
+            }
+            return new Layout(columns, referencing);
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archival interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package product.asia.shop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the job moving old soft-deleted rows to archive tables ({@code app.archival.*})
+ */
+@ConfigurationProperties(prefix = "app.archival")
+public class ArchivalProperties {
+
+    /**
+     * Run passes on a schedule; passes can always be started through the actuator endpoint
+     */
+    private boolean enabled = false;
+
+    /**
+     * Tables to archive; a table referencing another one through a foreign key is processed before it
+     */
+    private List<String> tables = new ArrayList<>(List.of("product_attribute_values", "product_variants", "product_images",
+            "product_pricing", "product_inventory", "translations", "products"));
+
+    /**
+     * How long soft-deleted rows stay in the hot tables, counted from their last update
+     */
+    private Duration retention = Duration.ofDays(90);
+
+    /**
+     * Rows moved per transaction
+     */
+    private int batchSize = 500;
+
+    /**
+     * Pause between batches, leaving room for regular traffic and replication
+     */
+    private Duration batchPause = Duration.ofMillis(100);
+
+    /**
+     * Delay between the end of a pass and the start of the next one
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getTables() {
+        return tables;
+    }
+
+    public void setTables(List<String> tables) {
+        this.tables = tables;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getBatchPause() {
+        return batchPause;
+    }
+
+    public void setBatchPause(Duration batchPause) {
+        this.batchPause = batchPause;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+}
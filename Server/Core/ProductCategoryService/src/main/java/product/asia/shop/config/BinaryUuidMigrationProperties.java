@@ -0,0 +1,65 @@
+package product.asia.shop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the online UUID column migration ({@code app.migration.binary-uuid.*})
+ */
+@ConfigurationProperties(prefix = "app.migration.binary-uuid")
+public class BinaryUuidMigrationProperties {
+
+    /**
+     * Run the migration at startup
+     */
+    private boolean enabled = false;
+
+    /**
+     * Log the statements instead of running them
+     */
+    private boolean dryRun = false;
+
+    /**
+     * Rows rewritten per backfill statement
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Pause between backfill batches, leaving room for regular traffic and replication
+     */
+    private Duration batchPause = Duration.ofMillis(50);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getBatchPause() {
+        return batchPause;
+    }
+
+    public void setBatchPause(Duration batchPause) {
+        this.batchPause = batchPause;
+    }
+}
@@ -0,0 +1,54 @@
+package product.asia.shop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency budgets of the HTTP endpoints ({@code app.deadline.*}). The budget of a request comes from
+ * {@code endpoints}, keyed by {@code Controller.method}, then from {@code @LatencyBudget} on the
+ * controller method or class, then from {@code default-budget}; without any the request has no deadline.
+ */
+@ConfigurationProperties(prefix = "app.deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+    private Duration defaultBudget;
+    private Map<String, Duration> endpoints = new LinkedHashMap<>();
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(Duration defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public Map<String, Duration> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Duration> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
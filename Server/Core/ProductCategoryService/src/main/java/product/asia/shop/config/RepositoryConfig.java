@@ -0,0 +1,13 @@
+package product.asia.shop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import product.asia.shop.repository.factory.RepositoryBeanRegistrar;
+
+/**
+ * Registers the repository interfaces under {@code product.asia.shop.repository} as beans
+ */
+@Configuration
+@Import(RepositoryBeanRegistrar.class)
+public class RepositoryConfig {
+}
@@ -0,0 +1,157 @@
+package product.asia.shop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process product search index ({@code app.search.*})
+ */
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /**
+     * Build the index at startup; without it search falls back to SQL {@code LIKE} matching
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between catch-ups with products changed in the database, by this or other instances
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    /**
+     * How far back each catch-up looks before the newest change already indexed, covering transactions
+     * that committed after later ones
+     */
+    private Duration refreshOverlap = Duration.ofMinutes(1);
+
+    /**
+     * Products read per query while building or catching up
+     */
+    private int loadBatchSize = 1000;
+
+    /**
+     * Deepest hit a search may rank, {@code (page + 1) * size}; the ranking holds that many hits in memory
+     */
+    private int maxResultWindow = 10_000;
+
+    /**
+     * Typos tolerated per query term: none below 4 letters, one below 8, two from 8; 0 turns fuzzy matching off
+     */
+    private int fuzzyMaxEdits = 2;
+
+    /**
+     * Exact matches below which query terms are expanded to similar indexed words
+     */
+    private int fuzzyMinMatches = 5;
+
+    /**
+     * Similar words kept per query term, closest and most frequent first
+     */
+    private int fuzzyMaxExpansions = 20;
+
+    /**
+     * Time a search may spend looking for similar words, further cut to what is left of the request's budget
+     */
+    private Duration fuzzyBudget = Duration.ofMillis(20);
+
+    /**
+     * Delay between rebuilds of the autosuggest tries from product names, category names and their translations
+     */
+    private Duration suggestRebuildInterval = Duration.ofMinutes(10);
+
+    /**
+     * Suggestions kept per prefix, the largest {@code limit} a suggest request may ask for
+     */
+    private int suggestTopK = 10;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getRefreshOverlap() {
+        return refreshOverlap;
+    }
+
+    public void setRefreshOverlap(Duration refreshOverlap) {
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    public int getLoadBatchSize() {
+        return loadBatchSize;
+    }
+
+    public void setLoadBatchSize(int loadBatchSize) {
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public int getMaxResultWindow() {
+        return maxResultWindow;
+    }
+
+    public void setMaxResultWindow(int maxResultWindow) {
+        this.maxResultWindow = maxResultWindow;
+    }
+
+    public int getFuzzyMaxEdits() {
+        return fuzzyMaxEdits;
+    }
+
+    public void setFuzzyMaxEdits(int fuzzyMaxEdits) {
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+    }
+
+    public int getFuzzyMinMatches() {
+        return fuzzyMinMatches;
+    }
+
+    public void setFuzzyMinMatches(int fuzzyMinMatches) {
+        this.fuzzyMinMatches = fuzzyMinMatches;
+    }
+
+    public int getFuzzyMaxExpansions() {
+        return fuzzyMaxExpansions;
+    }
+
+    public void setFuzzyMaxExpansions(int fuzzyMaxExpansions) {
+        this.fuzzyMaxExpansions = fuzzyMaxExpansions;
+    }
+
+    public Duration getFuzzyBudget() {
+        return fuzzyBudget;
+    }
+
+    public void setFuzzyBudget(Duration fuzzyBudget) {
+        this.fuzzyBudget = fuzzyBudget;
+    }
+
+    public Duration getSuggestRebuildInterval() {
+        return suggestRebuildInterval;
+    }
+
+    public void setSuggestRebuildInterval(Duration suggestRebuildInterval) {
+        this.suggestRebuildInterval = suggestRebuildInterval;
+    }
+
+    public int getSuggestTopK() {
+        return suggestTopK;
+    }
+
+    public void setSuggestTopK(int suggestTopK) {
+        this.suggestTopK = suggestTopK;
+    }
+}
@@ -0,0 +1,80 @@
+package product.asia.shop.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sizing of the Hibernate second-level cache regions ({@code app.cache.*})
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class SecondLevelCacheProperties {
+
+    private long defaultMaxSize = 10_000;
+    private Duration defaultTtl = Duration.ofMinutes(10);
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * Maximum entries of a region, falling back to the default
+     */
+    public long maxSizeOf(String region) {
+        Region settings = regions.get(region);
+        return settings != null && settings.getMaxSize() != null ? settings.getMaxSize() : defaultMaxSize;
+    }
+
+    /**
+     * Time-to-live after write of a region, falling back to the default
+     */
+    public Duration ttlOf(String region) {
+        Region settings = regions.get(region);
+        return settings != null && settings.getTtl() != null ? settings.getTtl() : defaultTtl;
+    }
+
+    // Getters and Setters
+    public long getDefaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    public void setDefaultMaxSize(long defaultMaxSize) {
+        this.defaultMaxSize = defaultMaxSize;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    public static class Region {
+        private Long maxSize;
+        private Duration ttl;
+
+        public Long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
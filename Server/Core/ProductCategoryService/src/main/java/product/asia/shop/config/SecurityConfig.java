@@ -1,5 +1,8 @@
 package product.asia.shop.config;
 
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.info.InfoEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -29,7 +32,11 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
                         // Public endpoints - Health check and documentation
-                        .requestMatchers("/actuator/**", "/health/**").permitAll()
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, InfoEndpoint.class)).permitAll()
+                        .requestMatchers("/health/**").permitAll()
+
+                        // Other actuator endpoints can read statistics and pause, evict or restore data
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
 
                         // Public read-only endpoints for categories
                         .requestMatchers(HttpMethod.GET, "/api/v1/categories/**").permitAll()
@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import product.asia.shop.deadline.LatencyBudget;
 import product.asia.shop.dto.*;
 import product.asia.shop.service.ProductService;
 
@@ -26,18 +27,22 @@ public class ProductController {
 
     // Product CRUD Operations
     @GetMapping
+    @LatencyBudget("2s")
     public ResponseEntity<ApiResponse<PageResponseDto<ProductResponseDto>>> getAllProducts(
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size,
             @RequestParam(required = false) String sortBy,
             @RequestParam(required = false) String sortDirection,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") PageResponseDto.TotalType total,
             @RequestParam(required = false) String locale) {
         
-        PageResponseDto<ProductResponseDto> products = productService.getAllProducts(page, size, sortBy, sortDirection, locale);
+        PageResponseDto<ProductResponseDto> products = productService.getAllProducts(page, size, sortBy, sortDirection, cursor, total, locale);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
     @GetMapping("/{id}")
+    @LatencyBudget("1s")
     public ResponseEntity<ApiResponse<ProductResponseDto>> getProductById(
             @PathVariable UUID id,
             @RequestParam(required = false) String locale) {
@@ -67,21 +72,28 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(null));
     }
 
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<SoftDeleteResultDto>> deleteProducts(@RequestBody List<UUID> ids) {
+        SoftDeleteResultDto result = productService.deleteProducts(ids);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity<ApiResponse<ProductResponseDto>> updateProductStatus(
             @PathVariable UUID id,
-            @RequestParam String status) {
+            @RequestParam String status,
+            @RequestParam Long version) {
         
-        ProductResponseDto updatedProduct = productService.updateProductStatus(id, status);
+        ProductResponseDto updatedProduct = productService.updateProductStatus(id, status, version);
         return ResponseEntity.ok(ApiResponse.success(updatedProduct));
     }
 
     // Product Search & Filtering
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<PageResponseDto<ProductResponseDto>>> searchProducts(
+    public ResponseEntity<ApiResponse<ProductSearchResponseDto>> searchProducts(
             @Valid @ModelAttribute ProductSearchRequestDto searchRequest) {
         
-        PageResponseDto<ProductResponseDto> searchResults = productService.searchProducts(searchRequest);
+        ProductSearchResponseDto searchResults = productService.searchProducts(searchRequest);
         return ResponseEntity.ok(ApiResponse.success(searchResults));
     }
 
@@ -97,6 +109,7 @@ public class ProductController {
     }
 
     @GetMapping("/by-shop/{shopId}")
+    @LatencyBudget("2s")
     public ResponseEntity<ApiResponse<PageResponseDto<ProductResponseDto>>> getProductsByShop(
             @PathVariable UUID shopId,
             @RequestParam(defaultValue = "0") Integer page,
@@ -29,9 +29,10 @@ public class ShopController {
     public ResponseEntity<ApiResponse<PageResponseDto<ShopResponseDto>>> getAllShops(
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) String locale) {
         
-        PageResponseDto<ShopResponseDto> shops = shopService.getAllShops(page, size, locale);
+        PageResponseDto<ShopResponseDto> shops = shopService.getAllShops(page, size, cursor, locale);
         return ResponseEntity.ok(ApiResponse.success(shops));
     }
 
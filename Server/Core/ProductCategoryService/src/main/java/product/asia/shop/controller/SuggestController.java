@@ -0,0 +1,36 @@
+package product.asia.shop.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import product.asia.shop.deadline.LatencyBudget;
+import product.asia.shop.dto.*;
+import product.asia.shop.service.SuggestService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/suggest")
+@CrossOrigin(origins = "*")
+public class SuggestController {
+
+    private final SuggestService suggestService;
+
+    @Autowired
+    public SuggestController(SuggestService suggestService) {
+        this.suggestService = suggestService;
+    }
+
+    // Autosuggest, called on every keystroke
+    @GetMapping
+    @LatencyBudget("200ms")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String locale) {
+
+        List<SuggestionDto> suggestions = suggestService.suggest(q, limit, locale);
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+}
@@ -30,10 +30,11 @@ public class TranslationController {
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size,
             @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false) String locale) {
         
         PageResponseDto<TranslationResponseDto> translations = translationService.getAllTranslations(
-            page, size, entityType, locale);
+            page, size, entityType, cursor, locale);
         return ResponseEntity.ok(ApiResponse.success(translations));
     }
 
@@ -0,0 +1,239 @@
+package product.asia.shop.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.util.StringUtils;
+import product.asia.shop.config.ReadReplicaProperties;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source of read-only transactions. Connections come from the healthy replicas in round robin,
+ * or from the primary when no replica is usable. A background check marks a replica down when it
+ * fails validation or lags the primary by more than the allowed replication lag, and up again once
+ * it recovers. A replica whose pool cannot hand out a connection is marked down immediately.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final List<String> LAG_COLUMNS = List.of("Seconds_Behind_Source", "Seconds_Behind_Master");
+
+    private final DataSource primary;
+    private final List<ReplicaNode> replicas = new ArrayList<>();
+    private final Duration healthCheckInterval;
+    private final int validationTimeoutSeconds;
+    private final Duration maxReplicationLag;
+    private final String replicationLagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadReplicaProperties properties) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new ReplicaNode(name, dataSource)));
+        this.healthCheckInterval = properties.getHealthCheckInterval();
+        this.validationTimeoutSeconds = (int) Math.max(1, properties.getValidationTimeout().toSeconds());
+        this.maxReplicationLag = properties.getMaxReplicationLag();
+        this.replicationLagQuery = StringUtils.hasText(properties.getReplicationLagQuery())
+                ? properties.getReplicationLagQuery() : null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        int size = replicas.size();
+        if (size > 0) {
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                ReplicaNode replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return opener.open(replica.dataSource);
+                } catch (SQLException e) {
+                    replica.markDown("connection failed: " + e.getMessage());
+                }
+            }
+        }
+        return opener.open(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (replicas.isEmpty()) {
+            logger.info("No read replicas configured, read-only transactions use the primary");
+            return;
+        }
+        checkReplicas();
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (ReplicaNode replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close replica pool {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Current state of every replica
+     */
+    public List<ReplicaStatus> getReplicaStatus() {
+        List<ReplicaStatus> status = new ArrayList<>();
+        for (ReplicaNode replica : replicas) {
+            status.add(new ReplicaStatus(replica.name, replica.healthy, replica.replicationLag,
+                    replica.detail, replica.checkedAt));
+        }
+        return status;
+    }
+
+    /**
+     * Validate every replica and measure its lag once
+     */
+    public void checkReplicas() {
+        for (ReplicaNode replica : replicas) {
+            try {
+                check(replica);
+            } catch (RuntimeException e) {
+                replica.markDown("health check failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void check(ReplicaNode replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(validationTimeoutSeconds)) {
+                replica.markDown("validation failed");
+                return;
+            }
+            if (replicationLagQuery == null) {
+                replica.markUp(null);
+                return;
+            }
+            Duration lag = readReplicationLag(connection);
+            if (lag == null) {
+                replica.markDown("replication is not running");
+            } else if (lag.compareTo(maxReplicationLag) > 0) {
+                replica.markDown("replication lag " + lag.toSeconds() + "s exceeds " + maxReplicationLag.toSeconds() + "s");
+            } else {
+                replica.markUp(lag);
+            }
+        } catch (SQLException e) {
+            replica.markDown("unreachable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run the lag query. Reads the Seconds_Behind_Source/Master column of a replica status row,
+     * or the first column of any other query returning seconds; null when replication is stopped.
+     */
+    private Duration readReplicationLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(validationTimeoutSeconds);
+            try (ResultSet resultSet = statement.executeQuery(replicationLagQuery)) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                long seconds = resultSet.getLong(lagColumn(resultSet.getMetaData()));
+                return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+            }
+        }
+    }
+
+    private static int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (LAG_COLUMNS.contains(metaData.getColumnLabel(column))) {
+                return column;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Health of one replica as seen by the last check
+     */
+    public record ReplicaStatus(String name, boolean healthy, Duration replicationLag, String detail, Instant checkedAt) {
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class ReplicaNode {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile Duration replicationLag;
+        private volatile String detail;
+        private volatile Instant checkedAt;
+
+        ReplicaNode(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markUp(Duration lag) {
+            if (!healthy) {
+                logger.info("Read replica {} is back, routing reads to it again", name);
+            }
+            healthy = true;
+            replicationLag = lag;
+            detail = null;
+            checkedAt = Instant.now();
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                logger.warn("Read replica {} is down ({}), reads fall back to other replicas or the primary", name, reason);
+            }
+            healthy = false;
+            detail = reason;
+            checkedAt = Instant.now();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package product.asia.shop.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import product.asia.shop.config.DeadlineProperties;
+
+import java.time.Duration;
+
+/**
+ * Starts the deadline of each request to a controller method with a latency budget and ends it when the
+ * response is complete. Requests that ran past their budget are counted as {@code app.deadline.exceeded},
+ * tagged with the endpoint and whether they were cut short with a 503 or answered late.
+ */
+@Component
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    private static final String DEADLINE_ATTRIBUTE = DeadlineInterceptor.class.getName() + ".deadline";
+
+    @Autowired
+    private DeadlineProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        String endpoint = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        Duration budget = budgetOf(endpoint, method);
+        if (budget != null) {
+            request.setAttribute(DEADLINE_ATTRIBUTE, RequestDeadline.start(endpoint, budget));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(DEADLINE_ATTRIBUTE) instanceof RequestDeadline deadline)) {
+            return;
+        }
+        RequestDeadline.clear();
+        if (deadline.isExceeded()) {
+            String outcome = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value() ? "rejected" : "late";
+            meterRegistry.counter("app.deadline.exceeded", "endpoint", deadline.getEndpoint(), "outcome", outcome)
+                    .increment();
+        }
+    }
+
+    private Duration budgetOf(String endpoint, HandlerMethod method) {
+        Duration configured = properties.getEndpoints().get(endpoint);
+        if (configured != null) {
+            return configured;
+        }
+        LatencyBudget annotation = method.getMethodAnnotation(LatencyBudget.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), LatencyBudget.class);
+        }
+        return annotation != null ? DurationStyle.detectAndParse(annotation.value()) : properties.getDefaultBudget();
+    }
+}
@@ -0,0 +1,22 @@
+package product.asia.shop.deadline;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Time a controller method (or every method of a controller) may take to answer, e.g. {@code "300ms"}.
+ * {@code app.deadline.endpoints.<Controller>.<method>} overrides it without a redeploy.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LatencyBudget {
+
+    /**
+     * The budget, in the format of Spring Boot duration properties
+     */
+    String value();
+}
@@ -0,0 +1,100 @@
+package product.asia.shop.deadline;
+
+import jakarta.persistence.Query;
+import product.asia.shop.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_QUERY_TIMEOUT;
+
+/**
+ * The point in time by which the current request must be answered, set by {@link DeadlineInterceptor}.
+ * Repository queries carry the remaining time as their JPA query timeout, so the driver cancels a query
+ * still running when the budget is spent instead of letting it hold the thread and its connection.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final Duration budget;
+    private final long expiresAt;
+
+    private RequestDeadline(String endpoint, Duration budget) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.expiresAt = System.nanoTime() + budget.toNanos();
+    }
+
+    /**
+     * Start the budget of the request handled by the calling thread
+     */
+    static RequestDeadline start(String endpoint, Duration budget) {
+        RequestDeadline deadline = new RequestDeadline(endpoint, budget);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Deadline of the calling thread, empty outside of requests with a budget
+     */
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Set the time left as the query timeout.
+     *
+     * @throws DeadlineExceededException if no time is left
+     */
+    public static <Q extends Query> Q applyTo(Q query) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            query.setHint(HINT_SPEC_QUERY_TIMEOUT, deadline.timeoutMillis());
+        }
+        return query;
+    }
+
+    /**
+     * Fail if no time is left, before database calls that take no timeout (loads by id)
+     *
+     * @throws DeadlineExceededException if no time is left
+     */
+    public static void check() {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExceeded()) {
+            throw new DeadlineExceededException(deadline.endpoint, deadline.budget);
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Duration getBudget() {
+        return budget;
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(expiresAt - System.nanoTime());
+    }
+
+    public boolean isExceeded() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    private int timeoutMillis() {
+        long remaining = remaining().toMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(endpoint, budget);
+        }
+        // The hint is in milliseconds, Hibernate hands the driver the nearest whole second: under half a second
+        // that would be 0, no timeout at all
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(remaining, 1000));
+    }
+}
@@ -3,6 +3,16 @@ package product.asia.shop.dto;
 import java.util.List;
 
 public class PageResponseDto<T> {
+
+    /**
+     * How trustworthy totalElements/totalPages are
+     */
+    public enum TotalType {
+        EXACT,      // counted for this response
+        ESTIMATED,  // served from the count cache, may lag recent writes
+        OMITTED     // not counted, use hasNext
+    }
+
     private List<T> content;
     private Integer page;
     private Integer size;
@@ -10,6 +20,9 @@ public class PageResponseDto<T> {
     private Integer totalPages;
     private Boolean first;
     private Boolean last;
+    private String nextCursor;
+    private Boolean hasNext;
+    private TotalType totalType;
 
     // Constructors
     public PageResponseDto() {}
@@ -22,6 +35,35 @@ public class PageResponseDto<T> {
         this.totalPages = (int) Math.ceil((double) totalElements / size);
         this.first = page == 0;
         this.last = page >= totalPages - 1;
+        this.hasNext = !last;
+        this.totalType = TotalType.EXACT;
+    }
+
+    public PageResponseDto(List<T> content, Integer page, Integer size, Long totalElements, TotalType totalType) {
+        this(content, page, size, totalElements);
+        this.totalType = totalType;
+    }
+
+    public PageResponseDto(List<T> content, Integer size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.last = nextCursor == null;
+        this.hasNext = nextCursor != null;
+        this.totalType = TotalType.OMITTED;
+    }
+
+    // Static factory for count-free pages
+    public static <T> PageResponseDto<T> ofSlice(List<T> content, Integer page, Integer size, boolean hasNext) {
+        PageResponseDto<T> response = new PageResponseDto<>();
+        response.content = content;
+        response.page = page;
+        response.size = size;
+        response.first = page == 0;
+        response.last = !hasNext;
+        response.hasNext = hasNext;
+        response.totalType = TotalType.OMITTED;
+        return response;
     }
 
     // Getters and Setters
@@ -80,4 +122,28 @@ public class PageResponseDto<T> {
     public void setLast(Boolean last) {
         this.last = last;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public TotalType getTotalType() {
+        return totalType;
+    }
+
+    public void setTotalType(TotalType totalType) {
+        this.totalType = totalType;
+    }
 }
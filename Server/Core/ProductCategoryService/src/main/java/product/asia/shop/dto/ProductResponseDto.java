@@ -18,6 +18,8 @@ public class ProductResponseDto {
     private List<ProductAttributeDto> attributes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // expected version of conditional updates
+    private Long version;
     private Map<String, Map<String, String>> translations;
 
     // Constructors
@@ -36,6 +38,16 @@ public class ProductResponseDto {
         this.categoryName = categoryName;
     }
 
+    // Row of the product list projections
+    public ProductResponseDto(UUID id, String sku, String name, String description, String status,
+                            UUID shopId, String shopName, UUID categoryId, String categoryName,
+                            LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, sku, name, description, status, shopId, shopName, categoryId, categoryName);
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -133,6 +145,14 @@ public class ProductResponseDto {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Map<String, Map<String, String>> getTranslations() {
         return translations;
     }
@@ -0,0 +1,38 @@
+package product.asia.shop.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class ProductSearchResponseDto extends PageResponseDto<ProductResponseDto> {
+
+    private Map<UUID, Map<String, Long>> facets; // attributeId -> value -> matching products
+    private Boolean fuzzy; // query terms also matched similar words, too few products matching exactly
+
+    // Constructors
+    public ProductSearchResponseDto() {}
+
+    public ProductSearchResponseDto(List<ProductResponseDto> content, Integer page, Integer size, Long totalElements,
+                                    Map<UUID, Map<String, Long>> facets, Boolean fuzzy) {
+        super(content, page, size, totalElements);
+        this.facets = facets;
+        this.fuzzy = fuzzy;
+    }
+
+    // Getters and Setters
+    public Map<UUID, Map<String, Long>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<UUID, Map<String, Long>> facets) {
+        this.facets = facets;
+    }
+
+    public Boolean getFuzzy() {
+        return fuzzy;
+    }
+
+    public void setFuzzy(Boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+}
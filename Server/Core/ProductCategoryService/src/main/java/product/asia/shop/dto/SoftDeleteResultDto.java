@@ -0,0 +1,38 @@
+package product.asia.shop.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SoftDeleteResultDto {
+    private Map<String, Integer> rowsByTable = new LinkedHashMap<>(); // table -> rows marked deleted
+
+    // Constructors
+    public SoftDeleteResultDto() {}
+
+    /**
+     * Add rows marked deleted in a table
+     */
+    public void add(String table, int rows) {
+        rowsByTable.merge(table, rows, Integer::sum);
+    }
+
+    /**
+     * Merge another result into this one
+     */
+    public void addAll(SoftDeleteResultDto other) {
+        other.rowsByTable.forEach(this::add);
+    }
+
+    // Getters and Setters
+    public Map<String, Integer> getRowsByTable() {
+        return rowsByTable;
+    }
+
+    public void setRowsByTable(Map<String, Integer> rowsByTable) {
+        this.rowsByTable = rowsByTable;
+    }
+
+    public int getTotalRows() {
+        return rowsByTable.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
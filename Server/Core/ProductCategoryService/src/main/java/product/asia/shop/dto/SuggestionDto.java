@@ -0,0 +1,54 @@
+package product.asia.shop.dto;
+
+import java.util.UUID;
+
+public class SuggestionDto {
+
+    private String type; // keyword, category or product
+    private UUID id; // category or product id, null for keywords
+    private String text;
+    private Long weight;
+
+    // Constructors
+    public SuggestionDto() {}
+
+    public SuggestionDto(String type, UUID id, String text, Long weight) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.weight = weight;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Long weight) {
+        this.weight = weight;
+    }
+}
@@ -3,17 +3,26 @@ package product.asia.shop.entities;
 import java.util.Objects;
 import java.util.UUID;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "ATTRIBUTE_ALLOWED_VALUES") // --Attribute value options (select/multiselect)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ATTRIBUTE_ALLOWED_VALUES)
+@Table(name = "ATTRIBUTE_ALLOWED_VALUES", // --Attribute value options (select/multiselect)
+        // An attribute has few options, value lookups are filtered within its range
+        indexes = @Index(name = "IDX_ATTRIBUTE_ALLOWED_VALUES_ATTRIBUTE_ORDER", columnList = "ATTRIBUTE_ID, is_deleted, DISPLAY_ORDER"))
 public class AttributeAllowedValuesEntity extends BaseEntity {
 
-    @Column(name = "ATTRIBUTE_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "ATTRIBUTE_ID", nullable = false, insertable = false, updatable = false)
     private UUID attributeId;
 
     @Column(name = "VALUE", nullable = false, length = 100)
@@ -24,7 +33,7 @@ public class AttributeAllowedValuesEntity extends BaseEntity {
     private Integer displayOrder;
 
     // refence table ATTRIBUTES
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ATTRIBUTE_ID", nullable = false)
     private AttributesEntity attribute;
 
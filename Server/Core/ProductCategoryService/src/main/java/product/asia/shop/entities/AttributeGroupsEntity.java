@@ -2,11 +2,16 @@ package product.asia.shop.entities;
 
 import java.util.Objects;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ATTRIBUTE_GROUPS)
 @Table(name = "ATTRIBUTE_GROUPS") //Attribute group for display sections
 public class AttributeGroupsEntity extends BaseEntity {
 
@@ -3,14 +3,26 @@ package product.asia.shop.entities;
 import java.util.Objects;
 import java.util.UUID;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "ATTRIBUTES") // master list for attributes
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.ATTRIBUTES)
+@Table(name = "ATTRIBUTES", // master list for attributes
+        indexes = {
+                @Index(name = "IDX_ATTRIBUTES_CODE", columnList = "CODE, is_deleted"),
+                @Index(name = "IDX_ATTRIBUTES_GROUP_CODE", columnList = "GROUP_ID, is_deleted, CODE"),
+                @Index(name = "IDX_ATTRIBUTES_DATA_TYPE", columnList = "DATA_TYPE, is_deleted")
+        })
 public class AttributesEntity extends BaseEntity {
     // code
     @Column(name = "CODE", nullable = false, length = 128)
@@ -29,7 +41,7 @@ public class AttributesEntity extends BaseEntity {
     private String unit;
 
     // group id -- group for display (e.g., Tech Specs)
-    @Column(name = "GROUP_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "GROUP_ID", nullable = false, insertable = false, updatable = false)
     private UUID groupId;
 
     // is_filterable BOOLEAN DEFAULT false,
@@ -42,7 +54,7 @@ public class AttributesEntity extends BaseEntity {
 
     // ALTER TABLE attributes ADD CONSTRAINT fk_group FOREIGN KEY(group_id)
     // REFERENCES attribute_groups(id);
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "GROUP_ID", nullable = false)
     private AttributeGroupsEntity group;
 
@@ -1,6 +1,9 @@
 package product.asia.shop.entities;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -9,10 +12,18 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @MappedSuperclass
+// Soft-deleted rows are hidden from every query of every session; admin and restore code opts out with
+// GenericRepository.withDeleted. Loads by id are checked by the repository instead (see BaseRepository.findById),
+// so associations to deleted rows keep resolving.
+@FilterDef(name = BaseEntity.NOT_DELETED_FILTER, defaultCondition = "is_deleted = false", autoEnabled = true)
+@Filter(name = BaseEntity.NOT_DELETED_FILTER)
 public class BaseEntity implements Serializable {
 
+    public static final String NOT_DELETED_FILTER = "notDeleted";
+
+    // time-ordered, stored as BINARY(16) like every UUID column (hibernate.type.preferred_uuid_jdbc_type)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @CreatedDate
@@ -32,6 +43,11 @@ public class BaseEntity implements Serializable {
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
 
+    // optimistic lock, incremented by every update (rows created before versioning start at 0)
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
 
     //getters and setters
     public LocalDateTime getCreatedAt() {
@@ -76,6 +92,14 @@ public class BaseEntity implements Serializable {
         this.isDeleted = isDeleted;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -0,0 +1,21 @@
+package product.asia.shop.entities;
+
+import java.util.List;
+
+/**
+ * Second-level cache regions of the reference entities.
+ * Sizes and TTLs are configured per region under {@code app.cache.regions.<name>}.
+ */
+public final class CacheRegions {
+
+    public static final String ATTRIBUTES = "attributes";
+    public static final String ATTRIBUTE_GROUPS = "attribute-groups";
+    public static final String ATTRIBUTE_ALLOWED_VALUES = "attribute-allowed-values";
+    public static final String CATEGORIES = "categories";
+    public static final String SHOPS = "shops";
+
+    public static final List<String> ALL = List.of(ATTRIBUTES, ATTRIBUTE_GROUPS, ATTRIBUTE_ALLOWED_VALUES, CATEGORIES, SHOPS);
+
+    private CacheRegions() {
+    }
+}
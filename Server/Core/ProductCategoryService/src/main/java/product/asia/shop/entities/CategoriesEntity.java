@@ -3,12 +3,23 @@ package product.asia.shop.entities;
 import java.util.Objects;
 import java.util.UUID;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "CATEGORIES") //parent/child (tree)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.CATEGORIES)
+@Table(name = "CATEGORIES", //parent/child (tree)
+        indexes = {
+                @Index(name = "IDX_CATEGORIES_PARENT", columnList = "PARENT_ID, is_deleted"),
+                // name lookups and the alphabetical listing
+                @Index(name = "IDX_CATEGORIES_DELETED_NAME", columnList = "is_deleted, NAME")
+        })
 public class CategoriesEntity extends BaseEntity {
     @Column(name = "NAME", nullable = false, length = 100)
     private String name;
@@ -16,7 +27,7 @@ public class CategoriesEntity extends BaseEntity {
     @Column(name = "DESCRIPTION", nullable = false, length = 500)
     private String description;
 
-    @Column(name = "PARENT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "PARENT_ID", nullable = false, insertable = false, updatable = false)
     private UUID parentId;
 
     //Getter and Setter
@@ -5,19 +5,32 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "CATEGORY_ATTRIBUTES")
+@Table(name = "CATEGORY_ATTRIBUTES", indexes = {
+        @Index(name = "IDX_CATEGORY_ATTRIBUTES_CATEGORY_ORDER", columnList = "CATEGORY_ID, is_deleted, DISPLAY_ORDER"),
+        @Index(name = "IDX_CATEGORY_ATTRIBUTES_ATTRIBUTE", columnList = "ATTRIBUTE_ID, is_deleted")
+})
+@NamedEntityGraph(name = CategoryAttributesEntity.GRAPH_ATTRIBUTE, attributeNodes = {
+        @NamedAttributeNode("attribute")
+})
 public class CategoryAttributesEntity extends BaseEntity {
 
+    // fetch plan of category attribute responses
+    public static final String GRAPH_ATTRIBUTE = "CategoryAttributesEntity.attribute";
+
     // Remove these duplicate column mappings
-    // @Column(name = "CATEGORY_ID", nullable = false, length = 36)
+    // @Column(name = "CATEGORY_ID", nullable = false)
     // private UUID categoryId;
 
-    // @Column(name = "ATTRIBUTE_ID", nullable = false, length = 36)
+    // @Column(name = "ATTRIBUTE_ID", nullable = false)
     // private UUID attributeId;
 
     // display order
@@ -25,12 +38,12 @@ public class CategoryAttributesEntity extends BaseEntity {
     private Integer displayOrder;
 
     // reference table CATEGORIES
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "CATEGORY_ID", nullable = false)
     private CategoriesEntity category;
 
     // reference table ATTRIBUTES
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ATTRIBUTE_ID", nullable = false)
     private AttributesEntity attribute;
 
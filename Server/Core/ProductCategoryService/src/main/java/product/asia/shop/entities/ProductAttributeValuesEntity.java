@@ -6,49 +6,73 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "PRODUCT_ATTRIBUTE_VALUES") // Values for each attribute of each product (supports all types)
+@Table(name = "PRODUCT_ATTRIBUTE_VALUES", // Values for each attribute of each product (supports all types)
+        // one value per product and attribute, natural key of bulk upserts
+        uniqueConstraints = @UniqueConstraint(name = "UK_PRODUCT_ATTRIBUTE_VALUES_PRODUCT_ATTRIBUTE",
+                columnNames = {"PRODUCT_ID", "ATTRIBUTE_ID"}),
+        // attribute filters: products having a given value of an attribute
+        indexes = {
+                @Index(name = "IDX_PRODUCT_ATTRIBUTE_VALUES_ATTRIBUTE_STRING", columnList = "ATTRIBUTE_ID, VALUE_STRING"),
+                @Index(name = "IDX_PRODUCT_ATTRIBUTE_VALUES_ATTRIBUTE_NUMBER", columnList = "ATTRIBUTE_ID, VALUE_NUMBER"),
+                @Index(name = "IDX_PRODUCT_ATTRIBUTE_VALUES_ATTRIBUTE_OPTION", columnList = "ATTRIBUTE_ID, VALUE_OPTIONS_ID"),
+                // search index catch-up: values changed since the last pass
+                @Index(name = "IDX_PRODUCT_ATTRIBUTE_VALUES_UPDATED", columnList = "updated_at")
+        })
+@NamedEntityGraph(name = ProductAttributeValuesEntity.GRAPH_ATTRIBUTE_AND_OPTION, attributeNodes = {
+        @NamedAttributeNode("attribute"),
+        @NamedAttributeNode("valueOptions")
+})
 public class ProductAttributeValuesEntity extends BaseEntity {
 
-    @Column(name = "PRODUCT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    // fetch plan of product attribute responses
+    public static final String GRAPH_ATTRIBUTE_AND_OPTION = "ProductAttributeValuesEntity.attributeAndOption";
+
+    @Column(name = "PRODUCT_ID", nullable = false, insertable = false, updatable = false)
     private UUID productId;
 
-    @Column(name = "ATTRIBUTE_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "ATTRIBUTE_ID", nullable = false, insertable = false, updatable = false)
     private UUID attributeId;
 
-    @Column(name = "VALUE_STRING", nullable = false, length = 100)
+    // only the value column matching the attribute data type is set
+    @Column(name = "VALUE_STRING", length = 100)
     private String valueString;
 
-    @Column(name = "VALUE_NUMBER", nullable = false, length = 100)
+    @Column(name = "VALUE_NUMBER", length = 100)
     private Double valueNumber;
 
-    @Column(name = "VALUE_BOOLEAN", nullable = false, length = 100)
+    @Column(name = "VALUE_BOOLEAN", length = 100)
     private Boolean valueBoolean;
 
-    @Column(name = "VALUE_DATE", nullable = false, length = 100)
+    @Column(name = "VALUE_DATE", length = 100)
     private LocalDateTime valueDate;
 
     // value options id reference attribute allowed values
-    @Column(name = "VALUE_OPTIONS_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "VALUE_OPTIONS_ID", insertable = false, updatable = false)
     private UUID valueOptionsId;
 
     // refence table PRODUCTS
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PRODUCT_ID", nullable = false)
     private ProductsEntity product;
 
     // refence table ATTRIBUTES
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ATTRIBUTE_ID", nullable = false)
     private AttributesEntity attribute;
 
     // refence table ATTRIBUTE_ALLOWED_VALUES
-    @ManyToOne
-    @JoinColumn(name = "VALUE_OPTIONS_ID", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "VALUE_OPTIONS_ID")
     private AttributeAllowedValuesEntity valueOptions;
 
     // getter and setter
@@ -5,15 +5,21 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "PRODUCT_IMAGES")
+@Table(name = "PRODUCT_IMAGES", indexes = {
+        // A product has few images, the image type is filtered within its range
+        @Index(name = "IDX_PRODUCT_IMAGES_PRODUCT_ORDER", columnList = "PRODUCT_ID, is_deleted, DISPLAY_ORDER"),
+        @Index(name = "IDX_PRODUCT_IMAGES_URL", columnList = "IMAGE_URL, is_deleted")
+})
 public class ProductImagesEntity extends BaseEntity {
 
-    @Column(name = "PRODUCT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "PRODUCT_ID", nullable = false, insertable = false, updatable = false)
     private UUID productId;
 
     @Column(name = "IMAGE_URL", nullable = false, length = 500)
@@ -38,7 +44,7 @@ public class ProductImagesEntity extends BaseEntity {
     private Integer height;
 
     // Reference table PRODUCTS
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PRODUCT_ID", nullable = false)
     private ProductsEntity product;
 
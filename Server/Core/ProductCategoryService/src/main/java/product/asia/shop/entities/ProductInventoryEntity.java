@@ -5,18 +5,22 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "PRODUCT_INVENTORY")
+@Table(name = "PRODUCT_INVENTORY", indexes = {
+        @Index(name = "IDX_PRODUCT_INVENTORY_PRODUCT", columnList = "PRODUCT_ID, is_deleted")
+})
 public class ProductInventoryEntity extends BaseEntity {
 
-    @Column(name = "PRODUCT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "PRODUCT_ID", nullable = false, insertable = false, updatable = false)
     private UUID productId;
 
-    @Column(name = "WAREHOUSE_ID", nullable = true, length = 36)
+    @Column(name = "WAREHOUSE_ID", nullable = true)
     private UUID warehouseId; // For multi-warehouse support
 
     @Column(name = "QUANTITY_AVAILABLE", nullable = false)
@@ -50,7 +54,7 @@ public class ProductInventoryEntity extends BaseEntity {
     private String notes;
 
     // Reference table PRODUCTS
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PRODUCT_ID", nullable = false)
     private ProductsEntity product;
 
@@ -7,15 +7,19 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "PRODUCT_PRICING")
+@Table(name = "PRODUCT_PRICING", indexes = {
+        @Index(name = "IDX_PRODUCT_PRICING_PRODUCT", columnList = "PRODUCT_ID, is_deleted")
+})
 public class ProductPricingEntity extends BaseEntity {
 
-    @Column(name = "PRODUCT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "PRODUCT_ID", nullable = false, insertable = false, updatable = false)
     private UUID productId;
 
     @Column(name = "PRICE_TYPE", nullable = false, length = 50)
@@ -49,7 +53,7 @@ public class ProductPricingEntity extends BaseEntity {
     private Boolean isActive = true;
 
     // Reference table PRODUCTS
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PRODUCT_ID", nullable = false)
     private ProductsEntity product;
 
@@ -6,15 +6,21 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "PRODUCT_VARIANTS")
+@Table(name = "PRODUCT_VARIANTS", indexes = {
+        @Index(name = "IDX_PRODUCT_VARIANTS_PARENT_POSITION", columnList = "PARENT_PRODUCT_ID, is_deleted, POSITION"),
+        @Index(name = "IDX_PRODUCT_VARIANTS_SKU", columnList = "VARIANT_SKU, is_deleted"),
+        @Index(name = "IDX_PRODUCT_VARIANTS_BARCODE", columnList = "BARCODE, is_deleted")
+})
 public class ProductVariantsEntity extends BaseEntity {
 
-    @Column(name = "PARENT_PRODUCT_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "PARENT_PRODUCT_ID", nullable = false, insertable = false, updatable = false)
     private UUID parentProductId;
 
     @Column(name = "VARIANT_SKU", nullable = false, length = 50)
@@ -45,7 +51,7 @@ public class ProductVariantsEntity extends BaseEntity {
     private String status = "ACTIVE"; // ACTIVE, INACTIVE, DISCONTINUED
 
     // Reference table PRODUCTS (parent product)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PARENT_PRODUCT_ID", nullable = false)
     private ProductsEntity parentProduct;
 
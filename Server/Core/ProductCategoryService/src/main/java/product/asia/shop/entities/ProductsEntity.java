@@ -5,8 +5,12 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 
 /**
@@ -19,8 +23,23 @@ import jakarta.persistence.Table;
  *       Because Oct 31 == Dec 25!
  */
 @Entity
-@Table(name = "PRODUCTS")
+@Table(name = "PRODUCTS", indexes = {
+        // List endpoints: equality filter, soft delete flag, then the default newest-first order
+        @Index(name = "IDX_PRODUCTS_SHOP_CREATED", columnList = "SHOP_ID, is_deleted, created_at"),
+        @Index(name = "IDX_PRODUCTS_CATEGORY_CREATED", columnList = "CATEGORY_ID, is_deleted, created_at"),
+        @Index(name = "IDX_PRODUCTS_STATUS_CREATED", columnList = "STATUS, is_deleted, created_at"),
+        @Index(name = "IDX_PRODUCTS_DELETED_CREATED", columnList = "is_deleted, created_at"),
+        @Index(name = "IDX_PRODUCTS_SKU", columnList = "SKU, is_deleted")
+})
+@NamedEntityGraph(name = ProductsEntity.GRAPH_CATEGORY_AND_SHOP, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("shop")
+})
 public class ProductsEntity extends BaseEntity {
+
+    // fetch plan of the product list and detail responses (category and shop names)
+    public static final String GRAPH_CATEGORY_AND_SHOP = "ProductsEntity.categoryAndShop";
+
     @Column(name = "SKU", nullable = false, length = 30)
     private String SKU;
 
@@ -34,20 +53,20 @@ public class ProductsEntity extends BaseEntity {
     private String status; // ACTIVE, INACTIVE, SOLD_OUT, etc.
 
     // SHOP_ID
-    @Column(name = "SHOP_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "SHOP_ID", nullable = false, insertable = false, updatable = false)
     private UUID shopId;
 
     // CATEGORY_ID
-    @Column(name = "CATEGORY_ID", nullable = false, length = 36, insertable = false, updatable = false)
+    @Column(name = "CATEGORY_ID", nullable = false, insertable = false, updatable = false)
     private UUID categoryId;
 
     // refence table PRODUCT_CATEGORIES
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "CATEGORY_ID", nullable = false)
     private CategoriesEntity category;
 
     // refence table SHOPS
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "SHOP_ID", nullable = false)
     private ShopsEntity shop;
 
@@ -101,6 +120,22 @@ public class ProductsEntity extends BaseEntity {
         this.categoryId = categoryId;
     }
 
+    public CategoriesEntity getCategory() {
+        return category;
+    }
+
+    public void setCategory(CategoriesEntity category) {
+        this.category = category;
+    }
+
+    public ShopsEntity getShop() {
+        return shop;
+    }
+
+    public void setShop(ShopsEntity shop) {
+        this.shop = shop;
+    }
+
     // toString
     @Override
     public String toString() {
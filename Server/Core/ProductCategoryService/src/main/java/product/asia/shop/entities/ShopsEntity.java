@@ -2,12 +2,20 @@ package product.asia.shop.entities;
 
 import java.util.Objects;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "SHOPS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.SHOPS)
+@Table(name = "SHOPS", indexes = {
+        @Index(name = "IDX_SHOPS_NAME", columnList = "NAME, is_deleted")
+})
 public class ShopsEntity extends BaseEntity {
 
     @Column(name = "NAME", nullable = false, length = 100)
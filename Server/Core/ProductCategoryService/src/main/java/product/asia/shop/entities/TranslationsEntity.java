@@ -5,17 +5,34 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "TRANSLATIONS") // -- Multi-language support (attribute/option/product/category names)
+@Table(name = "TRANSLATIONS", // -- Multi-language support (attribute/option/product/category names)
+        // natural key of bulk upserts
+        uniqueConstraints = @UniqueConstraint(name = "UK_TRANSLATIONS_ENTITY_LOCALE_FIELD",
+                columnNames = {"ENTITY_TYPE", "ENTITY_ID", "LOCALE", "FIELD"}),
+        // lookups by entity are served by the unique key, this one by locale (exports, missing translations)
+        indexes = {
+                @Index(name = "IDX_TRANSLATIONS_LOCALE_TYPE", columnList = "LOCALE, ENTITY_TYPE, is_deleted"),
+                // search index catch-up: translations changed since the last pass
+                @Index(name = "IDX_TRANSLATIONS_UPDATED", columnList = "updated_at")
+        })
 public class TranslationsEntity extends BaseEntity {
 
+    public static final String ENTITY_TYPE_PRODUCT = "product";
+    public static final String ENTITY_TYPE_CATEGORY = "category";
+    public static final String ENTITY_TYPE_SHOP = "shop";
+
+    public static final String FIELD_NAME = "name";
+
     @Column(name = "ENTITY_TYPE", nullable = false, length = 50)
     private String entityType;
 
     // -- 'attribute', 'product', etc.
-    @Column(name = "ENTITY_ID", nullable = false, length = 36)
+    @Column(name = "ENTITY_ID", nullable = false)
     private UUID entityId;
 
     // locale -- 'en', 'vi', etc.
@@ -0,0 +1,18 @@
+package product.asia.shop.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request has used up its latency budget before issuing a query
+ */
+public class DeadlineExceededException extends BaseException {
+
+    private static final String ERROR_CODE = "DEADLINE_EXCEEDED";
+
+    public DeadlineExceededException(String endpoint, Duration budget) {
+        super(String.format("%s exceeded its latency budget of %d ms", endpoint, budget.toMillis()),
+              ERROR_CODE, HttpStatus.SERVICE_UNAVAILABLE, endpoint, budget);
+    }
+}
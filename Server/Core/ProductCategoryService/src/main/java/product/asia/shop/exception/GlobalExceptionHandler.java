@@ -2,10 +2,14 @@ package product.asia.shop.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -22,8 +26,11 @@ import org.springframework.web.context.request.WebRequest;
 
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.QueryTimeoutException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import product.asia.shop.config.DeadlineProperties;
 import product.asia.shop.dto.ApiResponse;
 import product.asia.shop.dto.ValidationErrorResponse;
 
@@ -37,12 +44,15 @@ import java.util.stream.Collectors;
 import javax.naming.AuthenticationException;
 
 @RestControllerAdvice
+@EnableConfigurationProperties(DeadlineProperties.class)
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     @Value("${app.debug.include-stack-trace:false}")
     private boolean includeStackTrace;
+    @Autowired
+    private DeadlineProperties deadlineProperties;
 
     // ==================== Custom Application Exceptions ====================
 
@@ -74,6 +84,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, ex.getHttpStatus());
     }
 
+    /**
+     * Handle requests past their latency budget, whether caught before a query or cancelled by the driver
+     */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class,
+            org.springframework.dao.QueryTimeoutException.class})
+    public ResponseEntity<ApiResponse<ErrorResponse>> handleDeadlineExceededException(
+            RuntimeException ex, WebRequest request) {
+
+        logger.warn("Latency budget exceeded: {}", ex.getMessage());
+
+        ApiResponse<ErrorResponse> response = ApiResponse.error("The service is busy, retry later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, deadlineProperties.getRetryAfter().toSeconds())))
+                .body(response);
+    }
+
     /**
      * Handle custom ValidationException
      */
@@ -265,6 +291,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Handle optimistic lock conflicts: the entity changed since the version the client read
+     */
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<ApiResponse<ErrorResponse>> handleOptimisticLockException(
+            RuntimeException ex, WebRequest request) {
+
+        logger.warn("Optimistic lock conflict: {}", ex.getMessage());
+
+        ApiResponse<ErrorResponse> response = ApiResponse.error("The resource was modified concurrently, reload it and retry");
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handle general data access exceptions
      */
@@ -0,0 +1,449 @@
+package product.asia.shop.migration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.mapping.PluralAttributeMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import product.asia.shop.config.BinaryUuidMigrationProperties;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Online rewrite of the UUID columns of an existing MySQL schema to {@code BINARY(16)}, the format
+ * entities map UUIDs to. Columns written as 36 character text ({@code CHAR(36)}, or {@code BINARY(36)}
+ * created by earlier mappings) are converted, their values are kept.
+ * <p>
+ * Tables are copied rather than altered, the way pt-online-schema-change does, so the old release keeps
+ * reading and writing them throughout:
+ * <ol>
+ *     <li>an empty shadow table is created like each table, with the columns to convert as
+ *     {@code BINARY(16)}; it has the same indexes</li>
+ *     <li>triggers on the table replay every insert, update and delete on the shadow</li>
+ *     <li>existing rows are copied in primary key ranges of {@code batch-size} rows; rows the triggers
+ *     already copied are kept</li>
+ *     <li>table and shadow are compared, any difference aborts the migration</li>
+ *     <li>foreign keys from or to the tables are dropped, one {@code RENAME TABLE} swaps every shadow
+ *     in at once, then the foreign keys are recreated and the old tables dropped</li>
+ * </ol>
+ * No table is locked or rebuilt in place: the rename only waits for the metadata locks of running
+ * transactions. Every phase before the rename is idempotent, so an interrupted migration can be rerun.
+ * Run it once, apart from the serving instances: {@code --app.migration.binary-uuid.enabled=true
+ * --spring.main.web-application-type=none}, with {@code dry-run} first to review the statements.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.migration.binary-uuid", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(BinaryUuidMigrationProperties.class)
+public class BinaryUuidMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryUuidMigration.class);
+
+    private static final String SHADOW_SUFFIX = "__bin";
+    private static final String OLD_SUFFIX = "__old";
+    private static final String TARGET_TYPE = "binary(16)";
+
+    /**
+     * A column to convert
+     */
+    record Column(String name, String dataType, boolean nullable) {
+
+        /**
+         * The 16 bytes of the UUID stored as text in {@code source}
+         */
+        String conversion(String source) {
+            if (dataType.contains("char")) {
+                return "unhex(replace(" + source + ", '-', ''))";
+            }
+            // BINARY(36) pads with zero bytes, BINARY(n > 16) may also hold raw bytes padded the same way
+            String trimmed = "trim(trailing 0x00 from " + source + ")";
+            return "if(octet_length(" + trimmed + ") = 36, unhex(replace(" + trimmed + ", '-', '')), left(" + source + ", 16))";
+        }
+
+        String definition(String columnName) {
+            return columnName + " " + TARGET_TYPE + (nullable ? " null" : " not null");
+        }
+    }
+
+    /**
+     * A table with columns to convert
+     *
+     * @param columns    The columns to convert
+     * @param allColumns Every column, in table order
+     */
+    record Table(String name, String primaryKey, Map<String, Column> columns, List<String> allColumns) {
+
+        String shadow() {
+            return name + SHADOW_SUFFIX;
+        }
+
+        String old() {
+            return name + OLD_SUFFIX;
+        }
+
+        String trigger(String event) {
+            return name + SHADOW_SUFFIX + "_" + event;
+        }
+
+        /**
+         * A column of the table as the shadow stores it, read from {@code source}
+         */
+        String converted(String column, String source) {
+            Column converted = columns.get(column);
+            return converted == null ? source : converted.conversion(source);
+        }
+    }
+
+    /**
+     * A foreign key from or to a converted column
+     */
+    record ForeignKey(String name, String table, List<String> columns, String referencedTable,
+                      List<String> referencedColumns, String updateRule, String deleteRule) {
+
+        String definition() {
+            return "alter table " + table + " add constraint " + name
+                    + " foreign key (" + String.join(", ", columns) + ")"
+                    + " references " + referencedTable + " (" + String.join(", ", referencedColumns) + ")"
+                    + " on update " + updateRule + " on delete " + deleteRule;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BinaryUuidMigrationProperties properties;
+
+    // Always the primary: the replicas only follow the rewrite through replication
+    @Autowired
+    public BinaryUuidMigration(HikariDataSource primaryDataSource, EntityManagerFactory entityManagerFactory,
+                               BinaryUuidMigrationProperties properties) {
+        this(new JdbcTemplate(primaryDataSource), entityManagerFactory, properties);
+    }
+
+    BinaryUuidMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                        BinaryUuidMigrationProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        migrate();
+    }
+
+    public void migrate() throws InterruptedException {
+        List<Table> tables = plan();
+        if (tables.isEmpty()) {
+            logger.info("All UUID columns are stored as {}, nothing to migrate", TARGET_TYPE);
+            return;
+        }
+        tables.forEach(table -> logger.info("Converting {}.{} to {}", table.name(), table.columns().keySet(), TARGET_TYPE));
+
+        // Read before anything is dropped, a rerun after the switch finds nothing left to do
+        List<ForeignKey> foreignKeys = findForeignKeys(tables);
+
+        for (Table table : tables) {
+            createShadow(table);
+            createTriggers(table);
+        }
+        for (Table table : tables) {
+            backfill(table);
+        }
+        for (Table table : tables) {
+            verify(table);
+        }
+        for (ForeignKey foreignKey : foreignKeys) {
+            execute("alter table " + foreignKey.table() + " drop foreign key " + foreignKey.name()
+                    + ", algorithm=inplace, lock=none");
+        }
+        swap(tables);
+        recreateForeignKeys(foreignKeys);
+        for (Table table : tables) {
+            execute("drop table " + table.old());
+        }
+        logger.info("UUID migration of {} tables completed", tables.size());
+    }
+
+    /**
+     * Tables whose mapped UUID columns are not stored as {@code BINARY(16)} yet
+     */
+    List<Table> plan() {
+        Map<String, Set<String>> mapped = mappedUuidColumns();
+        Map<String, Map<String, Column>> columns = new TreeMap<>();
+        Map<String, List<String>> allColumns = new HashMap<>();
+        jdbcTemplate.query("select table_name, column_name, data_type, column_type, is_nullable "
+                + "from information_schema.columns where table_schema = database() order by table_name, ordinal_position", rs -> {
+            String table = rs.getString("table_name").toLowerCase(Locale.ROOT);
+            String column = rs.getString("column_name").toLowerCase(Locale.ROOT);
+            allColumns.computeIfAbsent(table, key -> new ArrayList<>()).add(column);
+            if (mapped.getOrDefault(table, Set.of()).contains(column)
+                    && !TARGET_TYPE.equalsIgnoreCase(rs.getString("column_type"))) {
+                columns.computeIfAbsent(table, key -> new LinkedHashMap<>()).put(column, new Column(column,
+                        rs.getString("data_type").toLowerCase(Locale.ROOT), "YES".equals(rs.getString("is_nullable"))));
+            }
+        });
+
+        List<Table> tables = new ArrayList<>();
+        columns.forEach((table, converted) -> {
+            List<String> primaryKey = jdbcTemplate.queryForList("select column_name from information_schema.key_column_usage "
+                    + "where table_schema = database() and table_name = ? and constraint_name = 'PRIMARY' "
+                    + "order by ordinal_position", String.class, table);
+            if (primaryKey.size() != 1) {
+                throw new IllegalStateException("Table " + table + " needs a single column primary key to be backfilled");
+            }
+            tables.add(new Table(table, primaryKey.get(0).toLowerCase(Locale.ROOT), converted, allColumns.get(table)));
+        });
+        return tables;
+    }
+
+    private Map<String, Set<String>> mappedUuidColumns() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Map<String, Set<String>> columns = new HashMap<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(descriptor -> {
+            AbstractEntityPersister persister = (AbstractEntityPersister) descriptor;
+            Set<String> tableColumns = columns.computeIfAbsent(
+                    persister.getTableName().toLowerCase(Locale.ROOT), key -> new HashSet<>());
+            if (persister.getIdentifierType().getReturnedClass() == UUID.class) {
+                addColumns(tableColumns, persister.getIdentifierColumnNames());
+            }
+            // Columns of basic attributes and foreign keys, collections live in the tables of their elements
+            persister.forEachAttributeMapping(attribute -> {
+                if (attribute instanceof PluralAttributeMapping) {
+                    return;
+                }
+                attribute.forEachSelectable((index, selectable) -> {
+                    if (selectable.getJdbcMapping().getJavaTypeDescriptor().getJavaTypeClass() == UUID.class) {
+                        tableColumns.add(selectable.getSelectionExpression().toLowerCase(Locale.ROOT));
+                    }
+                });
+            });
+        });
+        return columns;
+    }
+
+    private static void addColumns(Set<String> target, String[] columns) {
+        for (String column : columns) {
+            target.add(column.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Foreign keys from or to the tables. The shadows are created without foreign keys, and the rename
+     * would leave the ones referencing a table pointing to the old copy.
+     */
+    private List<ForeignKey> findForeignKeys(List<Table> tables) {
+        Set<String> names = new HashSet<>();
+        tables.forEach(table -> names.add(table.name()));
+
+        Map<String, ForeignKey> foreignKeys = new LinkedHashMap<>();
+        jdbcTemplate.query("select k.constraint_name, k.table_name, k.column_name, k.referenced_table_name, "
+                + "k.referenced_column_name, r.update_rule, r.delete_rule "
+                + "from information_schema.key_column_usage k join information_schema.referential_constraints r "
+                + "on r.constraint_schema = k.constraint_schema and r.constraint_name = k.constraint_name "
+                + "and r.table_name = k.table_name "
+                + "where k.table_schema = database() and k.referenced_table_name is not null "
+                + "order by k.table_name, k.constraint_name, k.ordinal_position", rs -> {
+            String table = rs.getString("table_name").toLowerCase(Locale.ROOT);
+            String name = rs.getString("constraint_name");
+            String referencedTable = rs.getString("referenced_table_name").toLowerCase(Locale.ROOT);
+            String updateRule = rs.getString("update_rule");
+            String deleteRule = rs.getString("delete_rule");
+            ForeignKey foreignKey = foreignKeys.computeIfAbsent(table + "." + name, key -> new ForeignKey(name, table,
+                    new ArrayList<>(), referencedTable, new ArrayList<>(), updateRule, deleteRule));
+            foreignKey.columns().add(rs.getString("column_name").toLowerCase(Locale.ROOT));
+            foreignKey.referencedColumns().add(rs.getString("referenced_column_name").toLowerCase(Locale.ROOT));
+        });
+        return foreignKeys.values().stream()
+                .filter(foreignKey -> names.contains(foreignKey.table()) || names.contains(foreignKey.referencedTable()))
+                .toList();
+    }
+
+    /**
+     * An empty copy of the table with the converted column types. It is not in use yet, so altering it
+     * neither locks nor copies anything.
+     */
+    void createShadow(Table table) {
+        execute("create table if not exists " + table.shadow() + " like " + table.name());
+        StringJoiner changes = new StringJoiner(", ");
+        table.columns().values().forEach(column -> changes.add("modify column " + column.definition(column.name())));
+        execute("alter table " + table.shadow() + " " + changes);
+    }
+
+    void createTriggers(Table table) {
+        for (String event : List.of("insert", "update", "delete")) {
+            StringJoiner body = new StringJoiner("; ", "", ";");
+            triggerBody(table, event).forEach(body::add);
+            execute("drop trigger if exists " + table.trigger(event));
+            execute("create trigger " + table.trigger(event) + " after " + event + " on " + table.name()
+                    + " for each row begin " + body + " end");
+        }
+    }
+
+    /**
+     * Statements replaying one row change on the shadow, reading the row from {@code new} and {@code old}
+     */
+    List<String> triggerBody(Table table, String event) {
+        String key = table.primaryKey();
+        String delete = "delete from " + table.shadow() + " where " + key + " = " + table.converted(key, "old." + key);
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        for (String column : table.allColumns()) {
+            columns.add(column);
+            values.add(table.converted(column, "new." + column));
+        }
+        String replace = "replace into " + table.shadow() + " (" + columns + ") select " + values;
+        return switch (event) {
+            case "insert" -> List.of(replace);
+            // A changed key leaves the row under its old key behind, unless it is deleted first
+            case "update" -> List.of(delete + " and old." + key + " <> new." + key, replace);
+            case "delete" -> List.of(delete);
+            default -> throw new IllegalArgumentException(event);
+        };
+    }
+
+    void backfill(Table table) throws InterruptedException {
+        StringJoiner columns = new StringJoiner(", ");
+        StringJoiner values = new StringJoiner(", ");
+        for (String column : table.allColumns()) {
+            columns.add(column);
+            values.add(table.converted(column, column));
+        }
+        // Rows already in the shadow were copied by the triggers, after the change that brought them there
+        String copy = "insert ignore into " + table.shadow() + " (" + columns + ") select " + values + " from " + table.name();
+        // The copied rows stay locked until the statement ends, a delete cannot slip in before they land
+        String lock = " for update";
+        String key = table.primaryKey();
+        if (properties.isDryRun()) {
+            logger.info("[dry run] {} where {} > ? and {} <= ?{}, {} rows at a time", copy, key, key, lock, properties.getBatchSize());
+            return;
+        }
+
+        Object last = null;
+        long rows = 0;
+        int batches = 0;
+        while (true) {
+            // The upper bound of the next range, walking the primary key keeps every batch an index range scan
+            String after = last == null ? "" : " where " + key + " > ?";
+            Object[] args = last == null ? new Object[0] : new Object[]{last};
+            List<Object> bound = jdbcTemplate.queryForList("select " + key + " from " + table.name() + after
+                    + " order by " + key + " limit 1 offset " + (properties.getBatchSize() - 1), Object.class, args);
+            if (bound.isEmpty()) {
+                rows += jdbcTemplate.update(copy + after + lock, args);
+                break;
+            }
+            String range = (last == null ? " where " : after + " and ") + key + " <= ?";
+            Object[] rangeArgs = last == null ? new Object[]{bound.get(0)} : new Object[]{last, bound.get(0)};
+            rows += jdbcTemplate.update(copy + range + lock, rangeArgs);
+            last = bound.get(0);
+            if (++batches % 100 == 0) {
+                logger.info("Backfilled {} rows of {}", rows, table.name());
+            }
+            Thread.sleep(properties.getBatchPause().toMillis());
+        }
+        logger.info("Backfilled {} rows of {}", rows, table.name());
+    }
+
+    void verify(Table table) {
+        if (properties.isDryRun()) {
+            return;
+        }
+        String key = table.primaryKey();
+        StringJoiner differences = new StringJoiner(" or ", "shadow." + key + " is null or ", "");
+        table.columns().values().forEach(column -> {
+            String expected = column.conversion("source." + column.name());
+            String actual = "shadow." + column.name();
+            differences.add("not (" + actual + " = " + expected + " or (" + actual + " is null and " + expected + " is null))");
+            differences.add("(source." + column.name() + " is not null and (" + actual + " is null or octet_length(" + actual + ") <> 16))");
+        });
+        Long mismatches = jdbcTemplate.queryForObject("select count(*) from " + table.name() + " source left join "
+                + table.shadow() + " shadow on shadow." + key + " = " + table.converted(key, "source." + key)
+                + " where " + differences, Long.class);
+        if (mismatches != null && mismatches > 0) {
+            throw new IllegalStateException(mismatches + " rows of " + table.name()
+                    + " hold values that are not UUIDs or were not copied, fix them and rerun the migration");
+        }
+        Long extra = jdbcTemplate.queryForObject("select (select count(*) from " + table.shadow() + ") - (select count(*) from "
+                + table.name() + ")", Long.class);
+        if (extra != null && extra > 0) {
+            throw new IllegalStateException(extra + " rows of " + table.shadow() + " are no longer in " + table.name()
+                    + ", drop the shadow and rerun the migration");
+        }
+    }
+
+    /**
+     * Put the shadows in place of the tables in one atomic rename. The triggers stay on the old tables,
+     * which nothing writes anymore, and go with them.
+     */
+    private void swap(List<Table> tables) {
+        StringJoiner renames = new StringJoiner(", ");
+        for (Table table : tables) {
+            renames.add(table.name() + " to " + table.old());
+            renames.add(table.shadow() + " to " + table.name());
+        }
+        execute("rename table " + renames);
+    }
+
+    private void recreateForeignKeys(List<ForeignKey> foreignKeys) {
+        if (foreignKeys.isEmpty()) {
+            return;
+        }
+        // Values were verified, checking them again would scan every child table under lock
+        List<String> statements = new ArrayList<>();
+        statements.add("set foreign_key_checks = 0");
+        foreignKeys.forEach(foreignKey -> statements.add(foreignKey.definition() + ", algorithm=inplace, lock=none"));
+        executeOnOneConnection(statements, "set foreign_key_checks = 1");
+    }
+
+    private void execute(String sql) {
+        if (properties.isDryRun()) {
+            logger.info("[dry run] {}", sql);
+            return;
+        }
+        logger.info("{}", sql);
+        jdbcTemplate.execute(sql);
+    }
+
+    /**
+     * Statements depending on session state (table locks, variables), with {@code cleanup} always run last
+     */
+    private void executeOnOneConnection(List<String> statements, String cleanup) {
+        if (properties.isDryRun()) {
+            statements.forEach(sql -> logger.info("[dry run] {}", sql));
+            logger.info("[dry run] {}", cleanup);
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                try {
+                    for (String sql : statements) {
+                        logger.info("{}", sql);
+                        statement.execute(sql);
+                    }
+                } finally {
+                    statement.execute(cleanup);
+                }
+            }
+            return null;
+        });
+    }
+}
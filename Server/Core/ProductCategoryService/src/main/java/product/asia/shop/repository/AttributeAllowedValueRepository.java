@@ -35,9 +35,9 @@ public interface AttributeAllowedValueRepository extends GenericRepository<Attri
     long countByAttributeIdAndIsDeletedFalse(UUID attributeId);
     
     /**
-     * Delete all allowed values for an attribute
+     * Soft delete all allowed values for an attribute
      */
-    void deleteByAttributeIdAndIsDeletedFalse(UUID attributeId);
+    void softDeleteByAttributeIdAndIsDeletedFalse(UUID attributeId);
     
     /**
      * Find allowed values with specific display order range
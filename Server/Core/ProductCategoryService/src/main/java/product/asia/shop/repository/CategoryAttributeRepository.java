@@ -3,6 +3,7 @@ package product.asia.shop.repository;
 import product.asia.shop.entities.CategoryAttributesEntity;
 import product.asia.shop.repository.base.GenericRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -40,14 +41,14 @@ public interface CategoryAttributeRepository extends GenericRepository<CategoryA
     long countByAttributeIdAndIsDeletedFalse(UUID attributeId);
     
     /**
-     * Delete category-attribute relationship
+     * Soft delete category-attribute relationship
      */
-    void deleteByCategoryIdAndAttributeIdAndIsDeletedFalse(UUID categoryId, UUID attributeId);
+    void softDeleteByCategoryIdAndAttributeIdAndIsDeletedFalse(UUID categoryId, UUID attributeId);
     
     /**
-     * Delete all attributes for a category
+     * Soft delete all attributes for a category
      */
-    void deleteByCategoryIdAndIsDeletedFalse(UUID categoryId);
+    void softDeleteByCategoryIdAndIsDeletedFalse(UUID categoryId);
     
     /**
      * Find attributes with specific display order range
@@ -59,4 +60,9 @@ public interface CategoryAttributeRepository extends GenericRepository<CategoryA
      * Find max display order for a category
      */
     Optional<Integer> findMaxDisplayOrderByCategoryIdAndIsDeletedFalse(UUID categoryId);
+    
+    /**
+     * Soft delete all attribute links of the given categories
+     */
+    int softDeleteByCategoryIdInAndIsDeletedFalse(Collection<UUID> categoryIds);
 }
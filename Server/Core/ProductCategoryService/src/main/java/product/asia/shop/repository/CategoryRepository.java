@@ -3,6 +3,7 @@ package product.asia.shop.repository;
 import product.asia.shop.entities.CategoriesEntity;
 import product.asia.shop.repository.base.GenericRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -57,4 +58,14 @@ public interface CategoryRepository extends GenericRepository<CategoriesEntity,
      * Find category tree (descendants) - requires custom implementation  
      */
     List<CategoriesEntity> findDescendants(UUID categoryId);
+    
+    /**
+     * Find IDs of live child categories of the given parents
+     */
+    List<UUID> findIdsByParentIdInAndIsDeletedFalse(Collection<UUID> parentIds);
+    
+    /**
+     * Soft delete categories by ID, returning the number of rows marked
+     */
+    int softDeleteByIdInAndIsDeletedFalse(Collection<UUID> ids);
 }
@@ -2,12 +2,24 @@ package product.asia.shop.repository;
 
 import product.asia.shop.entities.ProductAttributeValuesEntity;
 import product.asia.shop.repository.base.GenericRepository;
+import product.asia.shop.repository.base.UpsertMapping;
+import product.asia.shop.repository.base.UpsertResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ProductAttributeValueRepository extends GenericRepository<ProductAttributeValuesEntity, UUID> {
+
+    /**
+     * A product holds one value per attribute
+     */
+    UpsertMapping<ProductAttributeValuesEntity> NATURAL_KEY = UpsertMapping.<ProductAttributeValuesEntity>keyedBy(
+            "productId", "attributeId")
+        .updating("valueString", "valueNumber", "valueBoolean", "valueDate", "valueOptionsId", "updatedBy", "isDeleted")
+        .inserting("createdBy")
+        .timestamps("createdAt", "updatedAt");
     
     /**
      * Find all attribute values for a product
@@ -45,14 +57,14 @@ public interface ProductAttributeValueRepository extends GenericRepository<Produ
     List<ProductAttributeValuesEntity> findByAttributeIdAndIsDeletedFalse(UUID attributeId);
     
     /**
-     * Delete all attribute values for a product
+     * Soft delete all attribute values for a product
      */
-    void deleteByProductIdAndIsDeletedFalse(UUID productId);
+    void softDeleteByProductIdAndIsDeletedFalse(UUID productId);
     
     /**
-     * Delete specific attribute value for a product
+     * Soft delete specific attribute value for a product
      */
-    void deleteByProductIdAndAttributeIdAndIsDeletedFalse(UUID productId, UUID attributeId);
+    void softDeleteByProductIdAndAttributeIdAndIsDeletedFalse(UUID productId, UUID attributeId);
     
     /**
      * Check if product has specific attribute
@@ -68,4 +80,16 @@ public interface ProductAttributeValueRepository extends GenericRepository<Produ
      * Count products using specific attribute
      */
     long countByAttributeIdAndIsDeletedFalse(UUID attributeId);
+    
+    /**
+     * Soft delete all attribute values of the given products
+     */
+    int softDeleteByProductIdInAndIsDeletedFalse(Collection<UUID> productIds);
+
+    /**
+     * Insert or overwrite attribute values by product and attribute, reviving soft-deleted ones
+     */
+    default UpsertResult upsertAll(Collection<ProductAttributeValuesEntity> values) {
+        return upsertAll(values, NATURAL_KEY);
+    }
 }
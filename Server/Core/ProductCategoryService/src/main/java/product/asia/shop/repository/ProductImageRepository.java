@@ -3,6 +3,7 @@ package product.asia.shop.repository;
 import product.asia.shop.entities.ProductImagesEntity;
 import product.asia.shop.repository.base.GenericRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -55,12 +56,17 @@ public interface ProductImageRepository extends GenericRepository<ProductImagesE
     Optional<Integer> findMaxDisplayOrderByProductIdAndImageTypeAndIsDeletedFalse(UUID productId, String imageType);
     
     /**
-     * Delete all images for a product
+     * Soft delete all images for a product
      */
-    void deleteByProductIdAndIsDeletedFalse(UUID productId);
+    void softDeleteByProductIdAndIsDeletedFalse(UUID productId);
     
     /**
-     * Delete images by type for a product
+     * Soft delete images by type for a product
      */
-    void deleteByProductIdAndImageTypeAndIsDeletedFalse(UUID productId, String imageType);
+    void softDeleteByProductIdAndImageTypeAndIsDeletedFalse(UUID productId, String imageType);
+    
+    /**
+     * Soft delete all images of the given products
+     */
+    int softDeleteByProductIdInAndIsDeletedFalse(Collection<UUID> productIds);
 }
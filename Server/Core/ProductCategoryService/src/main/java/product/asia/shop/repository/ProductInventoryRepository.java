@@ -0,0 +1,21 @@
+package product.asia.shop.repository;
+
+import product.asia.shop.entities.ProductInventoryEntity;
+import product.asia.shop.repository.base.GenericRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductInventoryRepository extends GenericRepository<ProductInventoryEntity, UUID> {
+
+    /**
+     * Find inventory records for a product
+     */
+    List<ProductInventoryEntity> findByProductIdAndIsDeletedFalse(UUID productId);
+
+    /**
+     * Soft delete all inventory records of the given products
+     */
+    int softDeleteByProductIdInAndIsDeletedFalse(Collection<UUID> productIds);
+}
@@ -0,0 +1,21 @@
+package product.asia.shop.repository;
+
+import product.asia.shop.entities.ProductPricingEntity;
+import product.asia.shop.repository.base.GenericRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductPricingRepository extends GenericRepository<ProductPricingEntity, UUID> {
+
+    /**
+     * Find all prices for a product
+     */
+    List<ProductPricingEntity> findByProductIdAndIsDeletedFalse(UUID productId);
+
+    /**
+     * Soft delete all prices of the given products
+     */
+    int softDeleteByProductIdInAndIsDeletedFalse(Collection<UUID> productIds);
+}
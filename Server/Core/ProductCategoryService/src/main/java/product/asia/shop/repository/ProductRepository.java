@@ -6,6 +6,7 @@ import org.springframework.data.domain.Pageable;
 import product.asia.shop.entities.ProductsEntity;
 import product.asia.shop.repository.base.GenericRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -65,4 +66,19 @@ public interface ProductRepository extends GenericRepository<ProductsEntity, UUI
      * Check if SKU exists
      */
     boolean existsBySkuAndIsDeletedFalse(String sku);
+    
+    /**
+     * Find IDs of live products of the given shops
+     */
+    List<UUID> findIdsByShopIdInAndIsDeletedFalse(Collection<UUID> shopIds);
+    
+    /**
+     * Count live products in any of the given categories
+     */
+    long countByCategoryIdInAndIsDeletedFalse(Collection<UUID> categoryIds);
+    
+    /**
+     * Soft delete products by ID, returning the number of rows marked
+     */
+    int softDeleteByIdInAndIsDeletedFalse(Collection<UUID> ids);
 }
@@ -3,6 +3,7 @@ package product.asia.shop.repository;
 import product.asia.shop.entities.ProductVariantsEntity;
 import product.asia.shop.repository.base.GenericRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -55,7 +56,12 @@ public interface ProductVariantRepository extends GenericRepository<ProductVaria
     Optional<Integer> findMaxPositionByParentProductIdAndIsDeletedFalse(UUID parentProductId);
     
     /**
-     * Delete all variants for a product
+     * Soft delete all variants for a product
      */
-    void deleteByParentProductIdAndIsDeletedFalse(UUID parentProductId);
+    void softDeleteByParentProductIdAndIsDeletedFalse(UUID parentProductId);
+    
+    /**
+     * Soft delete all variants of the given products
+     */
+    int softDeleteByParentProductIdInAndIsDeletedFalse(Collection<UUID> parentProductIds);
 }
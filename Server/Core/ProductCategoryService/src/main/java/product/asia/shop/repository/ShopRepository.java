@@ -0,0 +1,20 @@
+package product.asia.shop.repository;
+
+import product.asia.shop.entities.ShopsEntity;
+import product.asia.shop.repository.base.GenericRepository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface ShopRepository extends GenericRepository<ShopsEntity, UUID> {
+
+    /**
+     * Check if name exists
+     */
+    boolean existsByNameAndIsDeletedFalse(String name);
+
+    /**
+     * Soft delete shops by ID, returning the number of rows marked
+     */
+    int softDeleteByIdInAndIsDeletedFalse(Collection<UUID> ids);
+}
@@ -2,12 +2,24 @@ package product.asia.shop.repository;
 
 import product.asia.shop.entities.TranslationsEntity;
 import product.asia.shop.repository.base.GenericRepository;
+import product.asia.shop.repository.base.UpsertMapping;
+import product.asia.shop.repository.base.UpsertResult;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface TranslationRepository extends GenericRepository<TranslationsEntity, UUID> {
+
+    /**
+     * Translations are unique per entity, locale and field
+     */
+    UpsertMapping<TranslationsEntity> NATURAL_KEY = UpsertMapping.<TranslationsEntity>keyedBy(
+            "entityType", "entityId", "locale", "field")
+        .updating("translation", "updatedBy", "isDeleted")
+        .inserting("createdBy")
+        .timestamps("createdAt", "updatedAt");
     
     /**
      * Find translation by entity type, entity ID, locale, and field
@@ -43,14 +55,14 @@ public interface TranslationRepository extends GenericRepository<TranslationsEnt
         String entityType, UUID entityId, String locale, String field);
     
     /**
-     * Delete all translations for an entity
+     * Soft delete all translations for an entity
      */
-    void deleteByEntityTypeAndEntityIdAndIsDeletedFalse(String entityType, UUID entityId);
+    void softDeleteByEntityTypeAndEntityIdAndIsDeletedFalse(String entityType, UUID entityId);
     
     /**
-     * Delete translations for specific field of an entity
+     * Soft delete translations for specific field of an entity
      */
-    void deleteByEntityTypeAndEntityIdAndFieldAndIsDeletedFalse(String entityType, UUID entityId, String field);
+    void softDeleteByEntityTypeAndEntityIdAndFieldAndIsDeletedFalse(String entityType, UUID entityId, String field);
     
     /**
      * Count translations by entity type
@@ -76,4 +88,16 @@ public interface TranslationRepository extends GenericRepository<TranslationsEnt
      * Find entities with translations in specific locale
      */
     List<UUID> findEntityIdsWithTranslationInLocale(String entityType, String locale);
+    
+    /**
+     * Soft delete all translations of the given entities
+     */
+    int softDeleteByEntityTypeAndEntityIdInAndIsDeletedFalse(String entityType, Collection<UUID> entityIds);
+
+    /**
+     * Insert or overwrite translations by entity, locale and field, reviving soft-deleted ones
+     */
+    default UpsertResult upsertAll(Collection<TranslationsEntity> translations) {
+        return upsertAll(translations, NATURAL_KEY);
+    }
 }
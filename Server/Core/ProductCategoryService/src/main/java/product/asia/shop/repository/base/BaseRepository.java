@@ -1,20 +1,58 @@
 package product.asia.shop.repository.base;
 
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.Generator;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
+import product.asia.shop.deadline.RequestDeadline;
+import product.asia.shop.entities.BaseEntity;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Base repository implementation providing common CRUD operations
@@ -25,7 +63,12 @@ import java.util.Optional;
 @Transactional
 public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID> {
 
+    private static final Duration DEFAULT_COUNT_CACHE_TTL = Duration.ofSeconds(30);
+    private static final int DEFAULT_UPSERT_BATCH_SIZE = 500;
+
     private final Class<T> entityClass;
+    private final CountCache countCache = new CountCache(DEFAULT_COUNT_CACHE_TTL);
+    private int upsertBatchSize = DEFAULT_UPSERT_BATCH_SIZE;
     @PersistenceContext
     public EntityManager entityManager;
 
@@ -35,8 +78,16 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
                 .getGenericSuperclass()).getActualTypeArguments()[0];
     }
 
+    /**
+     * Constructor for generic subclasses whose type arguments are not resolvable at runtime
+     */
+    protected BaseRepository(Class<T> entityClass) {
+        this.entityClass = entityClass;
+    }
+
     @Override
     public T save(T entity) {
+        countCache.invalidateAll();
         if (entityManager.contains(entity)) {
             return entityManager.merge(entity);
         } else {
@@ -54,11 +105,56 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
         return result;
     }
 
+    @Override
+    public List<T> saveAllBatched(Iterable<T> entities, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        countCache.invalidateAll();
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        List<T> result = new java.util.ArrayList<>();
+        List<T> chunk = new java.util.ArrayList<>(batchSize);
+        try {
+            for (T entity : entities) {
+                if (isNew(entity)) {
+                    entityManager.persist(entity);
+                    chunk.add(entity);
+                } else {
+                    chunk.add(entityManager.merge(entity));
+                }
+
+                if (chunk.size() == batchSize) {
+                    flushAndClear(chunk);
+                    result.addAll(chunk);
+                    chunk.clear();
+                }
+            }
+            flushAndClear(chunk);
+            result.addAll(chunk);
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        return result;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<T> findById(ID id) {
-        T entity = entityManager.find(entityClass, id);
-        return Optional.ofNullable(entity);
+        RequestDeadline.check();
+        T entity = entityManager.find(entityClass, id, ReadOnlyHints.applyTo(Map.of()));
+        return Optional.ofNullable(entity).filter(this::isVisible);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<T> findById(ID id, FetchPlan fetchPlan) {
+        RequestDeadline.check();
+        T entity = entityManager.find(entityClass, id, ReadOnlyHints.applyTo(fetchPlan.toHints(entityManager, entityClass)));
+        return Optional.ofNullable(entity).filter(this::isVisible);
     }
 
     @Override
@@ -75,7 +171,7 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
         Root<T> root = query.from(entityClass);
         query.select(root);
 
-        return entityManager.createQuery(query).getResultList();
+        return ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))).getResultList();
     }
 
     @Override
@@ -88,64 +184,292 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
 
         // Apply sorting
         if (sort != null && sort.isSorted()) {
-            List<jakarta.persistence.criteria.Order> orders = new java.util.ArrayList<>();
-            for (Sort.Order order : sort) {
-                if (order.isAscending()) {
-                    orders.add(cb.asc(root.get(order.getProperty())));
-                } else {
-                    orders.add(cb.desc(root.get(order.getProperty())));
-                }
-            }
-            query.orderBy(orders);
+            query.orderBy(toOrders(cb, root, sort));
         }
 
-        return entityManager.createQuery(query).getResultList();
+        return ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))).getResultList();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<T> findAll(Pageable pageable) {
+        return findAll(null, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<T> findAll(Specification<T> spec, Pageable pageable) {
+        return findAll(spec, pageable, FetchPlan.NONE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<T> findAll(Specification<T> spec, Pageable pageable, FetchPlan fetchPlan) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<T> query = cb.createQuery(entityClass);
         Root<T> root = query.from(entityClass);
         query.select(root);
+        applySpecification(spec, root, query, cb);
 
         // Apply sorting
         if (pageable.getSort().isSorted()) {
-            List<jakarta.persistence.criteria.Order> orders = new java.util.ArrayList<>();
-            for (Sort.Order order : pageable.getSort()) {
-                if (order.isAscending()) {
-                    orders.add(cb.asc(root.get(order.getProperty())));
-                } else {
-                    orders.add(cb.desc(root.get(order.getProperty())));
-                }
-            }
-            query.orderBy(orders);
+            query.orderBy(toOrders(cb, root, pageable.getSort()));
         }
 
-        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        TypedQuery<T> typedQuery = fetchPlan.applyTo(ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))), entityManager, entityClass);
         typedQuery.setFirstResult((int) pageable.getOffset());
         typedQuery.setMaxResults(pageable.getPageSize());
 
         List<T> content = typedQuery.getResultList();
-        long total = count();
+        long total = spec == null ? count() : count(spec);
 
         return new PageImpl<>(content, pageable, total);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<T> findAllById(Iterable<ID> ids) {
+    public Page<T> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable) {
+        return findAllWithCachedCount(filter, pageable, FetchPlan.NONE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<T> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable, FetchPlan fetchPlan) {
+        Specification<T> spec = filter.getSpecification();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        applySpecification(spec, root, query, cb);
+
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(cb, root, pageable.getSort()));
+        }
+
+        List<T> content = fetchPlan.applyTo(ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))), entityManager, entityClass)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // A short page already tells the total, no count needed
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        long total = countCache.get(filter, countsDeleted(), () -> spec == null ? count() : count(spec));
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<T> findSlice(Pageable pageable) {
+        return findSlice(null, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable) {
+        return findSlice(spec, pageable, FetchPlan.NONE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable, FetchPlan fetchPlan) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<T> query = cb.createQuery(entityClass);
         Root<T> root = query.from(entityClass);
+        query.select(root);
+        applySpecification(spec, root, query, cb);
+
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(cb, root, pageable.getSort()));
+        }
+
+        // LIMIT + 1: the extra row only signals that a next slice exists
+        List<T> rows = fetchPlan.applyTo(ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))), entityManager, entityClass)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? new java.util.ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findAllAfter(String cursor, Sort sort, int limit) {
+        return findAllAfter(null, cursor, sort, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit) {
+        return findAllAfter(spec, cursor, sort, limit, FetchPlan.NONE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<T> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit, FetchPlan fetchPlan) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        SingularAttribute<? super T, ?> idAttribute = getIdAttribute();
+        String idName = idAttribute.getName();
+        Sort.Order order = sort == null || sort.isUnsorted() ? Sort.Order.asc(idName) : sort.iterator().next();
+        String property = order.getProperty();
+        boolean seekOnIdOnly = property.equals(idName);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        applySeek(spec, cursor, order, idAttribute, root, query, cb);
+
+        // Fetch one extra row to learn whether another page exists
+        List<T> rows = fetchPlan.applyTo(ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))), entityManager, entityClass)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<T> content = new java.util.ArrayList<>(rows.subList(0, limit));
+        T last = content.get(limit - 1);
+        Object lastId = getIdentifier(last);
+        Object lastValue = seekOnIdOnly ? lastId : getAttributeValue(last, property);
+        return new CursorPage<>(content, new KeysetCursor(property, order.getDirection(), lastValue, lastId).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> List<R> findAll(Specification<T> spec, Sort sort, Projection<T, R> projection) {
+        return selectProjected(spec, sort, projection, 0, -1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> Page<R> findAll(Specification<T> spec, Pageable pageable, Projection<T, R> projection) {
+        List<R> content = selectProjected(spec, pageable.getSort(), projection, pageable.getOffset(), pageable.getPageSize());
+        long total = spec == null ? count() : count(spec);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> Page<R> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable, Projection<T, R> projection) {
+        Specification<T> spec = filter.getSpecification();
+        List<R> content = selectProjected(spec, pageable.getSort(), projection, pageable.getOffset(), pageable.getPageSize());
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        long total = countCache.get(filter, countsDeleted(), () -> spec == null ? count() : count(spec));
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> Slice<R> findSlice(Specification<T> spec, Pageable pageable, Projection<T, R> projection) {
+        List<R> rows = selectProjected(spec, pageable.getSort(), projection, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<R> content = hasNext ? new java.util.ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public <R> CursorPage<R> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit,
+                                          Projection<T, R> projection) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+
+        SingularAttribute<? super T, ?> idAttribute = getIdAttribute();
+        String idName = idAttribute.getName();
+        Sort.Order order = sort == null || sort.isUnsorted() ? Sort.Order.asc(idName) : sort.iterator().next();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityClass);
+
+        // The seek columns ride along after the projected ones, to build the next cursor
+        List<Selection<?>> selections = new java.util.ArrayList<>(projection.select(root));
+        int width = selections.size();
+        selections.add(root.get(order.getProperty()));
+        selections.add(root.get(idName));
+        query.select(cb.array(selections.toArray(new Selection<?>[0])));
+        applySeek(spec, cursor, order, idAttribute, root, query, cb);
+
+        List<Object[]> rows = ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))).setMaxResults(limit + 1).getResultList();
+        List<R> content = new java.util.ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            content.add(projection.map(rows.get(i)));
+        }
+        if (rows.size() <= limit) {
+            return new CursorPage<>(content, null);
+        }
+        Object[] last = rows.get(limit - 1);
+        return new CursorPage<>(content,
+                new KeysetCursor(order.getProperty(), order.getDirection(), last[width], last[width + 1]).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<T> streamAll(int fetchSize) {
+        return streamAll(null, null, fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<T> streamAll(Specification<T> spec, int fetchSize) {
+        return streamAll(spec, null, fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<T> streamAll(Specification<T> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        applySpecification(spec, root, query, cb);
+
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(toOrders(cb, root, sort));
+        }
+
+        return stream(query, fetchSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<T> findAllById(Iterable<ID> ids) {
+        return findAllById(ids, FetchPlan.NONE);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<T> findAllById(Iterable<ID> ids, FetchPlan fetchPlan) {
         List<ID> idList = new java.util.ArrayList<>();
         ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return new java.util.ArrayList<>();
+        }
 
-        query.select(root).where(root.get("id").in(idList));
-
-        return entityManager.createQuery(query).getResultList();
+        // Multi-load resolves ids from the persistence context and the second-level cache first,
+        // and only selects the remaining ones
+        MultiIdentifierLoadAccess<T> loader = entityManager.unwrap(Session.class).byMultipleIds(entityClass);
+        EntityGraph<T> graph = fetchPlan.toEntityGraph(entityManager, entityClass);
+        if (graph != null) {
+            loader.with((RootGraph<T>) graph, GraphSemantic.FETCH);
+        }
+        RequestDeadline.check();
+        List<T> entities = loader.multiLoad(idList);
+        entities.removeIf(entity -> entity == null || !isVisible(entity));
+        return entities;
     }
 
     @Override
@@ -156,7 +480,7 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
         Root<T> root = query.from(entityClass);
         query.select(cb.count(root));
 
-        return entityManager.createQuery(query).getSingleResult();
+        return RequestDeadline.applyTo(entityManager.createQuery(query)).getSingleResult();
     }
 
     @Override
@@ -166,6 +490,7 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
 
     @Override
     public void delete(T entity) {
+        countCache.invalidateAll();
         if (entityManager.contains(entity)) {
             entityManager.remove(entity);
         } else {
@@ -182,10 +507,11 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
 
     @Override
     public void deleteAll() {
+        countCache.invalidateAll();
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         jakarta.persistence.criteria.CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
         delete.from(entityClass);
-        entityManager.createQuery(delete).executeUpdate();
+        RequestDeadline.applyTo(entityManager.createQuery(delete)).executeUpdate();
     }
 
     @Override
@@ -205,24 +531,19 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
         if (!entities.iterator().hasNext()) {
             return;
         }
+        countCache.invalidateAll();
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         jakarta.persistence.criteria.CriteriaDelete<T> delete = cb.createCriteriaDelete(entityClass);
         Root<T> root = delete.from(entityClass);
 
-        List<ID> ids = new java.util.ArrayList<>();
+        List<Object> ids = new java.util.ArrayList<>();
         for (T entity : entities) {
-            try {
-                @SuppressWarnings("unchecked")
-                ID id = (ID) entityClass.getMethod("getId").invoke(entity);
-                ids.add(id);
-            } catch (Exception e) {
-                throw new RuntimeException("Error getting ID from entity", e);
-            }
+            ids.add(getIdentifier(entity));
         }
 
         delete.where(root.get("id").in(ids));
-        entityManager.createQuery(delete).executeUpdate();
+        RequestDeadline.applyTo(entityManager.createQuery(delete)).executeUpdate();
     }
 
     @Override
@@ -236,6 +557,393 @@ public abstract class BaseRepository<T, ID> implements GenericRepository<T, ID>
         return entityManager.getReference(entityClass, id);
     }
 
+    @Override
+    public long updateIfVersion(ID id, long version, Map<String, ?> changes) {
+        if (changes.isEmpty()) {
+            throw new IllegalArgumentException("No changes to apply");
+        }
+        AbstractEntityPersister persister = getPersister();
+        if (!persister.isVersioned()) {
+            throw new UnsupportedOperationException(entityClass.getSimpleName() + " has no version attribute");
+        }
+        String idName = persister.getIdentifierPropertyName();
+        String versionName = persister.getPropertyNames()[persister.getVersionProperty()];
+        if (changes.containsKey(idName) || changes.containsKey(versionName)) {
+            throw new IllegalArgumentException("The identifier and the version cannot be changed");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityClass);
+        Root<T> root = update.from(entityClass);
+        changes.forEach(update::set);
+        Path<Number> versionPath = root.get(versionName);
+        update.set(versionPath, cb.sum(versionPath, cb.literal((Number) 1)));
+        // Bulk statements skip the not-deleted filter, so deleted rows are excluded here
+        Predicate live = BaseEntity.class.isAssignableFrom(entityClass) ? cb.isFalse(root.get("isDeleted")) : cb.conjunction();
+        update.where(cb.equal(root.get(idName), id), cb.equal(versionPath, version), live);
+
+        countCache.invalidateAll();
+        if (RequestDeadline.applyTo(entityManager.createQuery(update)).executeUpdate() == 0) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        }
+        return version + 1;
+    }
+
+    @Override
+    @Transactional
+    public <R> R withDeleted(Supplier<R> work) {
+        Session session = entityManager.unwrap(Session.class);
+        if (session.getEnabledFilter(BaseEntity.NOT_DELETED_FILTER) == null) {
+            return work.get();
+        }
+        session.disableFilter(BaseEntity.NOT_DELETED_FILTER);
+        try {
+            return work.get();
+        } finally {
+            session.enableFilter(BaseEntity.NOT_DELETED_FILTER);
+        }
+    }
+
+    @Override
+    public UpsertResult upsertAll(Collection<T> entities, UpsertMapping<T> mapping) {
+        if (entities.isEmpty()) {
+            return UpsertResult.NONE;
+        }
+
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        AbstractEntityPersister persister = getPersister();
+        UpsertStatement statement = UpsertStatement.of(persister, mapping, sessionFactory.getJdbcServices().getDialect());
+
+        // One row per natural key, the last one wins
+        Map<List<Object>, T> rows = new LinkedHashMap<>();
+        for (T entity : entities) {
+            rows.put(naturalKey(persister, mapping, entity), entity);
+        }
+
+        countCache.invalidateAll();
+        List<List<Object>> keys = new java.util.ArrayList<>(rows.keySet());
+        UpsertResult result = UpsertResult.NONE;
+        for (int from = 0; from < keys.size(); from += upsertBatchSize) {
+            List<List<Object>> chunk = keys.subList(from, Math.min(from + upsertBatchSize, keys.size()));
+            result = result.plus(upsertChunk(persister, statement, mapping, chunk, rows));
+        }
+        return result;
+    }
+
+    /**
+     * Upsert one chunk with two statements: a select of the keys already present, which tells inserts
+     * from updates and gives existing rows their identifiers, then the upsert itself
+     */
+    private UpsertResult upsertChunk(AbstractEntityPersister persister, UpsertStatement statement,
+                                     UpsertMapping<T> mapping, List<List<Object>> keys, Map<List<Object>, T> rows) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // Soft-deleted rows hold their key too and are revived by the upsert
+        Map<List<Object>, Object> existing = withDeleted(() -> findIdsByNaturalKey(persister, mapping.getKeys(), keys));
+        for (List<Object> key : keys) {
+            T entity = rows.get(key);
+            Object id = existing.get(key);
+            if (id == null && getIdentifier(entity) == null) {
+                id = generateIdentifier(persister, session, entity);
+            }
+            if (id != null) {
+                persister.setIdentifier(entity, id, session);
+            }
+        }
+
+        // An update returns no rows, the result class only selects the typed overload
+        NativeQuery<Object> query = RequestDeadline.applyTo(entityManager.unwrap(Session.class)
+                .createNativeQuery(statement.sql(keys.size()), Object.class));
+        // Registers the table, so the flush before and the second-level cache eviction after cover this entity only
+        query.addSynchronizedEntityClass(entityClass);
+        LocalDateTime now = LocalDateTime.now();
+        int position = 1;
+        for (List<Object> key : keys) {
+            T entity = rows.get(key);
+            for (UpsertStatement.Column column : statement.getColumns()) {
+                Object value = switch (column.source()) {
+                    case ID -> getIdentifier(entity);
+                    case ATTRIBUTE -> persister.getPropertyValue(entity, column.attribute());
+                    case STATEMENT_TIME -> now;
+                    // Only written with new rows, the statement increments existing ones
+                    case VERSION -> persister.getVersionMapping().getJavaType().fromString("0");
+                };
+                column.bind(query, position++, value);
+            }
+        }
+        query.executeUpdate();
+        return new UpsertResult(keys.size() - existing.size(), existing.size());
+    }
+
+    /**
+     * Identifiers of the rows holding the given natural keys, soft-deleted rows included.
+     * Filters on every key attribute and matches the full key in memory.
+     */
+    private Map<List<Object>, Object> findIdsByNaturalKey(AbstractEntityPersister persister, List<String> attributes,
+                                                          List<List<Object>> keys) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityClass);
+        List<Selection<?>> selections = new java.util.ArrayList<>();
+        selections.add(root.get(persister.getIdentifierPropertyName()));
+        // Each attribute is restricted to the values it takes in the batch; the rows matching that cross
+        // product but no actual key are dropped below
+        List<Predicate> restrictions = new java.util.ArrayList<>();
+        for (int i = 0; i < attributes.size(); i++) {
+            Set<Object> values = new HashSet<>();
+            for (List<Object> key : keys) {
+                values.add(key.get(i));
+            }
+            selections.add(root.get(attributes.get(i)));
+            restrictions.add(root.get(attributes.get(i)).in(values));
+        }
+        query.multiselect(selections).where(restrictions.toArray(new Predicate[0]));
+
+        Set<List<Object>> wanted = new HashSet<>(keys);
+        Map<List<Object>, Object> ids = new HashMap<>();
+        for (Object[] row : RequestDeadline.applyTo(entityManager.createQuery(query)).getResultList()) {
+            List<Object> key = java.util.Arrays.asList(row).subList(1, row.length);
+            if (wanted.contains(key)) {
+                ids.put(List.copyOf(key), row[0]);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Whether an entity loaded by id passes the soft-delete filter of the current session.
+     * Loads by id bypass query filters, so they are checked here.
+     */
+    private boolean isVisible(T entity) {
+        return !(entity instanceof BaseEntity base && Boolean.TRUE.equals(base.getIsDeleted()))
+                || entityManager.unwrap(Session.class).getEnabledFilter(BaseEntity.NOT_DELETED_FILTER) == null;
+    }
+
+    /**
+     * Cached totals with deleted rows visible are kept apart from the regular ones
+     */
+    private boolean countsDeleted() {
+        return entityManager.unwrap(Session.class).getEnabledFilter(BaseEntity.NOT_DELETED_FILTER) == null;
+    }
+
+    private AbstractEntityPersister getPersister() {
+        return (AbstractEntityPersister) entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(entityClass);
+    }
+
+    private List<Object> naturalKey(AbstractEntityPersister persister, UpsertMapping<T> mapping, T entity) {
+        List<Object> key = new java.util.ArrayList<>(mapping.getKeys().size());
+        for (String attribute : mapping.getKeys()) {
+            Object value = persister.getPropertyValue(entity, attribute);
+            if (value == null) {
+                throw new IllegalArgumentException("Natural key attribute " + attribute + " of "
+                        + entityClass.getSimpleName() + " must not be null");
+            }
+            key.add(value);
+        }
+        return List.copyOf(key);
+    }
+
+    private Object generateIdentifier(AbstractEntityPersister persister, SharedSessionContractImplementor session,
+                                      T entity) {
+        Generator generator = persister.getGenerator();
+        if (generator instanceof BeforeExecutionGenerator beforeExecution) {
+            return beforeExecution.generate(session, entity, null, EventType.INSERT);
+        }
+        throw new UnsupportedOperationException("Bulk upsert needs identifiers generated before insert, "
+                + entityClass.getSimpleName() + " uses " + generator.getClass().getSimpleName());
+    }
+
+    /**
+     * Check whether the entity has not been assigned an identifier yet
+     */
+    protected boolean isNew(T entity) {
+        return getIdentifier(entity) == null;
+    }
+
+    /**
+     * Get the identifier of an entity without reflecting on its getter
+     */
+    protected Object getIdentifier(T entity) {
+        return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    /**
+     * Count entities matching a specification
+     */
+    protected long count(Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+
+        return RequestDeadline.applyTo(entityManager.createQuery(query)).getSingleResult();
+    }
+
+    private void applySpecification(Specification<T> spec, Root<T> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    /**
+     * Select the projected columns of the matching rows, mapping each row as it is read
+     */
+    private <R> List<R> selectProjected(Specification<T> spec, Sort sort, Projection<T, R> projection,
+                                        long offset, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(entityClass);
+        query.select(cb.array(projection.select(root).toArray(new Selection<?>[0])));
+        applySpecification(spec, root, query, cb);
+
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(toOrders(cb, root, sort));
+        }
+
+        TypedQuery<Object[]> typedQuery = ReadOnlyHints.applyTo(RequestDeadline.applyTo(entityManager.createQuery(query))).setFirstResult((int) offset);
+        if (maxResults >= 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        List<Object[]> rows = typedQuery.getResultList();
+        List<R> content = new java.util.ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            content.add(projection.map(row));
+        }
+        return content;
+    }
+
+    /**
+     * Restrict and order a query for keyset pagination: the specification, the position after the cursor,
+     * and (sort column, id) ordering with the id as the unique tie-breaker in the same direction
+     */
+    private void applySeek(Specification<T> spec, String cursor, Sort.Order order,
+                           SingularAttribute<? super T, ?> idAttribute, Root<T> root, CriteriaQuery<?> query,
+                           CriteriaBuilder cb) {
+        String idName = idAttribute.getName();
+        String property = order.getProperty();
+        boolean seekOnIdOnly = property.equals(idName);
+
+        List<Predicate> predicates = new java.util.ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            KeysetCursor position = KeysetCursor.decode(cursor, property, order.getDirection(),
+                    root.get(property).getJavaType(), idAttribute.getJavaType());
+            predicates.add(seekPredicate(cb, root, idName, position, seekOnIdOnly));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        List<jakarta.persistence.criteria.Order> orders = new java.util.ArrayList<>();
+        orders.add(order.isAscending() ? cb.asc(root.get(property)) : cb.desc(root.get(property)));
+        if (!seekOnIdOnly) {
+            orders.add(order.isAscending() ? cb.asc(root.get(idName)) : cb.desc(root.get(idName)));
+        }
+        query.orderBy(orders);
+    }
+
+    private List<jakarta.persistence.criteria.Order> toOrders(CriteriaBuilder cb, Root<T> root, Sort sort) {
+        List<jakarta.persistence.criteria.Order> orders = new java.util.ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (order.isAscending()) {
+                orders.add(cb.asc(root.get(order.getProperty())));
+            } else {
+                orders.add(cb.desc(root.get(order.getProperty())));
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Row-value comparison (sortColumn, id) > (lastValue, lastId), expanded for JPA.
+     * The sort column is expected to be non-nullable.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPredicate(CriteriaBuilder cb, Root<T> root, String idName,
+                                    KeysetCursor position, boolean seekOnIdOnly) {
+        Path<Comparable> idPath = root.get(idName);
+        Comparable lastId = (Comparable) position.getId();
+        boolean ascending = position.getDirection().isAscending();
+
+        Predicate idBeyond = ascending ? cb.greaterThan(idPath, lastId) : cb.lessThan(idPath, lastId);
+        if (seekOnIdOnly) {
+            return idBeyond;
+        }
+
+        Path<Comparable> valuePath = root.get(position.getProperty());
+        Comparable lastValue = (Comparable) position.getValue();
+        Predicate valueBeyond = ascending ? cb.greaterThan(valuePath, lastValue) : cb.lessThan(valuePath, lastValue);
+        return cb.or(valueBeyond, cb.and(cb.equal(valuePath, lastValue), idBeyond));
+    }
+
+    private SingularAttribute<? super T, ?> getIdAttribute() {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+
+    private Object getAttributeValue(T entity, String property) {
+        Member member = entityManager.getMetamodel().entity(entityClass).getAttribute(property).getJavaMember();
+        if (member instanceof Field field) {
+            ReflectionUtils.makeAccessible(field);
+            return ReflectionUtils.getField(field, entity);
+        }
+        return ReflectionUtils.invokeMethod((Method) member, entity);
+    }
+
+    /**
+     * Flush pending statements as one JDBC batch and clear the persistence context. Detaching the chunk
+     * alone would leave whatever the flush cascaded to managed, so the context would still grow with the
+     * number of rows written.
+     */
+    private void flushAndClear(List<T> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Stream the results of a query through a forward-only cursor, detaching each entity after use.
+     * The stream must be consumed inside a transaction and closed by the caller.
+     */
+    @SuppressWarnings("unchecked")
+    protected Stream<T> stream(CriteriaQuery<T> criteria, int fetchSize) {
+        org.hibernate.query.Query<T> query = RequestDeadline.applyTo(entityManager.createQuery(criteria)).unwrap(org.hibernate.query.Query.class);
+        return ScrollStreams.open(entityManager, query, entityClass, fetchSize);
+    }
+
+    /**
+     * Set how long cached counts stay valid
+     */
+    public void setCountCacheTtl(Duration ttl) {
+        countCache.setTtl(ttl);
+    }
+
+    /**
+     * Set how many rows one upsert statement writes
+     */
+    public void setUpsertBatchSize(int upsertBatchSize) {
+        if (upsertBatchSize <= 0) {
+            throw new IllegalArgumentException("Upsert batch size must be positive");
+        }
+        this.upsertBatchSize = upsertBatchSize;
+    }
+
+    @Override
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
     /**
      * Get the entity class
      */
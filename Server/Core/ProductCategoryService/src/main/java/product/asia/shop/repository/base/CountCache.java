@@ -0,0 +1,83 @@
+package product.asia.shop.repository.base;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-repository cache of row counts keyed by filter, expiring after a TTL.
+ * Writes through the owning repository invalidate every entry, so a cached
+ * count is only stale with respect to writes made elsewhere (other nodes, native SQL).
+ */
+public class CountCache {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long ttlNanos;
+
+    public CountCache(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Get the cached count for a filter, loading it when missing or expired
+     *
+     * @param withDeleted Whether soft-deleted rows are counted, i.e. the not-deleted filter is off
+     */
+    public long get(CountedFilter<?> filter, boolean withDeleted, LongSupplier loader) {
+        Key key = new Key(filter, withDeleted);
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.count;
+        }
+        long count = loader.getAsLong();
+        entries.put(key, new Entry(count, now));
+        return count;
+    }
+
+    /**
+     * Drop every cached count now, so the writing transaction counts its own rows, and again once
+     * the transaction commits: until then other transactions may load and cache the old counts.
+     */
+    public void invalidateAll() {
+        entries.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !invalidationRegistered()) {
+            TransactionSynchronizationManager.registerSynchronization(new InvalidateAfterCommit());
+        }
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    private boolean invalidationRegistered() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof InvalidateAfterCommit invalidation && invalidation.cache() == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class InvalidateAfterCommit implements TransactionSynchronization {
+
+        CountCache cache() {
+            return CountCache.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            entries.clear();
+        }
+    }
+
+    private record Key(CountedFilter<?> filter, boolean withDeleted) {
+    }
+
+    private record Entry(long count, long loadedAt) {
+    }
+}
@@ -0,0 +1,38 @@
+package product.asia.shop.repository.base;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * A specification whose row count is cached by the repository.
+ * The filter itself is the cache key, compared by identity, so two filters never share a count even
+ * when they have the same name. Declare filters as constants: every new instance is a new cache entry.
+ *
+ * @param <T> Entity type
+ */
+public final class CountedFilter<T> {
+
+    private final String name;
+    private final Specification<T> specification;
+
+    private CountedFilter(String name, Specification<T> specification) {
+        this.name = name;
+        this.specification = specification;
+    }
+
+    /**
+     * @param name          Shown in logs and metrics only
+     * @param specification Rows counted, or {@code null} for every row
+     */
+    public static <T> CountedFilter<T> of(String name, Specification<T> specification) {
+        return new CountedFilter<>(name, specification);
+    }
+
+    public Specification<T> getSpecification() {
+        return specification;
+    }
+
+    @Override
+    public String toString() {
+        return "CountedFilter[" + name + "]";
+    }
+}
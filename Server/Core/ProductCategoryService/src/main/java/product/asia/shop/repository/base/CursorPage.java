@@ -0,0 +1,37 @@
+package product.asia.shop.repository.base;
+
+import java.util.List;
+
+/**
+ * A page of entities read with keyset (seek) pagination
+ *
+ * @param <T> Entity type
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Entities of this page, in seek order
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Opaque token to pass back for the next page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,109 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Subgraph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The associations a read loads together with its entities.
+ * Associations are lazy by default; a plan names the ones an endpoint serializes, either as
+ * attribute paths ({@code "category"}, {@code "attribute.group"}) or as a {@code @NamedEntityGraph},
+ * and they are fetched in the same statement as the entities. Associations outside the plan stay lazy.
+ * Plans are meant for to-one associations: paging a plan that fetches a collection is done in memory.
+ */
+public final class FetchPlan {
+
+    /**
+     * Load the entities only
+     */
+    public static final FetchPlan NONE = new FetchPlan(null, List.of());
+
+    static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    private final String graphName;
+    private final List<String> paths;
+
+    private FetchPlan(String graphName, List<String> paths) {
+        this.graphName = graphName;
+        this.paths = paths;
+    }
+
+    /**
+     * Plan fetching the given attribute paths, nested attributes separated by dots
+     */
+    public static FetchPlan of(String... paths) {
+        for (String path : paths) {
+            if (path == null || path.isBlank()) {
+                throw new IllegalArgumentException("Fetch plan paths must not be blank");
+            }
+        }
+        return new FetchPlan(null, List.of(paths));
+    }
+
+    /**
+     * Plan fetching what a named entity graph declares
+     */
+    public static FetchPlan named(String entityGraphName) {
+        return new FetchPlan(Objects.requireNonNull(entityGraphName, "entityGraphName"), List.of());
+    }
+
+    public boolean isEmpty() {
+        return graphName == null && paths.isEmpty();
+    }
+
+    /**
+     * Build the entity graph of this plan for an entity, or null for an empty plan
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EntityGraph<T> toEntityGraph(EntityManager entityManager, Class<T> entityClass) {
+        if (graphName != null) {
+            return (EntityGraph<T>) entityManager.getEntityGraph(graphName);
+        }
+        if (paths.isEmpty()) {
+            return null;
+        }
+        EntityGraph<T> graph = entityManager.createEntityGraph(entityClass);
+        for (String path : paths) {
+            String[] attributes = path.split("\\.");
+            if (attributes.length == 1) {
+                graph.addAttributeNodes(attributes[0]);
+                continue;
+            }
+            Subgraph<Object> subgraph = graph.addSubgraph(attributes[0]);
+            for (int i = 1; i < attributes.length - 1; i++) {
+                subgraph = subgraph.addSubgraph(attributes[i]);
+            }
+            subgraph.addAttributeNodes(attributes[attributes.length - 1]);
+        }
+        return graph;
+    }
+
+    /**
+     * Hints for {@link EntityManager#find(Class, Object, Map)}
+     */
+    public Map<String, Object> toHints(EntityManager entityManager, Class<?> entityClass) {
+        EntityGraph<?> graph = toEntityGraph(entityManager, entityClass);
+        return graph == null ? Map.of() : Map.of(FETCH_GRAPH_HINT, graph);
+    }
+
+    /**
+     * Apply this plan to a query selecting {@code entityClass}
+     */
+    public <Q extends Query> Q applyTo(Q query, EntityManager entityManager, Class<?> entityClass) {
+        EntityGraph<?> graph = toEntityGraph(entityManager, entityClass);
+        if (graph != null) {
+            query.setHint(FETCH_GRAPH_HINT, graph);
+        }
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return graphName != null ? "FetchPlan[" + graphName + "]" : "FetchPlan" + paths;
+    }
+}
@@ -2,10 +2,16 @@ package product.asia.shop.repository.base;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Generic repository interface providing common CRUD operations
@@ -25,11 +31,23 @@ public interface GenericRepository<T, ID> {
      */
     List<T> saveAll(Iterable<T> entities);
 
+    /**
+     * Save multiple entities in JDBC batches of {@code batchSize}, flushing and clearing the persistence
+     * context after every chunk so it stays bounded. Entities the caller loaded before are detached as well;
+     * the returned entities are detached.
+     */
+    List<T> saveAllBatched(Iterable<T> entities, int batchSize);
+
     /**
      * Find entity by ID
      */
     Optional<T> findById(ID id);
 
+    /**
+     * Find entity by ID together with the associations of a fetch plan
+     */
+    Optional<T> findById(ID id, FetchPlan fetchPlan);
+
     /**
      * Check if entity exists by ID
      */
@@ -50,11 +68,109 @@ public interface GenericRepository<T, ID> {
      */
     Page<T> findAll(Pageable pageable);
 
+    /**
+     * Find entities matching a specification with pagination
+     */
+    Page<T> findAll(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Find entities matching a specification with pagination, fetching the associations of a fetch plan
+     */
+    Page<T> findAll(Specification<T> spec, Pageable pageable, FetchPlan fetchPlan);
+
+    /**
+     * Find entities matching a filter with pagination, serving the total
+     * from a per-filter count cache (TTL, invalidated by writes through this repository)
+     */
+    Page<T> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable);
+
+    /**
+     * Find entities matching a filter with a cached total, fetching the associations of a fetch plan
+     */
+    Page<T> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable, FetchPlan fetchPlan);
+
+    /**
+     * Find a slice of entities without counting, fetching one extra row to detect a next slice
+     */
+    Slice<T> findSlice(Pageable pageable);
+
+    /**
+     * Find a slice of entities matching a specification without counting
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+
+    /**
+     * Find a slice of entities matching a specification, fetching the associations of a fetch plan
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable, FetchPlan fetchPlan);
+
+    /**
+     * Find the page of entities following a cursor using keyset (seek) pagination.
+     * Seeks on (first sort property, id); pass a null or empty cursor for the first page.
+     */
+    CursorPage<T> findAllAfter(String cursor, Sort sort, int limit);
+
+    /**
+     * Find the page of entities matching a specification following a cursor
+     */
+    CursorPage<T> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit);
+
+    /**
+     * Find the page of entities matching a specification following a cursor, fetching the associations of a fetch plan
+     */
+    CursorPage<T> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit, FetchPlan fetchPlan);
+
+    /**
+     * Find the projected rows of entities matching a specification, in the given order
+     */
+    <R> List<R> findAll(Specification<T> spec, Sort sort, Projection<T, R> projection);
+
+    /**
+     * Find a page of projected rows; no entities are loaded or managed
+     */
+    <R> Page<R> findAll(Specification<T> spec, Pageable pageable, Projection<T, R> projection);
+
+    /**
+     * Find a page of projected rows with the total served from the count cache
+     */
+    <R> Page<R> findAllWithCachedCount(CountedFilter<T> filter, Pageable pageable, Projection<T, R> projection);
+
+    /**
+     * Find a slice of projected rows without counting
+     */
+    <R> Slice<R> findSlice(Specification<T> spec, Pageable pageable, Projection<T, R> projection);
+
+    /**
+     * Find the page of projected rows following a cursor using keyset pagination
+     */
+    <R> CursorPage<R> findAllAfter(Specification<T> spec, String cursor, Sort sort, int limit, Projection<T, R> projection);
+
+    /**
+     * Stream all entities through a database cursor, {@code fetchSize} rows at a time.
+     * Entities are detached once consumed; use inside a transaction and close the stream.
+     */
+    Stream<T> streamAll(int fetchSize);
+
+    /**
+     * Stream entities matching a specification through a database cursor
+     */
+    Stream<T> streamAll(Specification<T> spec, int fetchSize);
+
+    /**
+     * Stream entities matching a specification in the given order through a database cursor
+     */
+    Stream<T> streamAll(Specification<T> spec, Sort sort, int fetchSize);
+
     /**
      * Find all entities by IDs
      */
     List<T> findAllById(Iterable<ID> ids);
 
+    /**
+     * Find all entities by IDs together with the associations of a fetch plan
+     */
+    List<T> findAllById(Iterable<ID> ids, FetchPlan fetchPlan);
+
     /**
      * Count all entities
      */
@@ -104,4 +220,32 @@ public interface GenericRepository<T, ID> {
      * Get reference to entity (lazy loading)
      */
     T getReference(ID id);
+
+    /**
+     * Apply attribute changes with a single {@code UPDATE ... WHERE id = ? AND version = ?}, without loading
+     * the entity, and increment the version. Soft-deleted rows are never updated. Entities already loaded in
+     * the persistence context keep their old state.
+     *
+     * @return the new version
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if no live row has that id and version
+     */
+    long updateIfVersion(ID id, long version, Map<String, ?> changes);
+
+    /**
+     * Run {@code work} with soft-deleted rows visible to every query of the current session, for admin
+     * listings and restores. The filter is re-enabled afterwards.
+     */
+    <R> R withDeleted(Supplier<R> work);
+
+    /**
+     * Insert or overwrite rows by natural key with native multi-row statements, without loading them.
+     * Identifiers are set on the given entities; entities already loaded in the persistence context
+     * keep their old state, and the second-level cache of the entity is evicted.
+     */
+    UpsertResult upsertAll(Collection<T> entities, UpsertMapping<T> mapping);
+
+    /**
+     * Get the count cache, for code issuing its own writes against the repository's table
+     */
+    CountCache getCountCache();
 }
@@ -0,0 +1,101 @@
+package product.asia.shop.repository.base;
+
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ * Encodes the sort property, its direction and the (sort value, id) of the last row served.
+ */
+final class KeysetCursor {
+
+    private static final String SEPARATOR = "\n";
+    private static final String NULL_VALUE = "\u0000";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final Object id;
+
+    KeysetCursor(String property, Sort.Direction direction, Object value, Object id) {
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    Sort.Direction getDirection() {
+        return direction;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    Object getId() {
+        return id;
+    }
+
+    /**
+     * Encode the cursor as a URL-safe token
+     */
+    String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR
+                + (value == null ? NULL_VALUE : value.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}, checking that it was issued for the same sort
+     *
+     * @throws IllegalArgumentException if the token is malformed or belongs to a different sort
+     */
+    static KeysetCursor decode(String token, String property, Sort.Direction direction,
+                               Class<?> valueType, Class<?> idType) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!parts[0].equals(property) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+
+        Object value = NULL_VALUE.equals(parts[2]) ? null : convert(parts[2], valueType);
+        return new KeysetCursor(property, direction, value, convert(parts[3], idType));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String raw, Class<?> type) {
+        try {
+            if (type == String.class) {
+                return raw;
+            } else if (type == UUID.class) {
+                return UUID.fromString(raw);
+            } else if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(raw);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(raw);
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, raw);
+            }
+            return DefaultConversionService.getSharedInstance().convert(raw, type);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A read that selects columns instead of entities.
+ * Each row is a flat list of attribute paths ({@code "sku"}, {@code "shop.name"}), with to-one
+ * associations left-joined once per query, and is turned into a DTO by its constructor or returned
+ * as the raw column array. Nothing is attached to the persistence context, so there are no
+ * dirty-checking snapshots and no proxies to initialize.
+ *
+ * @param <T> Entity type the paths start from
+ * @param <R> Result type
+ */
+public final class Projection<T, R> {
+
+    private final List<String> paths;
+    private final Function<Object[], R> mapper;
+
+    private Projection(List<String> paths, Function<Object[], R> mapper) {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("A projection needs at least one path");
+        }
+        this.paths = paths;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Rows built with the constructor of {@code resultType} taking one argument per path, in path order
+     */
+    public static <T, R> Projection<T, R> of(Class<R> resultType, String... paths) {
+        MethodHandle constructor = constructorHandle(resultType, paths.length);
+        int width = paths.length;
+        return new Projection<>(List.of(paths), row -> {
+            try {
+                return resultType.cast((Object) constructor.invokeExact(row.length == width ? row : Arrays.copyOf(row, width)));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot build " + resultType.getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * Rows returned as the selected values, in path order
+     */
+    public static <T> Projection<T, Object[]> columns(String... paths) {
+        int width = paths.length;
+        return new Projection<>(List.of(paths), row -> row.length == width ? row : Arrays.copyOf(row, width));
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Resolve the paths against a query root, joining each association once
+     */
+    List<Selection<?>> select(Root<T> root) {
+        Map<String, From<?, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            selections.add(resolve(root, path, joins));
+        }
+        return selections;
+    }
+
+    /**
+     * Build the result from a row; values after the projected paths are ignored
+     */
+    R map(Object[] row) {
+        return mapper.apply(row);
+    }
+
+    static Path<?> resolve(Root<?> root, String path, Map<String, From<?, ?>> joins) {
+        String[] attributes = path.split("\\.");
+        From<?, ?> from = root;
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < attributes.length - 1; i++) {
+            if (i > 0) {
+                joined.append('.');
+            }
+            joined.append(attributes[i]);
+            From<?, ?> parent = from;
+            String attribute = attributes[i];
+            from = joins.computeIfAbsent(joined.toString(), key -> parent.join(attribute, JoinType.LEFT));
+        }
+        return from.get(attributes[attributes.length - 1]);
+    }
+
+    private static MethodHandle constructorHandle(Class<?> resultType, int parameterCount) {
+        Constructor<?> match = null;
+        for (Constructor<?> constructor : resultType.getConstructors()) {
+            if (constructor.getParameterCount() != parameterCount) {
+                continue;
+            }
+            if (match != null) {
+                throw new IllegalArgumentException(resultType.getSimpleName() + " has several public constructors taking "
+                        + parameterCount + " arguments");
+            }
+            match = constructor;
+        }
+        if (match == null) {
+            throw new IllegalArgumentException(resultType.getSimpleName() + " has no public constructor taking "
+                    + parameterCount + " arguments");
+        }
+        try {
+            return MethodHandles.publicLookup().unreflectConstructor(match)
+                    .asSpreader(Object[].class, parameterCount)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access the constructor of " + resultType.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.Query;
+import org.hibernate.FlushMode;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Query hints for reads inside {@code @Transactional(readOnly = true)}: entities are loaded read-only, so the
+ * session keeps no loaded-state snapshot of them and never dirty-checks them, and the query does not flush
+ * the session first. Spring's {@code HibernateJpaDialect} already switches the session of a read-only
+ * transaction to default read-only and {@code FlushMode.MANUAL}; the hints state the same per query, so
+ * repository reads stay snapshot-free whichever dialect or session the transaction runs on.
+ */
+public final class ReadOnlyHints {
+
+    private ReadOnlyHints() {
+    }
+
+    /**
+     * Whether the current transaction is read-only
+     */
+    public static boolean isReadOnly() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Mark a select read-only and without auto flush when the current transaction is read-only
+     */
+    public static <Q extends Query> Q applyTo(Q query) {
+        if (isReadOnly()) {
+            query.setHint(HINT_READ_ONLY, true);
+            query.setHint(HINT_FLUSH_MODE, FlushMode.MANUAL);
+        }
+        return query;
+    }
+
+    /**
+     * Add the read-only hint to the hints of a load by id when the current transaction is read-only
+     */
+    public static Map<String, Object> applyTo(Map<String, Object> hints) {
+        if (!isReadOnly()) {
+            return hints;
+        }
+        Map<String, Object> readOnlyHints = new HashMap<>(hints);
+        readOnlyHints.put(HINT_READ_ONLY, true);
+        return readOnlyHints;
+    }
+}
@@ -0,0 +1,77 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams over forward-only Hibernate cursors that keep the persistence context flat
+ */
+public final class ScrollStreams {
+
+    private ScrollStreams() {
+    }
+
+    /**
+     * Stream the results of a query through a forward-only cursor.
+     * Rows are fetched {@code fetchSize} at a time (a server-side cursor on MySQL with useCursorFetch),
+     * loaded read-only, and each entity is detached once the stream has handed it to the consumer,
+     * so the persistence context does not grow with the result. The stream must be consumed inside
+     * a transaction and closed by the caller.
+     */
+    public static <R> Stream<R> open(EntityManager entityManager, Query<R> query, Class<R> resultType, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+
+        query.setFetchSize(fetchSize);
+        query.setReadOnly(true);
+        query.setCacheMode(CacheMode.IGNORE);
+
+        // Scalar projections are never managed, only entity rows need detaching
+        boolean detach = entityManager.getMetamodel().getEntities().stream()
+                .anyMatch(entityType -> entityType.getJavaType() == resultType);
+
+        ScrollableResults<R> results = query.scroll(ScrollMode.FORWARD_ONLY);
+        return StreamSupport.stream(new DetachingSpliterator<>(entityManager, results, detach), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * Spliterator over scrollable results that detaches every entity after it was consumed
+     */
+    private static final class DetachingSpliterator<R> extends Spliterators.AbstractSpliterator<R> {
+
+        private final EntityManager entityManager;
+        private final ScrollableResults<R> results;
+        private final boolean detach;
+
+        DetachingSpliterator(EntityManager entityManager, ScrollableResults<R> results, boolean detach) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.entityManager = entityManager;
+            this.results = results;
+            this.detach = detach;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (!results.next()) {
+                return false;
+            }
+            R row = results.get();
+            action.accept(row);
+            if (detach && row != null) {
+                entityManager.detach(row);
+            }
+            return true;
+        }
+    }
+}
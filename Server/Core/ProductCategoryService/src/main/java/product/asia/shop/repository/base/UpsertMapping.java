@@ -0,0 +1,88 @@
+package product.asia.shop.repository.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How {@link GenericRepository#upsertAll} writes an entity: the attributes of its natural key,
+ * backed by a unique constraint, the attributes overwritten when a row with that key already exists,
+ * and the attributes written only with new rows. The identifier is always insert-only, the version
+ * of versioned entities starts at 0 and is incremented on overwrite.
+ * Native statements bypass entity callbacks, so creation and modification timestamps are set here.
+ *
+ * @param <T> Entity type
+ */
+public final class UpsertMapping<T> {
+
+    private final List<String> keys;
+    private final List<String> updates;
+    private final List<String> inserts;
+    private final String createdAt;
+    private final String updatedAt;
+
+    private UpsertMapping(List<String> keys, List<String> updates, List<String> inserts,
+                          String createdAt, String updatedAt) {
+        this.keys = keys;
+        this.updates = updates;
+        this.inserts = inserts;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * A mapping identifying rows by the given attributes
+     */
+    public static <T> UpsertMapping<T> keyedBy(String... attributes) {
+        if (attributes.length == 0) {
+            throw new IllegalArgumentException("An upsert needs at least one key attribute");
+        }
+        return new UpsertMapping<>(List.of(attributes), List.of(), List.of(), null, null);
+    }
+
+    /**
+     * Attributes overwritten on existing rows
+     */
+    public UpsertMapping<T> updating(String... attributes) {
+        return new UpsertMapping<>(keys, concat(updates, attributes), inserts, createdAt, updatedAt);
+    }
+
+    /**
+     * Attributes written only when the row is new
+     */
+    public UpsertMapping<T> inserting(String... attributes) {
+        return new UpsertMapping<>(keys, updates, concat(inserts, attributes), createdAt, updatedAt);
+    }
+
+    /**
+     * Timestamp attributes set to the statement time, the first on new rows only, the second on every row
+     */
+    public UpsertMapping<T> timestamps(String createdAtAttribute, String updatedAtAttribute) {
+        return new UpsertMapping<>(keys, updates, inserts, createdAtAttribute, updatedAtAttribute);
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    public List<String> getUpdates() {
+        return updates;
+    }
+
+    public List<String> getInserts() {
+        return inserts;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    private static List<String> concat(List<String> current, String[] attributes) {
+        List<String> result = new ArrayList<>(current);
+        result.addAll(List.of(attributes));
+        return List.copyOf(result);
+    }
+}
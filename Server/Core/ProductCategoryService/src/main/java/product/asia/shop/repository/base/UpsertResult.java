@@ -0,0 +1,40 @@
+package product.asia.shop.repository.base;
+
+/**
+ * Rows written by a bulk upsert
+ */
+public class UpsertResult {
+
+    public static final UpsertResult NONE = new UpsertResult(0, 0);
+
+    private final int inserted;
+    private final int updated;
+
+    public UpsertResult(int inserted, int updated) {
+        this.inserted = inserted;
+        this.updated = updated;
+    }
+
+    /**
+     * Rows whose natural key did not exist yet
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+    /**
+     * Existing rows overwritten, soft-deleted ones included
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    public UpsertResult plus(UpsertResult other) {
+        return new UpsertResult(inserted + other.inserted, updated + other.updated);
+    }
+
+    @Override
+    public String toString() {
+        return "UpsertResult{inserted=" + inserted + ", updated=" + updated + '}';
+    }
+}
@@ -0,0 +1,188 @@
+package product.asia.shop.repository.base;
+
+import org.hibernate.Length;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.jdbc.Size;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.metamodel.mapping.SelectableMapping;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.BindableType;
+import org.hibernate.type.BasicType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The native multi-row upsert of one entity table: {@code INSERT ... ON DUPLICATE KEY UPDATE} on MySQL
+ * and MariaDB, {@code MERGE ... USING (VALUES ...)} on H2. Column names and parameter types come from
+ * the entity mapping, so values are bound exactly as Hibernate binds them for regular writes.
+ */
+final class UpsertStatement {
+
+    /**
+     * Where the value of a column comes from
+     */
+    enum Source {
+        ID, ATTRIBUTE, STATEMENT_TIME, VERSION
+    }
+
+    /**
+     * One written column, {@code sqlType} is its column type as in the DDL
+     */
+    record Column(String attribute, String name, JdbcMapping type, String sqlType, Source source, boolean key, boolean updated) {
+
+        /**
+         * Bind the value as Hibernate would for this attribute
+         */
+        void bind(org.hibernate.query.NativeQuery<?> query, int position, Object value) {
+            // Basic types, the mappings of single-column attributes, are bindable
+            if (type instanceof BindableType<?> bindable) {
+                bindTyped(query, position, value, bindable);
+            } else {
+                query.setParameter(position, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <P> void bindTyped(org.hibernate.query.NativeQuery<?> query, int position, Object value,
+                                          BindableType<P> type) {
+            query.setParameter(position, (P) value, type);
+        }
+    }
+
+    private enum Flavor {
+        MYSQL, H2
+    }
+
+    private final String table;
+    private final List<Column> columns;
+    private final Flavor flavor;
+
+    private UpsertStatement(String table, List<Column> columns, Flavor flavor) {
+        this.table = table;
+        this.columns = columns;
+        this.flavor = flavor;
+    }
+
+    static UpsertStatement of(AbstractEntityPersister persister, UpsertMapping<?> mapping, Dialect dialect) {
+        Flavor flavor;
+        if (dialect instanceof MySQLDialect) {
+            flavor = Flavor.MYSQL;
+        } else if (dialect instanceof H2Dialect) {
+            flavor = Flavor.H2;
+        } else {
+            throw new UnsupportedOperationException("Bulk upsert is not supported on " + dialect.getClass().getSimpleName());
+        }
+
+        List<Column> columns = new ArrayList<>();
+        columns.add(column(persister, persister.getIdentifierPropertyName(), persister.getIdentifierMapping(),
+                Source.ID, false, false));
+        for (String attribute : mapping.getKeys()) {
+            columns.add(attributeColumn(persister, attribute, Source.ATTRIBUTE, true, false));
+        }
+        for (String attribute : mapping.getUpdates()) {
+            columns.add(attributeColumn(persister, attribute, Source.ATTRIBUTE, false, true));
+        }
+        for (String attribute : mapping.getInserts()) {
+            columns.add(attributeColumn(persister, attribute, Source.ATTRIBUTE, false, false));
+        }
+        if (mapping.getCreatedAt() != null) {
+            columns.add(attributeColumn(persister, mapping.getCreatedAt(), Source.STATEMENT_TIME, false, false));
+        }
+        if (mapping.getUpdatedAt() != null) {
+            columns.add(attributeColumn(persister, mapping.getUpdatedAt(), Source.STATEMENT_TIME, false, true));
+        }
+        // Overwriting a row is an update like any other, so versioned rows are incremented
+        if (persister.isVersioned()) {
+            String version = persister.getPropertyNames()[persister.getVersionProperty()];
+            columns.add(attributeColumn(persister, version, Source.VERSION, false, true));
+        }
+        if (columns.stream().noneMatch(Column::updated)) {
+            throw new IllegalArgumentException("An upsert must update at least one attribute of existing rows");
+        }
+        return new UpsertStatement(persister.getTableName(), List.copyOf(columns), flavor);
+    }
+
+    private static Column attributeColumn(AbstractEntityPersister persister, String attribute, Source source,
+                                          boolean key, boolean updated) {
+        return column(persister, attribute, persister.findAttributeMapping(attribute), source, key, updated);
+    }
+
+    private static Column column(AbstractEntityPersister persister, String attribute, Object mapping, Source source,
+                                 boolean key, boolean updated) {
+        if (!(mapping instanceof SelectableMapping selectable)) {
+            throw new IllegalArgumentException("Upsert attribute " + attribute + " must map to exactly one column");
+        }
+        return new Column(attribute, selectable.getSelectionExpression(), selectable.getJdbcMapping(),
+                sqlType(persister, selectable), source, key, updated);
+    }
+
+    /**
+     * Column type of a single-column attribute, as the schema generator would declare it
+     */
+    private static String sqlType(AbstractEntityPersister persister, SelectableMapping selectable) {
+        // The mapping reports the default length for columns without one, the dialect knows better (16 for UUIDs)
+        Long length = selectable.getLength() == null || selectable.getLength() == Length.DEFAULT ? null : selectable.getLength();
+        if (!(selectable.getJdbcMapping() instanceof BasicType<?> type)) {
+            return null;
+        }
+        Dialect dialect = persister.getFactory().getJdbcServices().getDialect();
+        Size size = dialect.getSizeStrategy().resolveSize(type.getJdbcType(), type.getJavaTypeDescriptor(),
+                selectable.getPrecision(), selectable.getScale(), length);
+        return persister.getFactory().getTypeConfiguration().getDdlTypeRegistry()
+                .getTypeName(type.getJdbcType().getDdlTypeCode(), size, type);
+    }
+
+    List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * SQL for {@code rows} rows, with the parameters in column order row after row
+     */
+    String sql(int rows) {
+        StringJoiner names = new StringJoiner(", ");
+        columns.forEach(column -> names.add(column.name()));
+        StringJoiner row = new StringJoiner(", ", "(", ")");
+        // H2 types parameters in VALUES as text when preparing, which garbles binary values, so they are cast
+        columns.forEach(column -> row.add(flavor == Flavor.H2 && column.sqlType() != null
+                ? "cast(? as " + column.sqlType() + ")" : "?"));
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add(row.toString());
+        }
+
+        return switch (flavor) {
+            case MYSQL -> {
+                StringJoiner updates = new StringJoiner(", ");
+                columns.stream().filter(Column::updated).forEach(column -> updates.add(column.source() == Source.VERSION
+                        ? column.name() + " = " + column.name() + " + 1"
+                        : column.name() + " = values(" + column.name() + ")"));
+                yield "insert into " + table + " (" + names + ") values " + values
+                        + " on duplicate key update " + updates;
+            }
+            case H2 -> {
+                StringJoiner on = new StringJoiner(" and ");
+                StringJoiner updates = new StringJoiner(", ");
+                StringJoiner inserted = new StringJoiner(", ");
+                for (Column column : columns) {
+                    if (column.key()) {
+                        on.add("t." + column.name() + " = s." + column.name());
+                    }
+                    if (column.updated()) {
+                        updates.add(column.source() == Source.VERSION
+                                ? column.name() + " = t." + column.name() + " + 1"
+                                : column.name() + " = s." + column.name());
+                    }
+                    inserted.add("s." + column.name());
+                }
+                yield "merge into " + table + " t using (values " + values + ") s (" + names + ") on " + on
+                        + " when matched then update set " + updates
+                        + " when not matched then insert (" + names + ") values (" + inserted + ")";
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package product.asia.shop.repository.factory;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.type.AnnotationMetadata;
+
+import java.beans.Introspector;
+
+/**
+ * Registers one {@link RepositoryFactoryBean} per repository interface
+ */
+public class RepositoryBeanRegistrar implements ImportBeanDefinitionRegistrar {
+
+    @Override
+    public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (Class<?> repositoryInterface : RepositoryScanner.findRepositoryInterfaces(classLoader)) {
+            AbstractBeanDefinition definition = BeanDefinitionBuilder.genericBeanDefinition(RepositoryFactoryBean.class)
+                    .addConstructorArgValue(repositoryInterface)
+                    .setRole(BeanDefinition.ROLE_INFRASTRUCTURE)
+                    .getBeanDefinition();
+            // Lets generic injection points such as GenericRepository<ProductsEntity, UUID> match without instantiating
+            definition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, repositoryInterface);
+            registry.registerBeanDefinition(Introspector.decapitalize(repositoryInterface.getSimpleName()), definition);
+        }
+    }
+}
@@ -17,6 +17,15 @@ public interface RepositoryFactory {
      */
     <T, ID> GenericRepository<T, ID> getRepository(Class<T> entityClass);
 
+    /**
+     * Get the repository implementing a specific repository interface, with its derived query methods
+     *
+     * @param repositoryInterface The repository interface, e.g. ProductRepository
+     * @param <R>                 Repository interface type
+     * @return Repository instance
+     */
+    <R extends GenericRepository<?, ?>> R getCustomRepository(Class<R> repositoryInterface);
+
     /**
      * Register a custom repository for an entity type
      *
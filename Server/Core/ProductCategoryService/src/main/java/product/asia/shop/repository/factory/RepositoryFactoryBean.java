@@ -0,0 +1,32 @@
+package product.asia.shop.repository.factory;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import product.asia.shop.repository.base.GenericRepository;
+
+/**
+ * Exposes a repository interface as a bean, so services can inject
+ * {@code GenericRepository<ProductsEntity, UUID>} or {@code ProductRepository} directly
+ *
+ * @param <R> Repository interface type
+ */
+public class RepositoryFactoryBean<R extends GenericRepository<?, ?>> implements FactoryBean<R> {
+
+    private final Class<R> repositoryInterface;
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+
+    public RepositoryFactoryBean(Class<R> repositoryInterface) {
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    @Override
+    public R getObject() {
+        return repositoryFactory.getCustomRepository(repositoryInterface);
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return repositoryInterface;
+    }
+}
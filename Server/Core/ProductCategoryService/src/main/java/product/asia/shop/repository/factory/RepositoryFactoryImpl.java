@@ -2,10 +2,16 @@ package product.asia.shop.repository.factory;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import product.asia.shop.repository.base.BaseRepository;
 import product.asia.shop.repository.base.GenericRepository;
+import product.asia.shop.repository.query.DerivedQueryEngine;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,11 +19,24 @@ import java.util.concurrent.ConcurrentHashMap;
  * Repository factory implementation
  */
 @Component
-public class RepositoryFactoryImpl implements RepositoryFactory {
+public class RepositoryFactoryImpl implements RepositoryFactory, SmartInitializingSingleton {
 
     private final Map<Class<?>, GenericRepository<?, ?>> repositoryCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Class<?>> repositoryInterfaces = new HashMap<>();
     @PersistenceContext
     private EntityManager entityManager;
+    @Autowired
+    private DerivedQueryEngine queryEngine;
+    @Value("${app.repository.count-cache-ttl:30s}")
+    private Duration countCacheTtl;
+    @Value("${app.repository.upsert-batch-size:500}")
+    private int upsertBatchSize;
+
+    public RepositoryFactoryImpl() {
+        for (Class<?> repositoryInterface : RepositoryScanner.findRepositoryInterfaces(getClass().getClassLoader())) {
+            repositoryInterfaces.put(DerivedQueryEngine.getEntityClass(repositoryInterface), repositoryInterface);
+        }
+    }
 
     @Override
     @SuppressWarnings("unchecked")
@@ -25,6 +44,17 @@ public class RepositoryFactoryImpl implements RepositoryFactory {
         return (GenericRepository<T, ID>) repositoryCache.computeIfAbsent(entityClass, this::createRepository);
     }
 
+    @Override
+    public <R extends GenericRepository<?, ?>> R getCustomRepository(Class<R> repositoryInterface) {
+        GenericRepository<?, ?> repository = getRepository(DerivedQueryEngine.getEntityClass(repositoryInterface));
+        if (!repositoryInterface.isInstance(repository)) {
+            throw new IllegalStateException("Repository registered for "
+                    + DerivedQueryEngine.getEntityClass(repositoryInterface).getSimpleName()
+                    + " does not implement " + repositoryInterface.getSimpleName());
+        }
+        return repositoryInterface.cast(repository);
+    }
+
     @Override
     public <T, ID> void registerRepository(Class<T> entityClass, GenericRepository<T, ID> repository) {
         repositoryCache.put(entityClass, repository);
@@ -35,15 +65,33 @@ public class RepositoryFactoryImpl implements RepositoryFactory {
         return repositoryCache.containsKey(entityClass);
     }
 
+    /**
+     * Compile every repository interface before the application starts serving,
+     * so unresolvable query methods show up in the boot log rather than at request time
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        repositoryInterfaces.keySet().forEach(this::getRepository);
+        queryEngine.report();
+    }
+
     /**
      * Create repository instance for entity class
      */
     @SuppressWarnings("unchecked")
     private <T, ID> GenericRepository<T, ID> createRepository(Class<T> entityClass) {
-        // Check for specific repository implementations
-       
+        GenericRepositoryImpl<T, ID> repository = new GenericRepositoryImpl<>(entityClass);
+        repository.setCountCacheTtl(countCacheTtl);
+        repository.setUpsertBatchSize(upsertBatchSize);
+
+        // Check for specific repository interfaces, backed by the generic repository
+        Class<?> repositoryInterface = repositoryInterfaces.get(entityClass);
+        if (repositoryInterface != null) {
+            return (GenericRepository<T, ID>) queryEngine.createRepository(repositoryInterface, repository);
+        }
+
         // Create generic repository for other entities
-        return new GenericRepositoryImpl<>(entityClass);
+        return repository;
     }
 
     /**
@@ -52,7 +100,7 @@ public class RepositoryFactoryImpl implements RepositoryFactory {
     private class GenericRepositoryImpl<T, ID> extends BaseRepository<T, ID> {
 
         public GenericRepositoryImpl(Class<T> entityClass) {
-            super();
+            super(entityClass);
             this.entityManager = RepositoryFactoryImpl.this.entityManager;
         }
     }
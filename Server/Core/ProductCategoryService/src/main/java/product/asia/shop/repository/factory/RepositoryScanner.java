@@ -0,0 +1,43 @@
+package product.asia.shop.repository.factory;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+import product.asia.shop.repository.base.GenericRepository;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Finds the repository interfaces declared for entities
+ */
+final class RepositoryScanner {
+
+    static final String BASE_PACKAGE = "product.asia.shop.repository";
+
+    private RepositoryScanner() {
+    }
+
+    /**
+     * Interfaces under the repository package extending {@link GenericRepository}
+     */
+    static Set<Class<?>> findRepositoryInterfaces(ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface() && beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(GenericRepository.class));
+
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            if (!GenericRepository.class.getName().equals(candidate.getBeanClassName())) {
+                interfaces.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+            }
+        }
+        return interfaces;
+    }
+}
@@ -0,0 +1,244 @@
+package product.asia.shop.repository.query;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import product.asia.shop.repository.base.BaseRepository;
+import product.asia.shop.repository.base.CountCache;
+import product.asia.shop.repository.base.GenericRepository;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the derived query methods of repository interfaces at startup and builds their proxies.
+ * Each method is parsed and its JPQL validated once; a call is a map lookup followed by binding
+ * and executing the cached plan. Inherited {@link GenericRepository} methods dispatch through
+ * method handles bound to the backing repository. Methods that cannot be compiled are reported
+ * at boot and throw {@link UnsupportedOperationException} when called.
+ */
+@Component
+public class DerivedQueryEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DerivedQueryEngine.class);
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Map<Class<?>, CompiledRepository> compiled = new ConcurrentHashMap<>();
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Value("${app.repository.fail-on-unresolved-queries:false}")
+    private boolean failOnUnresolved;
+
+    /**
+     * Resolve the entity class a repository interface is declared for
+     */
+    public static Class<?> getEntityClass(Class<?> repositoryInterface) {
+        Class<?> entityClass = ResolvableType.forClass(repositoryInterface)
+                .as(GenericRepository.class).getGeneric(0).resolve();
+        if (entityClass == null) {
+            throw new IllegalArgumentException(repositoryInterface.getName() + " does not declare its entity type");
+        }
+        return entityClass;
+    }
+
+    /**
+     * Create the repository proxy for an interface, backed by a generic repository of the same entity
+     */
+    public <R> R createRepository(Class<R> repositoryInterface, GenericRepository<?, ?> target) {
+        CompiledRepository repository = compile(repositoryInterface);
+        Map<Method, MethodInvoker> invokers = new HashMap<>();
+        for (Method method : repositoryInterface.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                invokers.put(method, createInvoker(method, repository, target));
+            }
+        }
+        Object proxy = Proxy.newProxyInstance(repositoryInterface.getClassLoader(),
+                new Class<?>[]{repositoryInterface}, new RepositoryInvocationHandler(repositoryInterface, invokers));
+        return repositoryInterface.cast(proxy);
+    }
+
+    /**
+     * Log what was compiled and what was not.
+     *
+     * @throws QueryCompilationException if unresolved methods exist and fail-fast is enabled
+     */
+    public void report() {
+        Map<String, String> unresolved = getUnresolvedMethods();
+        logger.info("Compiled {} derived query methods across {} repositories", getPlans().size(), compiled.size());
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        unresolved.forEach((method, reason) -> logger.warn("Repository method {} was not compiled: {}", method, reason));
+        if (failOnUnresolved) {
+            throw new QueryCompilationException(unresolved.size() + " repository methods could not be compiled: "
+                    + String.join(", ", unresolved.keySet()));
+        }
+    }
+
+    /**
+     * All compiled plans
+     */
+    public List<QueryPlan> getPlans() {
+        List<QueryPlan> plans = new ArrayList<>();
+        compiled.values().forEach(repository -> plans.addAll(repository.plans().values()));
+        return plans;
+    }
+
+    /**
+     * Methods that could not be compiled, as {@code Repository.method} to reason
+     */
+    public Map<String, String> getUnresolvedMethods() {
+        Map<String, String> unresolved = new LinkedHashMap<>();
+        compiled.values().forEach(repository -> repository.failures().forEach((method, reason) ->
+                unresolved.put(repository.repositoryInterface().getSimpleName() + "." + method.getName(), reason)));
+        return unresolved;
+    }
+
+    private CompiledRepository compile(Class<?> repositoryInterface) {
+        return compiled.computeIfAbsent(repositoryInterface, this::doCompile);
+    }
+
+    private CompiledRepository doCompile(Class<?> repositoryInterface) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(getEntityClass(repositoryInterface));
+        QueryMethodParser parser = new QueryMethodParser(repositoryInterface, entityType);
+        Map<Method, QueryPlan> plans = new HashMap<>();
+        Map<Method, String> failures = new LinkedHashMap<>();
+
+        // A private entity manager, so validation does not depend on a surrounding transaction
+        EntityManager validator = entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            for (Method method : repositoryInterface.getMethods()) {
+                if (!isQueryMethod(method)) {
+                    continue;
+                }
+                try {
+                    QueryPlan plan = parser.parse(method);
+                    plan.validate(validator);
+                    plans.put(method, plan);
+                } catch (QueryCompilationException e) {
+                    failures.put(method, e.getMessage());
+                } catch (RuntimeException e) {
+                    failures.put(method, "invalid query: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        } finally {
+            validator.close();
+        }
+
+        logger.debug("Compiled {} of {} query methods on {}", plans.size(), plans.size() + failures.size(),
+                repositoryInterface.getSimpleName());
+        return new CompiledRepository(repositoryInterface, Map.copyOf(plans), failures);
+    }
+
+    private static boolean isQueryMethod(Method method) {
+        return !method.isDefault()
+                && !Modifier.isStatic(method.getModifiers())
+                && method.getDeclaringClass() != GenericRepository.class
+                && method.getDeclaringClass() != Object.class;
+    }
+
+    private MethodInvoker createInvoker(Method method, CompiledRepository repository, GenericRepository<?, ?> target) {
+        if (method.isDefault()) {
+            return (proxy, args) -> InvocationHandler.invokeDefault(proxy, method, args);
+        }
+
+        QueryPlan plan = repository.plans().get(method);
+        if (plan != null) {
+            if (plan.isModifying() && target instanceof BaseRepository<?, ?> base) {
+                CountCache countCache = base.getCountCache();
+                return (proxy, args) -> {
+                    countCache.invalidateAll();
+                    return plan.execute(entityManager, args);
+                };
+            }
+            return (proxy, args) -> plan.execute(entityManager, args);
+        }
+
+        Method implementation = method.getDeclaringClass().isInstance(target)
+                ? method
+                : ReflectionUtils.findMethod(target.getClass(), method.getName(), method.getParameterTypes());
+        if (implementation != null) {
+            MethodHandle handle = bind(implementation, target, method.getParameterCount());
+            return (proxy, args) -> {
+                Object[] arguments = args == null ? NO_ARGS : args;
+                return (Object) handle.invokeExact(arguments);
+            };
+        }
+
+        String reason = repository.failures().getOrDefault(method, "no implementation");
+        String name = repository.repositoryInterface().getSimpleName() + "." + method.getName();
+        return (proxy, args) -> {
+            throw new UnsupportedOperationException("Repository method " + name + " is not available: " + reason);
+        };
+    }
+
+    /**
+     * Bind a method to its target once, as a handle taking the proxy's argument array
+     */
+    private static MethodHandle bind(Method implementation, Object target, int parameterCount) {
+        try {
+            ReflectionUtils.makeAccessible(implementation);
+            return MethodHandles.lookup().unreflect(implementation)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, parameterCount)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot bind " + implementation, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MethodInvoker {
+        Object invoke(Object proxy, Object[] args) throws Throwable;
+    }
+
+    private record CompiledRepository(Class<?> repositoryInterface, Map<Method, QueryPlan> plans,
+                                      Map<Method, String> failures) {
+    }
+
+    /**
+     * Dispatches proxy calls to the invokers prepared at creation time
+     */
+    private static final class RepositoryInvocationHandler implements InvocationHandler {
+
+        private final Class<?> repositoryInterface;
+        private final Map<Method, MethodInvoker> invokers;
+
+        RepositoryInvocationHandler(Class<?> repositoryInterface, Map<Method, MethodInvoker> invokers) {
+            this.repositoryInterface = repositoryInterface;
+            this.invokers = invokers;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodInvoker invoker = invokers.get(method);
+            if (invoker != null) {
+                return invoker.invoke(proxy, args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> repositoryInterface.getSimpleName() + " (derived queries)";
+                default -> throw new UnsupportedOperationException(method.toString());
+            };
+        }
+    }
+}
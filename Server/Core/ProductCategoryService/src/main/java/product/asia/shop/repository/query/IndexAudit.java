@@ -0,0 +1,288 @@
+package product.asia.shop.repository.query;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL of every compiled repository query and flags those reading a whole
+ * table or a whole index. Queries are run through a session whose connection explains the statements
+ * Hibernate prepares, so the SQL and its bound values are exactly those of runtime; arguments are
+ * samples of the declared parameter types. Dynamic sorts and modifying queries are not covered.
+ * The verdict depends on the data: run it against a database of production size, small tables are
+ * legitimately scanned.
+ */
+@Component
+public class IndexAudit {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexAudit.class);
+
+    /**
+     * The plan of one query
+     *
+     * @param method Repository method
+     * @param sql    SQL as executed, the count query of paged methods separately
+     * @param scan   Whether the plan reads a whole table or index
+     * @param plan   Plan rows as reported by the database
+     * @param error  Why the query could not be explained, or null
+     */
+    public record Result(String method, String sql, boolean scan, List<String> plan, String error) {
+    }
+
+    @Autowired
+    private DerivedQueryEngine queryEngine;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Value("${app.repository.index-audit-on-startup:false}")
+    private boolean auditOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void auditOnStartup() {
+        if (!auditOnStartup) {
+            return;
+        }
+        List<Result> results = audit();
+        results.stream().filter(Result::scan).forEach(result ->
+                logger.warn("Repository query {} scans: {}", result.method(), String.join(" | ", result.plan())));
+        results.stream().filter(result -> result.error() != null).forEach(result ->
+                logger.warn("Repository query {} was not audited: {}", result.method(), result.error()));
+        logger.info("Index audit: {} of {} repository queries scan a table or index",
+                results.stream().filter(Result::scan).count(), results.size());
+    }
+
+    /**
+     * Explain every select, count and exists query, full scans first
+     */
+    public List<Result> audit() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        if (!(dialect instanceof MySQLDialect) && !(dialect instanceof H2Dialect)) {
+            throw new UnsupportedOperationException("Index audit is not supported on " + dialect.getClass().getSimpleName());
+        }
+
+        List<QueryPlan> plans = new ArrayList<>(queryEngine.getPlans());
+        plans.sort(Comparator.comparing(QueryPlan::toString));
+        List<Result> results = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                // Queries run on a session of their own whose statements explain themselves instead of executing
+                try (Session explaining = sessionFactory.withOptions().connection(explaining(connection)).openSession()) {
+                    for (QueryPlan plan : plans) {
+                        if (plan.isModifying()) {
+                            continue;
+                        }
+                        String method = plan.getMethod().getDeclaringClass().getSimpleName() + "." + plan.getMethod().getName();
+                        results.add(explain(explaining, dialect, method, plan.getJpql(), plan.getResultType(), plan));
+                        if (plan.getCountJpql() != null) {
+                            results.add(explain(explaining, dialect, method + " (count)", plan.getCountJpql(), Long.class, plan));
+                        }
+                    }
+                }
+            });
+        }
+        results.sort(Comparator.comparing(Result::scan).reversed());
+        return results;
+    }
+
+    private Result explain(Session session, Dialect dialect, String method, String jpql, Class<?> resultType, QueryPlan plan) {
+        try {
+            Query<?> query = session.createQuery(jpql, resultType);
+            List<ResolvableType> parameterTypes = plan.getParameterTypes();
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                query.setParameter(i + 1, sample(parameterTypes.get(i)));
+            }
+            query.getResultList();
+            return new Result(method, null, false, List.of(), "the query did not reach the database");
+        } catch (RuntimeException e) {
+            Explained explained = explained(e);
+            if (explained == null) {
+                return new Result(method, null, false, List.of(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            List<String> rows = explained.plan(dialect);
+            boolean scan = rows.stream().anyMatch(dialect instanceof MySQLDialect
+                    ? row -> row.contains(" type=ALL ") || row.contains(" type=index ")
+                    : row -> row.contains(".tableScan"));
+            return new Result(method, explained.sql, scan, rows, null);
+        }
+    }
+
+    /**
+     * The connection the queries of the audit are prepared on. Its statements record the values Hibernate
+     * binds and, when executed, run {@code EXPLAIN} of their SQL with those values and abort the query
+     * with the plan.
+     */
+    private static Connection explaining(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = method.invoke(connection, args);
+            if (method.getName().equals("prepareStatement")) {
+                return explaining(connection, (PreparedStatement) result, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+        List<Binding> bindings = new ArrayList<>();
+        return proxy(PreparedStatement.class, statement, (method, args) -> {
+            String name = method.getName();
+            if (name.equals("executeQuery") || name.equals("execute")) {
+                throw explain(connection, sql, bindings);
+            }
+            // Parameter setters, the others (fetch size, timeout) take one argument
+            if (name.startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+                bindings.add(new Binding(method, args));
+            }
+            return method.invoke(statement, args);
+        });
+    }
+
+    private static Explained explain(Connection connection, String sql, List<Binding> bindings) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (Binding binding : bindings) {
+                binding.method().invoke(statement, binding.args());
+            }
+            List<Map<String, String>> rows = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, String> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.put(metaData.getColumnLabel(i), resultSet.getString(i));
+                    }
+                    rows.add(row);
+                }
+            }
+            return new Explained(sql, rows);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("Could not bind the parameters of " + sql, e);
+        }
+    }
+
+    private static Explained explained(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof Explained explained) {
+                return explained;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        return type.cast(Proxy.newProxyInstance(IndexAudit.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return interceptor.invoke(method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    private record Binding(Method method, Object[] args) {
+    }
+
+    /**
+     * Thrown by an executed statement instead of its result, carrying the plan of its SQL
+     */
+    private static class Explained extends RuntimeException {
+
+        private final String sql;
+        private final transient List<Map<String, String>> rows;
+
+        Explained(String sql, List<Map<String, String>> rows) {
+            super("explained", null, false, false);
+            this.sql = sql;
+            this.rows = rows;
+        }
+
+        List<String> plan(Dialect dialect) {
+            return rows.stream().map(dialect instanceof MySQLDialect ? IndexAudit::mysqlPlan : IndexAudit::h2Plan).toList();
+        }
+    }
+
+    private static String mysqlPlan(Map<String, String> row) {
+        return "table=" + row.get("table") + " type=" + row.get("type") + " key=" + row.get("key")
+                + " rows=" + row.get("rows") + (row.get("Extra") != null ? " " + row.get("Extra") : "");
+    }
+
+    private static String h2Plan(Map<String, String> row) {
+        return row.values().iterator().next().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * A value of the declared type, only the plan matters
+     */
+    private static Object sample(ResolvableType type) {
+        Class<?> raw = type.toClass();
+        if (Collection.class.isAssignableFrom(raw)) {
+            return List.of(sample(type.asCollection().getGeneric(0)));
+        }
+        if (raw.isEnum()) {
+            return raw.getEnumConstants()[0];
+        }
+        if (raw == UUID.class) {
+            return new UUID(0L, 0L);
+        }
+        if (raw == String.class) {
+            return "audit";
+        }
+        if (raw == Boolean.class || raw == boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (raw == Integer.class || raw == int.class) {
+            return 1;
+        }
+        if (raw == Long.class || raw == long.class) {
+            return 1L;
+        }
+        if (raw == Double.class || raw == double.class) {
+            return 1.0;
+        }
+        if (raw == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (raw == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (raw == LocalDate.class) {
+            return LocalDate.now();
+        }
+        return null;
+    }
+}
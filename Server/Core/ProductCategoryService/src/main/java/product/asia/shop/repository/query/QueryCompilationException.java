@@ -0,0 +1,15 @@
+package product.asia.shop.repository.query;
+
+/**
+ * Thrown when a repository method cannot be compiled into a query
+ */
+public class QueryCompilationException extends RuntimeException {
+
+    public QueryCompilationException(String message) {
+        super(message);
+    }
+
+    public QueryCompilationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,513 @@
+package product.asia.shop.repository.query;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ClassUtils;
+import product.asia.shop.repository.base.FetchPlan;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Compiles derived query method names ({@code findByShopIdAndIsDeletedFalse},
+ * {@code countByParentIdAndIsDeletedFalse}, ...) into {@link QueryPlan}s.
+ * Property names are resolved case-insensitively against the JPA metamodel,
+ * and may walk a to-one association ({@code CategoryId} on an entity mapping {@code category}).
+ */
+final class QueryMethodParser {
+
+    private static final List<String> SELECT_PREFIXES = List.of("find", "read", "get", "query", "search", "stream");
+    private static final List<String> OTHER_PREFIXES = List.of("count", "exists", "softDelete", "delete", "remove");
+    private static final Pattern SUBJECT_LIMIT = Pattern.compile("^(First|Top)(\\d*)");
+    private static final Pattern AGGREGATE = Pattern.compile("^(Max|Min|Sum|Avg)(\\p{Lu}.*)$");
+    private static final Pattern ORDER_BY = Pattern.compile("OrderBy(?=\\p{Lu})");
+    private static final Pattern OR = Pattern.compile("(?<=[\\p{Ll}\\d])Or(?=\\p{Lu})");
+    private static final Pattern AND = Pattern.compile("(?<=[\\p{Ll}\\d])And(?=\\p{Lu})");
+    private static final Pattern ORDER_TOKEN = Pattern.compile("(?<=Asc|Desc)(?=\\p{Lu})");
+    private static final String IGNORE_CASE = "IgnoreCase";
+
+    /**
+     * Supported predicate keywords, longest first so that {@code IsNotNull} wins over {@code NotNull} and {@code Null}
+     */
+    private enum Operator {
+        IS_NOT_NULL(0, "is not null", "IsNotNull", "NotNull"),
+        IS_NULL(0, "is null", "IsNull", "Null"),
+        TRUE(0, "= true", "IsTrue", "True"),
+        FALSE(0, "= false", "IsFalse", "False"),
+        NOT_CONTAINING(1, "not like", "IsNotContaining", "NotContaining", "NotContains"),
+        CONTAINING(1, "like", "IsContaining", "Containing", "Contains"),
+        STARTING_WITH(1, "like", "IsStartingWith", "StartingWith", "StartsWith"),
+        ENDING_WITH(1, "like", "IsEndingWith", "EndingWith", "EndsWith"),
+        NOT_LIKE(1, "not like", "IsNotLike", "NotLike"),
+        LIKE(1, "like", "IsLike", "Like"),
+        NOT_IN(1, "not in", "IsNotIn", "NotIn"),
+        IN(1, "in", "IsIn", "In"),
+        BETWEEN(2, "between", "IsBetween", "Between"),
+        LESS_THAN_EQUAL(1, "<=", "IsLessThanEqual", "LessThanEqual"),
+        LESS_THAN(1, "<", "IsLessThan", "LessThan", "IsBefore", "Before"),
+        GREATER_THAN_EQUAL(1, ">=", "IsGreaterThanEqual", "GreaterThanEqual"),
+        GREATER_THAN(1, ">", "IsGreaterThan", "GreaterThan", "IsAfter", "After"),
+        NOT(1, "<>", "IsNot", "Not"),
+        EQUALS(1, "=", "Is", "Equals");
+
+        private final int arity;
+        private final String jpql;
+        private final String[] keywords;
+
+        Operator(int arity, String jpql, String... keywords) {
+            this.arity = arity;
+            this.jpql = jpql;
+            this.keywords = keywords;
+        }
+    }
+
+    private final Class<?> repositoryInterface;
+    private final EntityType<?> entityType;
+
+    QueryMethodParser(Class<?> repositoryInterface, EntityType<?> entityType) {
+        this.repositoryInterface = repositoryInterface;
+        this.entityType = entityType;
+    }
+
+    /**
+     * Compile one method
+     *
+     * @throws QueryCompilationException if the name or signature cannot be turned into a query
+     */
+    QueryPlan parse(Method method) {
+        String name = method.getName();
+        String prefix = findPrefix(name);
+        int by = indexOfBy(name, prefix.length());
+        if (by < 0) {
+            throw new QueryCompilationException("no 'By' clause, not a derived query name");
+        }
+
+        String subject = name.substring(prefix.length(), by);
+        String criteria = name.substring(by + 2);
+        String orderClause = "";
+        Matcher orderBy = ORDER_BY.matcher(criteria);
+        if (orderBy.find()) {
+            orderClause = criteria.substring(orderBy.end());
+            criteria = criteria.substring(0, orderBy.start());
+        }
+
+        QueryPlan.Kind kind = switch (prefix) {
+            case "count" -> QueryPlan.Kind.COUNT;
+            case "exists" -> QueryPlan.Kind.EXISTS;
+            case "softDelete", "delete", "remove" -> QueryPlan.Kind.DELETE;
+            default -> QueryPlan.Kind.SELECT;
+        };
+
+        // Special parameters are taken out of the positional sequence
+        int pageableIndex = -1;
+        int sortIndex = -1;
+        int fetchPlanIndex = -1;
+        List<Integer> bindableArguments = new ArrayList<>();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (Pageable.class.isAssignableFrom(parameterTypes[i])) {
+                pageableIndex = i;
+            } else if (Sort.class.isAssignableFrom(parameterTypes[i])) {
+                sortIndex = i;
+            } else if (FetchPlan.class.isAssignableFrom(parameterTypes[i])) {
+                fetchPlanIndex = i;
+            } else {
+                bindableArguments.add(i);
+            }
+        }
+
+        StringBuilder where = new StringBuilder();
+        List<QueryPlan.Binding> bindings = new ArrayList<>();
+        List<Integer> argumentIndexes = new ArrayList<>();
+        compileCriteria(criteria, bindableArguments, where, bindings, argumentIndexes);
+        if (argumentIndexes.size() != bindableArguments.size()) {
+            throw new QueryCompilationException("method declares " + bindableArguments.size()
+                    + " query arguments but its name uses " + argumentIndexes.size());
+        }
+
+        if (fetchPlanIndex >= 0 && kind != QueryPlan.Kind.SELECT) {
+            throw new QueryCompilationException("fetch plans only apply to find queries");
+        }
+
+        String from = " from " + entityType.getName() + " " + QueryPlan.ALIAS + where;
+        String order = compileOrderBy(orderClause);
+        ResolvableType returnType = ResolvableType.forMethodReturnType(method, repositoryInterface);
+
+        return switch (kind) {
+            case COUNT -> new QueryPlan(method, kind, countShape(returnType, "count"),
+                    "select count(" + QueryPlan.ALIAS + ")" + from, "", null, Long.class,
+                    bindings, argumentIndexes, -1, -1, -1, null, false);
+            case EXISTS -> {
+                Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(returnType.toClass());
+                if (type != Boolean.class) {
+                    throw new QueryCompilationException("exists queries must return boolean");
+                }
+                SingularAttribute<?, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+                yield new QueryPlan(method, kind, QueryPlan.Shape.BOOLEAN,
+                        "select " + QueryPlan.ALIAS + "." + id.getName() + from, "", null, id.getJavaType(),
+                        bindings, argumentIndexes, -1, -1, -1, null, false);
+            }
+            case DELETE -> compileDelete(method, "softDelete".equals(prefix), returnType, where.toString(), bindings,
+                    argumentIndexes);
+            case SELECT -> compileSelect(method, prefix, subject, from, order, returnType,
+                    bindings, argumentIndexes, pageableIndex, sortIndex, fetchPlanIndex);
+        };
+    }
+
+    private QueryPlan compileSelect(Method method, String prefix, String subject, String from, String order,
+                                    ResolvableType returnType, List<QueryPlan.Binding> bindings,
+                                    List<Integer> argumentIndexes, int pageableIndex, int sortIndex,
+                                    int fetchPlanIndex) {
+        Class<?> raw = returnType.toClass();
+        QueryPlan.Shape shape;
+        ResolvableType element;
+        if (Page.class.isAssignableFrom(raw)) {
+            shape = QueryPlan.Shape.PAGE;
+            element = returnType.as(Page.class).getGeneric(0);
+        } else if (Slice.class.isAssignableFrom(raw)) {
+            shape = QueryPlan.Shape.SLICE;
+            element = returnType.as(Slice.class).getGeneric(0);
+        } else if (Stream.class.isAssignableFrom(raw)) {
+            shape = QueryPlan.Shape.STREAM;
+            element = returnType.as(Stream.class).getGeneric(0);
+        } else if (Optional.class == raw) {
+            shape = QueryPlan.Shape.OPTIONAL;
+            element = returnType.getGeneric(0);
+        } else if (Iterable.class.isAssignableFrom(raw)) {
+            if (!raw.isAssignableFrom(List.class)) {
+                throw new QueryCompilationException("collection results must be declared as List, Collection or Iterable");
+            }
+            shape = QueryPlan.Shape.LIST;
+            element = returnType.as(Iterable.class).getGeneric(0);
+        } else {
+            shape = QueryPlan.Shape.SINGLE;
+            element = returnType;
+        }
+        if ("stream".equals(prefix) && shape != QueryPlan.Shape.STREAM) {
+            throw new QueryCompilationException("stream queries must return java.util.stream.Stream");
+        }
+        if ((shape == QueryPlan.Shape.PAGE || shape == QueryPlan.Shape.SLICE) && pageableIndex < 0) {
+            throw new QueryCompilationException("paged results require a Pageable argument");
+        }
+
+        // Subject: [Distinct] [First|Top<n>] [Max|Min|Sum|Avg]<Property> | <Property>s | descriptive noun
+        boolean distinct = false;
+        if (subject.startsWith("Distinct")) {
+            distinct = true;
+            subject = subject.substring("Distinct".length());
+        }
+        Integer maxResults = null;
+        Matcher limit = SUBJECT_LIMIT.matcher(subject);
+        if (limit.find()) {
+            maxResults = limit.group(2).isEmpty() ? 1 : Integer.parseInt(limit.group(2));
+            subject = subject.substring(limit.end());
+        }
+        if (subject.startsWith("Distinct")) {
+            distinct = true;
+            subject = subject.substring("Distinct".length());
+        }
+
+        Class<?> elementType = ClassUtils.resolvePrimitiveIfNecessary(element.toClass());
+        Class<?> entityClass = entityType.getJavaType();
+        String selection;
+        Class<?> resultType;
+        Matcher aggregate = AGGREGATE.matcher(subject);
+        if (entityClass.isAssignableFrom(elementType)) {
+            selection = QueryPlan.ALIAS;
+            resultType = entityClass;
+        } else if (aggregate.matches()) {
+            ResolvedPath path = resolveRequired(aggregate.group(2), entityType);
+            selection = aggregate.group(1).toLowerCase() + "(" + path.jpql() + ")";
+            resultType = elementType;
+        } else if (!subject.isEmpty()) {
+            ResolvedPath path = resolvePath(subject, entityType);
+            if (path == null && subject.endsWith("s")) {
+                // findDistinctLocalesBy... projects the singular property
+                path = resolvePath(subject.substring(0, subject.length() - (subject.endsWith("es") ? 2 : 1)), entityType);
+                if (path == null && subject.endsWith("es")) {
+                    path = resolvePath(subject.substring(0, subject.length() - 1), entityType);
+                }
+            }
+            if (path == null) {
+                throw new QueryCompilationException("no property matches projection '" + subject + "'");
+            }
+            if (!ClassUtils.resolvePrimitiveIfNecessary(path.javaType()).isAssignableFrom(elementType)
+                    && !elementType.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(path.javaType()))) {
+                throw new QueryCompilationException("projection '" + path.jpql() + "' is " + path.javaType().getSimpleName()
+                        + " but the method returns " + elementType.getSimpleName());
+            }
+            selection = path.jpql();
+            resultType = elementType;
+        } else {
+            throw new QueryCompilationException("method returns " + elementType.getSimpleName()
+                    + " but selects " + entityClass.getSimpleName());
+        }
+
+        if (fetchPlanIndex >= 0 && resultType != entityClass) {
+            throw new QueryCompilationException("fetch plans only apply to queries returning entities");
+        }
+
+        String select = "select " + (distinct ? "distinct " : "") + selection + from;
+        String countJpql = shape == QueryPlan.Shape.PAGE
+                ? "select count(" + (distinct ? "distinct " : "") + selection + ")" + from
+                : null;
+        return new QueryPlan(method, QueryPlan.Kind.SELECT, shape, select, order, countJpql, resultType,
+                bindings, argumentIndexes, pageableIndex, sortIndex, fetchPlanIndex, maxResults, false);
+    }
+
+    /**
+     * Derived deletes run as one bulk statement. {@code delete}/{@code remove} remove the rows;
+     * {@code softDelete} marks them deleted instead, binding the update timestamp as the last parameter,
+     * and only compiles for entities with {@code isDeleted} and {@code updatedAt}.
+     */
+    private QueryPlan compileDelete(Method method, boolean softDelete, ResolvableType returnType, String where,
+                                    List<QueryPlan.Binding> bindings, List<Integer> argumentIndexes) {
+        QueryPlan.Shape shape = returnType.toClass() == void.class
+                ? QueryPlan.Shape.VOID
+                : countShape(returnType, "delete");
+
+        String jpql;
+        if (softDelete) {
+            ResolvedPath deleted = resolvePath("isDeleted", entityType);
+            ResolvedPath updated = resolvePath("updatedAt", entityType);
+            if (deleted == null || updated == null) {
+                throw new QueryCompilationException(entityType.getName() + " has no isDeleted and updatedAt to soft delete with");
+            }
+            jpql = "update " + entityType.getName() + " " + QueryPlan.ALIAS
+                    + " set " + deleted.jpql() + " = true, " + updated.jpql() + " = ?" + (bindings.size() + 1);
+            // A soft delete is a change like any other, stale copies of the row must fail their version check
+            if (entityType.hasVersionAttribute()) {
+                String version = QueryPlan.ALIAS + "." + versionAttribute().getName();
+                jpql += ", " + version + " = " + version + " + 1";
+            }
+            jpql += where;
+        } else {
+            jpql = "delete from " + entityType.getName() + " " + QueryPlan.ALIAS + where;
+        }
+        return new QueryPlan(method, QueryPlan.Kind.DELETE, shape, jpql, "", null, null,
+                bindings, argumentIndexes, -1, -1, -1, null, softDelete);
+    }
+
+    private void compileCriteria(String criteria, List<Integer> bindableArguments, StringBuilder where,
+                                 List<QueryPlan.Binding> bindings, List<Integer> argumentIndexes) {
+        if (criteria.isEmpty()) {
+            return;
+        }
+        where.append(" where ");
+        String[] disjuncts = OR.split(criteria);
+        for (int i = 0; i < disjuncts.length; i++) {
+            if (i > 0) {
+                where.append(" or ");
+            }
+            String[] conjuncts = AND.split(disjuncts[i]);
+            if (disjuncts.length > 1 && conjuncts.length > 1) {
+                where.append('(');
+            }
+            for (int j = 0; j < conjuncts.length; j++) {
+                if (j > 0) {
+                    where.append(" and ");
+                }
+                compilePart(conjuncts[j], bindableArguments, where, bindings, argumentIndexes);
+            }
+            if (disjuncts.length > 1 && conjuncts.length > 1) {
+                where.append(')');
+            }
+        }
+    }
+
+    private void compilePart(String part, List<Integer> bindableArguments, StringBuilder where,
+                             List<QueryPlan.Binding> bindings, List<Integer> argumentIndexes) {
+        boolean ignoreCase = false;
+        if (part.endsWith(IGNORE_CASE) && part.length() > IGNORE_CASE.length()) {
+            ignoreCase = true;
+            part = part.substring(0, part.length() - IGNORE_CASE.length());
+        }
+
+        Operator operator = Operator.EQUALS;
+        ResolvedPath path = null;
+        search:
+        for (Operator candidate : Operator.values()) {
+            for (String keyword : candidate.keywords) {
+                if (part.length() > keyword.length() && part.endsWith(keyword)) {
+                    path = resolvePath(part.substring(0, part.length() - keyword.length()), entityType);
+                    if (path != null) {
+                        operator = candidate;
+                        break search;
+                    }
+                }
+            }
+        }
+        if (path == null) {
+            path = resolveRequired(part, entityType);
+        }
+        if (ignoreCase && path.javaType() != String.class) {
+            throw new QueryCompilationException("IgnoreCase on non-string property '" + path.jpql() + "'");
+        }
+
+        int next = argumentIndexes.size();
+        if (next + operator.arity > bindableArguments.size()) {
+            throw new QueryCompilationException("not enough arguments for '" + part + "'");
+        }
+
+        String left = ignoreCase ? "lower(" + path.jpql() + ")" : path.jpql();
+        where.append(left).append(' ').append(operator.jpql);
+        for (int k = 0; k < operator.arity; k++) {
+            QueryPlan.Binding binding = switch (operator) {
+                case CONTAINING, NOT_CONTAINING -> QueryPlan.Binding.CONTAINING;
+                case STARTING_WITH -> QueryPlan.Binding.STARTING_WITH;
+                case ENDING_WITH -> QueryPlan.Binding.ENDING_WITH;
+                default -> QueryPlan.Binding.PLAIN;
+            };
+            bindings.add(binding);
+            argumentIndexes.add(bindableArguments.get(next + k));
+            String parameter = "?" + bindings.size();
+            if (ignoreCase) {
+                parameter = "lower(" + parameter + ")";
+            }
+            where.append(k == 0 ? " " : " and ").append(operator == Operator.IN || operator == Operator.NOT_IN
+                    ? "(" + parameter + ")" : parameter);
+        }
+        if (isLike(operator)) {
+            where.append(" escape '").append(QueryPlan.LIKE_ESCAPE).append('\'');
+        }
+    }
+
+    private static boolean isLike(Operator operator) {
+        return operator == Operator.CONTAINING || operator == Operator.NOT_CONTAINING
+                || operator == Operator.STARTING_WITH || operator == Operator.ENDING_WITH;
+    }
+
+    private String compileOrderBy(String orderClause) {
+        if (orderClause.isEmpty()) {
+            return "";
+        }
+        StringBuilder order = new StringBuilder(" order by ");
+        String[] tokens = ORDER_TOKEN.split(orderClause);
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            String direction = " asc";
+            if (token.endsWith("Desc")) {
+                direction = " desc";
+                token = token.substring(0, token.length() - 4);
+            } else if (token.endsWith("Asc")) {
+                token = token.substring(0, token.length() - 3);
+            }
+            if (i > 0) {
+                order.append(", ");
+            }
+            order.append(resolveRequired(token, entityType).jpql()).append(direction);
+        }
+        return order.toString();
+    }
+
+    private QueryPlan.Shape countShape(ResolvableType returnType, String verb) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(returnType.toClass());
+        if (type == Long.class) {
+            return QueryPlan.Shape.LONG;
+        } else if (type == Integer.class) {
+            return QueryPlan.Shape.INT;
+        }
+        throw new QueryCompilationException(verb + " queries must return long or int");
+    }
+
+    private static String findPrefix(String name) {
+        for (String prefix : SELECT_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        for (String prefix : OTHER_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        throw new QueryCompilationException("unsupported prefix, expected "
+                + String.join("/", SELECT_PREFIXES) + "/" + String.join("/", OTHER_PREFIXES));
+    }
+
+    /**
+     * Index of the {@code By} that ends the subject, i.e. the first one followed by an upper-case letter
+     */
+    private static int indexOfBy(String name, int from) {
+        int index = name.indexOf("By", from);
+        while (index >= 0) {
+            if (index + 2 < name.length() && Character.isUpperCase(name.charAt(index + 2))) {
+                return index;
+            }
+            index = name.indexOf("By", index + 1);
+        }
+        return -1;
+    }
+
+    private ResolvedPath resolveRequired(String name, ManagedType<?> type) {
+        ResolvedPath path = resolvePath(name, type);
+        if (path == null) {
+            throw new QueryCompilationException("no property '" + name + "' on " + type.getJavaType().getSimpleName());
+        }
+        return path;
+    }
+
+    /**
+     * Resolve a capitalised property name to a JPQL path.
+     * A direct attribute wins; otherwise the longest leading to-one association is walked.
+     */
+    private static ResolvedPath resolvePath(String name, ManagedType<?> type) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        Attribute<?, ?> direct = findAttribute(type, name);
+        if (direct != null && !(direct instanceof SingularAttribute<?, ?> singular && singular.isAssociation())) {
+            return new ResolvedPath(QueryPlan.ALIAS + "." + direct.getName(), direct.getJavaType());
+        }
+        for (int split = name.length() - 1; split > 0; split--) {
+            if (!Character.isUpperCase(name.charAt(split))) {
+                continue;
+            }
+            Attribute<?, ?> head = findAttribute(type, name.substring(0, split));
+            if (head instanceof SingularAttribute<?, ?> association
+                    && association.getType() instanceof ManagedType<?> target) {
+                ResolvedPath tail = resolvePath(name.substring(split), target);
+                if (tail != null) {
+                    return new ResolvedPath(QueryPlan.ALIAS + "." + head.getName()
+                            + tail.jpql().substring(QueryPlan.ALIAS.length()), tail.javaType());
+                }
+            }
+        }
+        return direct != null ? new ResolvedPath(QueryPlan.ALIAS + "." + direct.getName(), direct.getJavaType()) : null;
+    }
+
+    private SingularAttribute<?, ?> versionAttribute() {
+        for (SingularAttribute<?, ?> attribute : entityType.getSingularAttributes()) {
+            if (attribute.isVersion()) {
+                return attribute;
+            }
+        }
+        throw new IllegalStateException(entityType.getName() + " declares no version attribute");
+    }
+
+    private static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (attribute.getName().equalsIgnoreCase(name) && !(attribute.getJavaType().isArray()
+                    || Collection.class.isAssignableFrom(attribute.getJavaType()))) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    private record ResolvedPath(String jpql, Class<?> javaType) {
+    }
+}
@@ -0,0 +1,298 @@
+package product.asia.shop.repository.query;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import product.asia.shop.deadline.RequestDeadline;
+import product.asia.shop.repository.base.FetchPlan;
+import product.asia.shop.repository.base.ReadOnlyHints;
+import product.asia.shop.repository.base.ScrollStreams;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * A derived repository query compiled once at startup.
+ * Holds the JPQL text and the mapping from method arguments to query parameters,
+ * so a call only binds values and executes.
+ */
+public class QueryPlan {
+
+    /**
+     * What the query does
+     */
+    public enum Kind {
+        SELECT, COUNT, EXISTS, DELETE
+    }
+
+    /**
+     * How the result is handed back to the caller
+     */
+    enum Shape {
+        LIST, PAGE, SLICE, STREAM, OPTIONAL, SINGLE, BOOLEAN, LONG, INT, VOID
+    }
+
+    /**
+     * How a method argument is turned into a query parameter
+     */
+    enum Binding {
+        PLAIN, CONTAINING, STARTING_WITH, ENDING_WITH
+    }
+
+    static final char LIKE_ESCAPE = '!';
+    static final String ALIAS = "e";
+    static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+
+    private static final Pattern PROPERTY_PATH = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+    private final Method method;
+    private final Kind kind;
+    private final Shape shape;
+    private final String jpql;
+    private final String orderBy;
+    private final String countJpql;
+    private final Class<?> resultType;
+    private final List<Binding> bindings;
+    private final List<Integer> argumentIndexes;
+    private final int pageableIndex;
+    private final int sortIndex;
+    private final int fetchPlanIndex;
+    private final Integer maxResults;
+    private final boolean softDelete;
+
+    QueryPlan(Method method, Kind kind, Shape shape, String jpql, String orderBy, String countJpql,
+              Class<?> resultType, List<Binding> bindings, List<Integer> argumentIndexes,
+              int pageableIndex, int sortIndex, int fetchPlanIndex, Integer maxResults, boolean softDelete) {
+        this.method = method;
+        this.kind = kind;
+        this.shape = shape;
+        this.jpql = jpql;
+        this.orderBy = orderBy;
+        this.countJpql = countJpql;
+        this.resultType = resultType;
+        this.bindings = List.copyOf(bindings);
+        this.argumentIndexes = List.copyOf(argumentIndexes);
+        this.pageableIndex = pageableIndex;
+        this.sortIndex = sortIndex;
+        this.fetchPlanIndex = fetchPlanIndex;
+        this.maxResults = maxResults;
+        this.softDelete = softDelete;
+    }
+
+    /**
+     * Repository method this plan was compiled from
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * JPQL of the query, including the static ORDER BY derived from the method name
+     */
+    public String getJpql() {
+        return jpql + orderBy;
+    }
+
+    /**
+     * Type of the rows the query selects
+     */
+    Class<?> getResultType() {
+        return resultType;
+    }
+
+    /**
+     * JPQL of the companion count query for paged methods, or null
+     */
+    public String getCountJpql() {
+        return countJpql;
+    }
+
+    /**
+     * Declared type of the argument bound to each positional parameter, in parameter order
+     */
+    List<ResolvableType> getParameterTypes() {
+        List<ResolvableType> types = new ArrayList<>();
+        for (Integer index : argumentIndexes) {
+            types.add(ResolvableType.forMethodParameter(method, index));
+        }
+        return types;
+    }
+
+    /**
+     * Whether the plan modifies rows
+     */
+    public boolean isModifying() {
+        return kind == Kind.DELETE;
+    }
+
+    /**
+     * Check the JPQL against the metamodel without running it
+     */
+    void validate(EntityManager entityManager) {
+        if (kind == Kind.DELETE) {
+            entityManager.createQuery(jpql);
+        } else {
+            entityManager.createQuery(jpql + orderBy, resultType);
+        }
+        if (countJpql != null) {
+            entityManager.createQuery(countJpql, Long.class);
+        }
+    }
+
+    /**
+     * Bind the arguments of one call and run the query
+     */
+    Object execute(EntityManager entityManager, Object[] args) {
+        return switch (kind) {
+            case DELETE -> executeDelete(entityManager, args);
+            case COUNT -> {
+                long count = bind(entityManager.createQuery(jpql, Long.class), args).getSingleResult();
+                yield shape == Shape.INT ? (Object) Math.toIntExact(count) : (Object) count;
+            }
+            case EXISTS -> !bind(entityManager.createQuery(jpql, resultType), args)
+                    .setMaxResults(1).getResultList().isEmpty();
+            case SELECT -> executeSelect(entityManager, args);
+        };
+    }
+
+    private Object executeDelete(EntityManager entityManager, Object[] args) {
+        Query query = bind(entityManager.createQuery(jpql), args);
+        if (softDelete) {
+            query.setParameter(bindings.size() + 1, LocalDateTime.now());
+        }
+        int rows = query.executeUpdate();
+        return switch (shape) {
+            case LONG -> (long) rows;
+            case INT -> rows;
+            default -> null;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object executeSelect(EntityManager entityManager, Object[] args) {
+        Pageable pageable = pageableIndex >= 0 ? (Pageable) args[pageableIndex] : null;
+        Sort sort = sortIndex >= 0 ? (Sort) args[sortIndex] : null;
+        if (sort == null && pageable != null) {
+            sort = pageable.getSort();
+        }
+        String dynamicOrder = sort == null || sort.isUnsorted() ? orderBy : toOrderBy(sort);
+
+        TypedQuery<?> query = ReadOnlyHints.applyTo(bind(entityManager.createQuery(jpql + dynamicOrder, resultType), args));
+        FetchPlan fetchPlan = fetchPlanIndex >= 0 ? (FetchPlan) args[fetchPlanIndex] : null;
+        if (fetchPlan != null) {
+            fetchPlan.applyTo(query, entityManager, resultType);
+        }
+        if (pageable != null && pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+        }
+
+        switch (shape) {
+            case PAGE -> {
+                if (pageable == null || pageable.isUnpaged()) {
+                    return new PageImpl<>(query.getResultList());
+                }
+                List content = query.setMaxResults(pageable.getPageSize()).getResultList();
+                // A short page already tells the total, no count needed
+                if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+                    return new PageImpl<>(content, pageable, content.size());
+                }
+                long total = bind(entityManager.createQuery(countJpql, Long.class), args).getSingleResult();
+                return new PageImpl<>(content, pageable, total);
+            }
+            case SLICE -> {
+                if (pageable == null || pageable.isUnpaged()) {
+                    return new SliceImpl<>(query.getResultList());
+                }
+                List rows = query.setMaxResults(pageable.getPageSize() + 1).getResultList();
+                boolean hasNext = rows.size() > pageable.getPageSize();
+                List content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+                return new SliceImpl<>(content, pageable, hasNext);
+            }
+            case STREAM -> {
+                if (maxResults != null) {
+                    query.setMaxResults(maxResults);
+                }
+                return ScrollStreams.open(entityManager, query.unwrap(org.hibernate.query.Query.class),
+                        (Class) resultType, DEFAULT_STREAM_FETCH_SIZE);
+            }
+            case OPTIONAL, SINGLE -> {
+                List rows = query.setMaxResults(maxResults != null ? maxResults : 2).getResultList();
+                if (rows.size() > 1) {
+                    throw new IncorrectResultSizeDataAccessException(1, rows.size());
+                }
+                Object row = rows.isEmpty() ? null : rows.get(0);
+                return shape == Shape.OPTIONAL ? Optional.ofNullable(row) : row;
+            }
+            default -> {
+                if (maxResults != null) {
+                    query.setMaxResults(maxResults);
+                }
+                return query.getResultList();
+            }
+        }
+    }
+
+    private <Q extends Query> Q bind(Q query, Object[] args) {
+        for (int i = 0; i < bindings.size(); i++) {
+            Object value = args[argumentIndexes.get(i)];
+            query.setParameter(i + 1, switch (bindings.get(i)) {
+                case PLAIN -> value;
+                case CONTAINING -> "%" + escapeLike(value) + "%";
+                case STARTING_WITH -> escapeLike(value) + "%";
+                case ENDING_WITH -> "%" + escapeLike(value);
+            });
+        }
+        return RequestDeadline.applyTo(query);
+    }
+
+    private static String escapeLike(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LIKE argument must not be null");
+        }
+        String escape = String.valueOf(LIKE_ESCAPE);
+        return value.toString()
+                .replace(escape, escape + escape)
+                .replace("%", escape + "%")
+                .replace("_", escape + "_");
+    }
+
+    /**
+     * Render a runtime sort. Property names are checked so they cannot carry JPQL,
+     * unknown properties are then rejected by Hibernate when the query is created.
+     */
+    private static String toOrderBy(Sort sort) {
+        StringBuilder clause = new StringBuilder(" order by ");
+        boolean first = true;
+        for (Sort.Order order : sort) {
+            if (!PROPERTY_PATH.matcher(order.getProperty()).matches()) {
+                throw new IllegalArgumentException("Invalid sort property: " + order.getProperty());
+            }
+            if (!first) {
+                clause.append(", ");
+            }
+            clause.append(ALIAS).append('.').append(order.getProperty())
+                    .append(order.isAscending() ? " asc" : " desc");
+            first = false;
+        }
+        return clause.toString();
+    }
+
+    @Override
+    public String toString() {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName() + " -> " + getJpql();
+    }
+}
@@ -3,9 +3,11 @@ package product.asia.shop.repository.unitofwork;
 import product.asia.shop.repository.base.GenericRepository;
 
 /**
- * Unit of Work pattern interface for managing database transactions and repositories
+ * Unit of Work pattern interface for managing database transactions and repositories.
+ * One instance is shared by all callers; transaction state is kept per calling thread.
+ * Explicit transactions belong in try-with-resources, so an exception cannot leave one open on the thread.
  */
-public interface UnitOfWork {
+public interface UnitOfWork extends AutoCloseable {
 
     /**
      * Get repository for a specific entity type
@@ -18,7 +20,7 @@ public interface UnitOfWork {
     <T, ID> GenericRepository<T, ID> getRepository(Class<T> entityClass);
 
     /**
-     * Begin a new transaction
+     * Begin a new transaction on the calling thread
      */
     void beginTransaction();
 
@@ -50,12 +52,14 @@ public interface UnitOfWork {
     void clear();
 
     /**
-     * Close the unit of work and release resources
+     * Close the unit of work: roll back the transaction still open on the calling thread, if any
      */
+    @Override
     void close();
 
     /**
-     * Execute a block of code within a transaction
+     * Execute a block of code within a transaction, joining the caller's transaction if one is active.
+     * Runtime exceptions of the action roll the transaction back and are rethrown unchanged.
      *
      * @param action The action to execute
      */
@@ -69,4 +73,15 @@ public interface UnitOfWork {
      * @return The result of the action
      */
     <T> T executeInTransaction(java.util.function.Supplier<T> action);
+
+    /**
+     * Execute a bulk write within a transaction, joining the caller's transaction if one is active.
+     * Queries of the action do not auto-flush, so they do not see its pending changes; the changes are
+     * written in JDBC batches at commit or at an explicit {@link #flush()}.
+     *
+     * @param action The action to execute
+     * @param <T>    Return type
+     * @return The result of the action
+     */
+    <T> T executeBatched(java.util.function.Supplier<T> action);
 }
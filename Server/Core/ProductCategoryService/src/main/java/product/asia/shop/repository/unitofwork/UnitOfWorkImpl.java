@@ -1,74 +1,102 @@
 package product.asia.shop.repository.unitofwork;
 
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.FlushModeType;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import product.asia.shop.repository.base.GenericRepository;
 import product.asia.shop.repository.factory.RepositoryFactory;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Supplier;
 
 /**
- * Unit of Work implementation for managing database transactions and repositories
+ * Unit of Work implementation for managing database transactions and repositories.
+ * <p>
+ * The bean is a shared singleton; transaction state belongs to the calling thread (each virtual thread
+ * has its own), the same way Spring binds its transactional resources. Transactions go through the
+ * {@link PlatformTransactionManager}, so the shared {@link EntityManager} resolves to the persistence
+ * context of the current transaction and {@code @Transactional} callers are joined rather than bypassed.
+ * The thread's transaction state is dropped when the transaction completes, however it completes, and
+ * by {@link #close()}, so a unit of work abandoned by an exception does not stay bound to a pooled thread.
+ * Transactions auto-flush before queries, so a query sees what the same unit of work saved; only
+ * {@link #executeBatched} defers flushing to commit, for writes that do not read their own changes.
+ * Nothing here synchronizes, so virtual threads never pin their carrier around JDBC calls.
  */
 @Component
 public class UnitOfWorkImpl implements UnitOfWork {
 
-    private final Map<Class<?>, GenericRepository<?, ?>> repositories = new HashMap<>();
+    private static final TransactionDefinition TRANSACTION_DEFINITION =
+            new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+
+    private final ThreadLocal<TransactionStatus> currentTransaction = new ThreadLocal<>();
     @PersistenceContext
     private EntityManager entityManager;
     @Autowired
     private RepositoryFactory repositoryFactory;
-    private EntityTransaction transaction;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T, ID> GenericRepository<T, ID> getRepository(Class<T> entityClass) {
-        return (GenericRepository<T, ID>) repositories.computeIfAbsent(entityClass,
-                key -> repositoryFactory.getRepository(entityClass));
+        // The factory caches repositories; they are stateless and safe to share between threads
+        return repositoryFactory.getRepository(entityClass);
     }
 
     @Override
     public void beginTransaction() {
-        if (transaction != null && transaction.isActive()) {
+        if (isTransactionActive()) {
             throw new IllegalStateException("Transaction is already active");
         }
-        transaction = entityManager.getTransaction();
-        transaction.begin();
+        TransactionStatus status = begin();
+        currentTransaction.set(status);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int completionStatus) {
+                currentTransaction.remove();
+            }
+        });
     }
 
     @Override
     public void commit() {
-        if (transaction == null || !transaction.isActive()) {
+        TransactionStatus status = currentTransaction.get();
+        if (status == null || status.isCompleted()) {
             throw new IllegalStateException("No active transaction to commit");
         }
         try {
-            flush();
-            transaction.commit();
-        } catch (Exception e) {
-            rollback();
-            throw new RuntimeException("Failed to commit transaction", e);
+            // Rolls back by itself when the commit fails
+            transactionManager.commit(status);
+        } finally {
+            currentTransaction.remove();
         }
     }
 
     @Override
     public void rollback() {
-        if (transaction != null && transaction.isActive()) {
-            try {
-                transaction.rollback();
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to rollback transaction", e);
+        TransactionStatus status = currentTransaction.get();
+        if (status == null) {
+            return;
+        }
+        try {
+            if (!status.isCompleted()) {
+                transactionManager.rollback(status);
             }
+        } finally {
+            currentTransaction.remove();
         }
     }
 
     @Override
     public boolean isTransactionActive() {
-        return transaction != null && transaction.isActive();
+        TransactionStatus status = currentTransaction.get();
+        return status != null && !status.isCompleted();
     }
 
     @Override
@@ -79,15 +107,11 @@ public class UnitOfWorkImpl implements UnitOfWork {
     @Override
     public void clear() {
         entityManager.clear();
-        repositories.clear();
     }
 
     @Override
     public void close() {
-        if (isTransactionActive()) {
-            rollback();
-        }
-        clear();
+        rollback();
     }
 
     @Override
@@ -100,27 +124,31 @@ public class UnitOfWorkImpl implements UnitOfWork {
 
     @Override
     public <T> T executeInTransaction(Supplier<T> action) {
-        boolean wasTransactionStartedHere = false;
-
+        // Joins the transaction of the caller, whether started here or by @Transactional
+        TransactionStatus status = begin();
+        T result;
         try {
-            if (!isTransactionActive()) {
-                beginTransaction();
-                wasTransactionStartedHere = true;
-            }
-
-            T result = action.get();
-
-            if (wasTransactionStartedHere) {
-                commit();
-            }
+            result = action.get();
+        } catch (RuntimeException | Error e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+        transactionManager.commit(status);
+        return result;
+    }
 
-            return result;
-        } catch (Exception e) {
-            if (wasTransactionStartedHere && isTransactionActive()) {
-                rollback();
+    @Override
+    public <T> T executeBatched(Supplier<T> action) {
+        return executeInTransaction(() -> {
+            // Restored so that a joined caller's transaction keeps its own flush mode
+            FlushModeType previous = entityManager.getFlushMode();
+            entityManager.setFlushMode(FlushModeType.COMMIT);
+            try {
+                return action.get();
+            } finally {
+                entityManager.setFlushMode(previous);
             }
-            throw new RuntimeException("Error executing transaction", e);
-        }
+        });
     }
 
     /**
@@ -129,4 +157,8 @@ public class UnitOfWorkImpl implements UnitOfWork {
     public EntityManager getEntityManager() {
         return entityManager;
     }
+
+    private TransactionStatus begin() {
+        return transactionManager.getTransaction(TRANSACTION_DEFINITION);
+    }
 }
@@ -0,0 +1,101 @@
+package product.asia.shop.search;
+
+import java.util.List;
+
+/**
+ * BM25F relevance of documents to one query. Each field's term frequency is normalized by the field's length
+ * against its average and weighted by the field's boost; the sum is saturated once per term and scaled by the
+ * term's inverse document frequency, so a term repeated across fields does not count twice as much. A query
+ * term scores with the best of its words: itself, or a similar word from fuzzy expansion at a lower weight.
+ * <p>
+ * Everything depending only on the query is computed in the constructor; {@link #score(int)} reads packed
+ * frequencies and boosted norm tables and allocates nothing. Documents are scored in ascending ordinal order, each
+ * postings list read through a cursor that only moves forward.
+ */
+final class Bm25Scorer {
+
+    // Name > SKU > description > translations, indexed by the FieldLengths field numbers
+    private static final float[] BOOSTS = {3.0f, 2.0f, 1.0f, 0.7f};
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /**
+     * Weight of a similar word standing in for a query term: a typo match ranks below an exact one
+     */
+    static final float FUZZY_WEIGHT = 0.5f;
+
+    /**
+     * A word of a query term and the weight of its score
+     */
+    record Term(Postings postings, float weight) {
+    }
+
+    private final FieldLengths lengths;
+    // Boost of each field divided by its length norm, by length
+    private final float[][] boostedNorms = new float[FieldLengths.FIELDS][];
+    private final Postings[] postings;
+    private final float[] weights;
+    private final int[] cursors;
+    private final int[] groupEnds;
+
+    /**
+     * @param groups Words of each query term
+     */
+    Bm25Scorer(List<List<Term>> groups, FieldLengths lengths) {
+        this.lengths = lengths;
+        for (int field = 0; field < FieldLengths.FIELDS; field++) {
+            float[] fieldNorms = lengths.norms(field, B);
+            for (int length = 0; length < fieldNorms.length; length++) {
+                fieldNorms[length] = BOOSTS[field] / fieldNorms[length];
+            }
+            boostedNorms[field] = fieldNorms;
+        }
+        int count = groups.stream().mapToInt(List::size).sum();
+        postings = new Postings[count];
+        weights = new float[count];
+        cursors = new int[count];
+        groupEnds = new int[groups.size()];
+        int documents = lengths.documents();
+        int i = 0;
+        for (int group = 0; group < groups.size(); group++) {
+            for (Term term : groups.get(group)) {
+                int frequency = term.postings().size();
+                float idf = (float) Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+                postings[i] = term.postings();
+                weights[i] = term.weight() * idf * (K1 + 1);
+                i++;
+            }
+            groupEnds[group] = i;
+        }
+    }
+
+    /**
+     * Score of a document, ordinals given in ascending order
+     */
+    float score(int ordinal) {
+        float score = 0;
+        int i = 0;
+        for (int groupEnd : groupEnds) {
+            float best = 0;
+            for (; i < groupEnd; i++) {
+                Postings list = postings[i];
+                int cursor = list.seek(cursors[i], ordinal);
+                cursors[i] = cursor;
+                if (cursor == list.size() || list.ordinalAt(cursor) != ordinal) {
+                    continue;
+                }
+                int packed = list.frequenciesAt(cursor);
+                float frequency = 0;
+                for (int field = 0; field < FieldLengths.FIELDS; field++) {
+                    int fieldFrequency = FieldLengths.unpack(packed, field);
+                    if (fieldFrequency > 0) {
+                        frequency += fieldFrequency * boostedNorms[field][lengths.length(field, ordinal)];
+                    }
+                }
+                best = Math.max(best, weights[i] * frequency / (frequency + K1));
+            }
+            score += best;
+        }
+        return score;
+    }
+}
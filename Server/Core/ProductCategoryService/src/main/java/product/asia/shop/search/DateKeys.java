@@ -0,0 +1,53 @@
+package product.asia.shop.search;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Creation and update times of every document as primitives, by ordinal, kept by {@link ProductIndex} under
+ * its lock. A date sort compares a hit's key with the last hit of the page before loading its document, so
+ * a query matching most of the catalogue reads an array instead of chasing every document's dates.
+ */
+final class DateKeys {
+
+    private long[] createdAt = new long[64];
+    private long[] updatedAt = new long[64];
+
+    /**
+     * Nanoseconds since the epoch, in the same order as the dates; no date sorts first
+     */
+    static long key(LocalDateTime date) {
+        if (date == null) {
+            return Long.MIN_VALUE;
+        }
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + date.getNano();
+    }
+
+    void set(int ordinal, ProductDocument document) {
+        if (ordinal >= createdAt.length) {
+            createdAt = Arrays.copyOf(createdAt, Math.max(ordinal + 1, createdAt.length * 2));
+            updatedAt = Arrays.copyOf(updatedAt, createdAt.length);
+        }
+        createdAt[ordinal] = key(document.createdAt());
+        updatedAt[ordinal] = key(document.updatedAt());
+    }
+
+    /**
+     * Keys of a sort field by ordinal, null if the field is not a date
+     */
+    long[] of(String field) {
+        return switch (field) {
+            case "createdAt" -> createdAt;
+            case "updatedAt" -> updatedAt;
+            default -> null;
+        };
+    }
+
+    /**
+     * Key of a sort field in a document
+     */
+    static long key(String field, ProductDocument document) {
+        return key("createdAt".equals(field) ? document.createdAt() : document.updatedAt());
+    }
+}
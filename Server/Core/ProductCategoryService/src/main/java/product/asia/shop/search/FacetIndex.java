@@ -0,0 +1,164 @@
+package product.asia.shop.search;
+
+import product.asia.shop.dto.ProductSearchRequestDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bitmaps of the product ordinals per shop, category, status and attribute value, kept by {@link ProductIndex}
+ * under its lock. Filters intersect bitmaps instead of joining PRODUCT_ATTRIBUTE_VALUES once per attribute,
+ * and the facet counts of a result are the sizes of its intersections with every value bitmap.
+ */
+final class FacetIndex {
+
+    private final OrdinalBitmap live = new OrdinalBitmap();
+    private final Map<UUID, OrdinalBitmap> shops = new HashMap<>();
+    private final Map<UUID, OrdinalBitmap> categories = new HashMap<>();
+    private final Map<String, OrdinalBitmap> statuses = new HashMap<>();
+    private final Map<UUID, Map<String, OrdinalBitmap>> attributes = new HashMap<>();
+
+    /**
+     * The form attribute values are indexed and filtered in: option ids and booleans as text, numbers without
+     * trailing zeros, dates as their day, text folded like search terms; null for no value
+     */
+    static String valueKey(Object value) {
+        return switch (value) {
+            case null -> null;
+            case BigDecimal number -> number.stripTrailingZeros().toPlainString();
+            case Number number -> valueKey(new BigDecimal(number.toString()));
+            case LocalDateTime dateTime -> dateTime.toLocalDate().toString();
+            case LocalDate date -> date.toString();
+            case String text -> textKey(text.trim());
+            default -> value.toString();
+        };
+    }
+
+    private static String textKey(String text) {
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return valueKey(new BigDecimal(text));
+        } catch (NumberFormatException e) {
+            return TextAnalyzer.fold(text);
+        }
+    }
+
+    void add(int ordinal, ProductDocument document) {
+        live.add(ordinal);
+        bitmap(shops, document.shopId()).add(ordinal);
+        bitmap(categories, document.categoryId()).add(ordinal);
+        bitmap(statuses, statusKey(document.status())).add(ordinal);
+        document.attributes().forEach((attributeId, values) -> {
+            Map<String, OrdinalBitmap> byValue = attributes.computeIfAbsent(attributeId, key -> new HashMap<>());
+            values.forEach(value -> bitmap(byValue, value).add(ordinal));
+        });
+    }
+
+    void remove(int ordinal, ProductDocument document) {
+        live.remove(ordinal);
+        unset(shops, document.shopId(), ordinal);
+        unset(categories, document.categoryId(), ordinal);
+        unset(statuses, statusKey(document.status()), ordinal);
+        document.attributes().forEach((attributeId, values) -> {
+            Map<String, OrdinalBitmap> byValue = attributes.get(attributeId);
+            if (byValue != null) {
+                values.forEach(value -> unset(byValue, value, ordinal));
+                if (byValue.isEmpty()) {
+                    attributes.remove(attributeId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Live products passing the shop, category, status and attribute filters of the request. Several values
+     * for one attribute (a JSON array, or the query parameter repeated) match any of them; a text value is
+     * matched whole, commas included.
+     */
+    OrdinalBitmap filter(ProductSearchRequestDto request) {
+        OrdinalBitmap result = live;
+        if (request.getShopId() != null) {
+            result = result.and(shops.getOrDefault(request.getShopId(), new OrdinalBitmap()));
+        }
+        if (request.getCategoryId() != null) {
+            result = result.and(categories.getOrDefault(request.getCategoryId(), new OrdinalBitmap()));
+        }
+        if (request.getStatus() != null) {
+            result = result.and(statuses.getOrDefault(statusKey(request.getStatus()), new OrdinalBitmap()));
+        }
+        if (request.getAttributeFilters() != null) {
+            for (Map.Entry<UUID, Object> filter : request.getAttributeFilters().entrySet()) {
+                Map<String, OrdinalBitmap> byValue = attributes.getOrDefault(filter.getKey(), Map.of());
+                OrdinalBitmap any = new OrdinalBitmap();
+                for (Object value : values(filter.getValue())) {
+                    OrdinalBitmap bitmap = byValue.get(valueKey(value));
+                    if (bitmap != null) {
+                        any = any.or(bitmap);
+                    }
+                }
+                result = result.and(any);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of products of {@code result} per value of each of the given attributes, values without
+     * products left out
+     */
+    Map<UUID, Map<String, Long>> counts(OrdinalBitmap result, Collection<UUID> attributeIds) {
+        Map<UUID, Map<String, Long>> counts = new LinkedHashMap<>();
+        for (UUID attributeId : attributeIds) {
+            Map<String, Long> byValue = new LinkedHashMap<>();
+            attributes.getOrDefault(attributeId, Map.of()).forEach((value, bitmap) -> {
+                int count = result.andCardinality(bitmap);
+                if (count > 0) {
+                    byValue.put(value, (long) count);
+                }
+            });
+            if (!byValue.isEmpty()) {
+                counts.put(attributeId, byValue);
+            }
+        }
+        return counts;
+    }
+
+    private static List<?> values(Object filter) {
+        if (filter instanceof Collection<?> collection) {
+            return List.copyOf(collection);
+        }
+        if (filter instanceof Object[] array) {
+            return Arrays.asList(array);
+        }
+        return filter == null ? List.of() : List.of(filter);
+    }
+
+    private static String statusKey(String status) {
+        return status == null ? "" : status.toUpperCase(Locale.ROOT);
+    }
+
+    private static <K> OrdinalBitmap bitmap(Map<K, OrdinalBitmap> bitmaps, K key) {
+        return bitmaps.computeIfAbsent(key, ignored -> new OrdinalBitmap());
+    }
+
+    private static <K> void unset(Map<K, OrdinalBitmap> bitmaps, K key, int ordinal) {
+        OrdinalBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+}
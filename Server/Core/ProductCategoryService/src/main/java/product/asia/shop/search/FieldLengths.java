@@ -0,0 +1,82 @@
+package product.asia.shop.search;
+
+import java.util.Arrays;
+
+/**
+ * Number of terms in each indexed field of every document, one byte each, with the running totals that
+ * give the average length per field. Kept by {@link ProductIndex} under its lock as documents come and go.
+ * Lengths above 255 terms are stored as 255: past that, a longer description changes the norm too little
+ * to matter.
+ */
+final class FieldLengths {
+
+    static final int NAME = 0;
+    static final int SKU = 1;
+    static final int DESCRIPTION = 2;
+    static final int TRANSLATIONS = 3;
+    static final int FIELDS = 4;
+
+    static final int MAX_LENGTH = 255;
+
+    private final byte[][] lengths = new byte[FIELDS][64];
+    private final long[] totals = new long[FIELDS];
+    private int documents;
+
+    /**
+     * Frequencies of one term in each field, packed as {@link Postings} keeps them
+     */
+    static int pack(int[] frequencies) {
+        int packed = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            packed |= Math.min(frequencies[field], MAX_LENGTH) << (8 * field);
+        }
+        return packed;
+    }
+
+    static int unpack(int packed, int field) {
+        return (packed >>> (8 * field)) & 0xFF;
+    }
+
+    void add(int ordinal, int[] fieldLengths) {
+        if (ordinal >= lengths[0].length) {
+            for (int field = 0; field < FIELDS; field++) {
+                lengths[field] = Arrays.copyOf(lengths[field], Math.max(ordinal + 1, lengths[field].length * 2));
+            }
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            int length = Math.min(fieldLengths[field], MAX_LENGTH);
+            lengths[field][ordinal] = (byte) length;
+            totals[field] += length;
+        }
+        documents++;
+    }
+
+    void remove(int ordinal) {
+        for (int field = 0; field < FIELDS; field++) {
+            totals[field] -= length(field, ordinal);
+            lengths[field][ordinal] = 0;
+        }
+        documents--;
+    }
+
+    int length(int field, int ordinal) {
+        return lengths[field][ordinal] & 0xFF;
+    }
+
+    /**
+     * BM25 length normalization of a field for every stored length, {@code 1 - b + b * length / average},
+     * computed once per query so scoring a document is a table lookup
+     */
+    float[] norms(int field, float b) {
+        float average = documents == 0 ? 0 : (float) totals[field] / documents;
+        float[] norms = new float[MAX_LENGTH + 1];
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            norms[length] = average == 0 ? 1 : 1 - b + b * length / average;
+        }
+        return norms;
+    }
+
+    int documents() {
+        return documents;
+    }
+}
@@ -0,0 +1,163 @@
+package product.asia.shop.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bigrams of the words in the {@link ProductIndex} term dictionary, kept by the index under its lock, to
+ * find the terms a few typos away from a query term. One edit changes at most three distinct bigrams of a
+ * word (a swap of adjacent letters; other edits two), so candidates share all but {@code 3 * edits} of the
+ * query term's bigrams; only those are compared with a bounded edit distance. Terms of four letters or more
+ * with one edit, and of eight or more with two, keep at least two bigrams in common, so no candidate is
+ * missed; trigrams would leave "gace" and "gcae" without one. Terms with digits (SKUs, model numbers) are
+ * left out: a typo there names another product.
+ */
+final class FuzzyTermIndex {
+
+    /**
+     * Shorter terms have too many neighbours one edit away to be worth expanding
+     */
+    static final int MIN_LENGTH = 4;
+
+    // Words of 8 letters and more may have two typos, shorter ones one
+    private static final int TWO_EDITS_LENGTH = 8;
+
+    private final Map<String, Set<String>> termsByBigram = new HashMap<>();
+
+    static boolean isFuzzy(String term) {
+        if (term.length() < MIN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Edits allowed for a term, at most {@code maxEdits}
+     */
+    static int allowedEdits(String term, int maxEdits) {
+        if (!isFuzzy(term)) {
+            return 0;
+        }
+        return Math.min(maxEdits, term.length() < TWO_EDITS_LENGTH ? 1 : 2);
+    }
+
+    void add(String term) {
+        if (isFuzzy(term)) {
+            for (String bigram : bigrams(term)) {
+                termsByBigram.computeIfAbsent(bigram, key -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        if (isFuzzy(term)) {
+            for (String bigram : bigrams(term)) {
+                Set<String> terms = termsByBigram.get(bigram);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    termsByBigram.remove(bigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Other terms within {@code maxEdits} of {@code term}, closest and then most frequent first
+     *
+     * @param deadline  {@link System#nanoTime()} after which candidates are no longer compared
+     * @param frequency Products containing a term
+     */
+    List<String> similar(String term, int maxEdits, int maxTerms, long deadline, ToIntFunction<String> frequency) {
+        if (maxEdits <= 0) {
+            return List.of();
+        }
+        Set<String> bigrams = bigrams(term);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String bigram : bigrams) {
+            for (String candidate : termsByBigram.getOrDefault(bigram, Set.of())) {
+                if (Math.abs(candidate.length() - term.length()) <= maxEdits) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        int minShared = Math.max(1, bigrams.size() - 3 * maxEdits);
+        List<String> similar = new ArrayList<>();
+        Map<String, Integer> distances = new HashMap<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+            if (candidate.getValue() < minShared || candidate.getKey().equals(term)) {
+                continue;
+            }
+            int distance = distance(term, candidate.getKey(), maxEdits);
+            if (distance <= maxEdits) {
+                similar.add(candidate.getKey());
+                distances.put(candidate.getKey(), distance);
+            }
+        }
+        similar.sort(Comparator.<String>comparingInt(distances::get)
+                .thenComparing(Comparator.comparingInt(frequency).reversed())
+                .thenComparing(Comparator.naturalOrder()));
+        return similar.size() > maxTerms ? similar.subList(0, maxTerms) : similar;
+    }
+
+    /**
+     * Edit distance counting a swap of adjacent letters as one edit, or {@code max + 1} once it exceeds
+     * {@code max}
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Bigrams of the term padded with a boundary mark on both sides, so its first and last letters weigh
+     * as much as the middle ones
+     */
+    private static Set<String> bigrams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> bigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 2 <= padded.length(); i++) {
+            bigrams.add(padded.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+}
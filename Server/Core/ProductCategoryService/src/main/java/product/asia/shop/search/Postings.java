@@ -0,0 +1,88 @@
+package product.asia.shop.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of document ordinals containing a term, with the term's frequency in each field of each
+ * document packed one byte per field ({@link FieldLengths#NAME} lowest)
+ */
+final class Postings {
+
+    private int[] ordinals = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    /**
+     * Add a document, or replace its frequencies
+     */
+    void add(int ordinal, int packedFrequencies) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index >= 0) {
+            frequencies[index] = packedFrequencies;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+        System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+        System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+        ordinals[insertAt] = ordinal;
+        frequencies[insertAt] = packedFrequencies;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index >= 0) {
+            System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Index of the first document at or after {@code from} whose ordinal is not below {@code ordinal},
+     * {@link #size()} if there is none. Galloping from {@code from}, a scan of ascending ordinals costs a
+     * step or two per call instead of a search of the whole list.
+     */
+    int seek(int from, int ordinal) {
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < size && ordinals[high] < ordinal) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        if (high >= size) {
+            high = size;
+        }
+        int index = Arrays.binarySearch(ordinals, low, high, ordinal);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    /**
+     * Packed field frequencies of the term in the document at an index
+     */
+    int frequenciesAt(int index) {
+        return frequencies[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+}
@@ -0,0 +1,18 @@
+package product.asia.shop.search;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The fields of a live product the search index matches, filters and sorts on
+ *
+ * @param translations Translated texts of the product, in every locale, one after the other
+ * @param attributes   Values of the product's attributes by attribute id, in the form of
+ *                     {@link FacetIndex#valueKey(Object)}
+ */
+public record ProductDocument(UUID id, String sku, String name, String description, UUID shopId, UUID categoryId,
+                              String status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              String translations, Map<UUID, Set<String>> attributes) {
+}
@@ -0,0 +1,419 @@
+package product.asia.shop.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import product.asia.shop.config.SearchProperties;
+import product.asia.shop.deadline.RequestDeadline;
+import product.asia.shop.dto.ProductSearchRequestDto;
+import product.asia.shop.exception.ValidationException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the name, SKU, description and translations of live products.
+ * <p>
+ * Each product gets a dense ordinal; every term maps to the sorted ordinals of the products containing it,
+ * with its frequency in each field, so a query intersects one postings list per term, smallest first, keeps
+ * the matches found in the {@link FacetIndex} bitmap of the filters, and ranks only the requested page and
+ * those before it in a bounded heap, without touching the database. The relevance order scores matches with
+ * {@link Bm25Scorer} from the field lengths and document frequencies kept up to date here. Ordinals of
+ * removed products are reused. Searches share a read lock, changes take the write lock for the few
+ * microseconds a product needs.
+ */
+@Component
+@EnableConfigurationProperties(SearchProperties.class)
+public class ProductIndex {
+
+    /**
+     * Best match first; without a query, newest first
+     */
+    public static final String SORT_RELEVANCE = "relevance";
+
+    private static final Map<String, Comparator<ProductDocument>> SORTS = Map.of(
+            "createdAt", Comparator.comparing(ProductDocument::createdAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "updatedAt", Comparator.comparing(ProductDocument::updatedAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "name", Comparator.comparing(ProductDocument::name, String.CASE_INSENSITIVE_ORDER),
+            "SKU", Comparator.comparing(ProductDocument::sku, String.CASE_INSENSITIVE_ORDER));
+
+    @Autowired
+    private SearchProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<ProductDocument> documents = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final FieldLengths fieldLengths = new FieldLengths();
+    private final DateKeys dateKeys = new DateKeys();
+    private final FacetIndex facets = new FacetIndex();
+    private final FuzzyTermIndex fuzzyTerms = new FuzzyTermIndex();
+    private volatile Set<UUID> filterableAttributes = Set.of();
+    private volatile boolean ready;
+
+    /**
+     * Whether the initial build is complete; until then searches go to the database
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Attributes whose values are counted for every search
+     */
+    void setFilterableAttributes(Collection<UUID> attributeIds) {
+        filterableAttributes = Set.copyOf(attributeIds);
+    }
+
+    /**
+     * Number of indexed products
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a product or replace its previous version
+     *
+     * @return Whether the index changed
+     */
+    public boolean index(ProductDocument document) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(document.id());
+            if (ordinal != null) {
+                ProductDocument previous = documents.get(ordinal);
+                if (previous.equals(document)) {
+                    return false;
+                }
+                unindex(ordinal, previous);
+            } else {
+                ordinal = freeOrdinals.isEmpty() ? documents.size() : freeOrdinals.pop();
+                if (ordinal == documents.size()) {
+                    documents.add(null);
+                }
+                ordinals.put(document.id(), ordinal);
+            }
+            documents.set(ordinal, document);
+            int[] lengths = new int[FieldLengths.FIELDS];
+            int index = ordinal;
+            terms(document, lengths).forEach((term, frequencies) -> postings.computeIfAbsent(term, key -> {
+                fuzzyTerms.add(key);
+                return new Postings();
+            }).add(index, frequencies));
+            fieldLengths.add(ordinal, lengths);
+            dateKeys.set(ordinal, document);
+            facets.add(ordinal, document);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a deleted product
+     *
+     * @return Whether it was indexed
+     */
+    public boolean remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return false;
+            }
+            unindex(ordinal, documents.get(ordinal));
+            documents.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products containing every term of {@code query} (all products for a blank query), narrowed to the shop,
+     * category, status and attribute values of the request, in the requested order, with the number of those
+     * products per value of every filterable attribute. When fewer than {@code fuzzy-min-matches} products
+     * match exactly, each term also matches the indexed words a typo or two away from it.
+     *
+     * @throws ValidationException if the request sorts on a field the index does not keep, or pages past the
+     *                             result window
+     */
+    public SearchHits search(ProductSearchRequestDto request) {
+        validate(request);
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.tokenize(request.getQuery()));
+        boolean relevance = SORT_RELEVANCE.equals(request.getSortBy());
+        String field = relevance ? "createdAt" : request.getSortBy();
+        boolean descending = relevance
+                || Sort.Direction.fromOptionalString(request.getSortDirection()).orElse(Sort.Direction.DESC).isDescending();
+        Comparator<ProductDocument> order = descending ? SORTS.get(field).reversed() : SORTS.get(field);
+        order = order.thenComparing(ProductDocument::id);
+        relevance &= !terms.isEmpty();
+
+        // Only the requested page and those before it are ranked
+        int limit = (request.getPage() + 1) * request.getSize();
+        int from = limit - request.getSize();
+        Comparator<ProductDocument> ranking = order;
+        // Grows with the hits, which may be far fewer than the limit
+        PriorityQueue<ProductDocument> top = new PriorityQueue<>(order.reversed());
+        List<UUID> ids = new ArrayList<>();
+        long total;
+        Map<UUID, Map<String, Long>> facetCounts;
+        boolean fuzzy = false;
+        lock.readLock().lock();
+        try {
+            OrdinalBitmap filtered = facets.filter(request);
+            OrdinalBitmap hits = filtered;
+            List<List<Postings>> groups = terms.stream().map(term -> postings.containsKey(term)
+                    ? List.of(postings.get(term)) : List.<Postings>of()).toList();
+            if (!terms.isEmpty()) {
+                hits = keep(filtered, match(groups));
+            } else if (request.getQuery() != null && !request.getQuery().isBlank()) {
+                hits = new OrdinalBitmap();
+            }
+            if (!terms.isEmpty() && hits.cardinality() < properties.getFuzzyMinMatches()) {
+                List<List<Postings>> expanded = expand(terms);
+                if (expanded != null) {
+                    groups = expanded;
+                    hits = keep(filtered, match(groups));
+                    fuzzy = true;
+                }
+            }
+            if (relevance) {
+                Bm25Scorer scorer = scorer(terms, groups);
+                // No larger than the candidates, a narrow query keeps a small heap however deep the page
+                TopScores best = new TopScores(Math.min(limit, hits.cardinality()));
+                hits.forEach(ordinal -> best.offer(scorer.score(ordinal), ordinal));
+                int[] ranked = best.ordinalsBestFirst();
+                for (int i = from; i < ranked.length; i++) {
+                    ids.add(documents.get(ranked[i]).id());
+                }
+            } else {
+                // On a date, hits sorting strictly after the last one kept are skipped without loading them
+                long[] keys = dateKeys.of(field);
+                long[] last = new long[1];
+                hits.forEach(ordinal -> {
+                    if (keys != null && top.size() == limit
+                            && (descending ? keys[ordinal] < last[0] : keys[ordinal] > last[0])) {
+                        return;
+                    }
+                    ProductDocument document = documents.get(ordinal);
+                    if (top.size() < limit) {
+                        top.add(document);
+                    } else if (ranking.compare(document, top.peek()) < 0) {
+                        top.poll();
+                        top.add(document);
+                    } else {
+                        return;
+                    }
+                    if (keys != null && top.size() == limit) {
+                        last[0] = DateKeys.key(field, top.peek());
+                    }
+                });
+            }
+            total = hits.cardinality();
+            facetCounts = facets.counts(hits, filterableAttributes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!relevance) {
+            List<ProductDocument> ranked = new ArrayList<>(top);
+            ranked.sort(order);
+            ranked.subList(Math.min(from, ranked.size()), ranked.size()).forEach(document -> ids.add(document.id()));
+        }
+        return new SearchHits(total, ids, facetCounts, fuzzy);
+    }
+
+    /**
+     * Check that the request sorts on a field the index keeps, or on relevance, and pages no deeper than the
+     * result window. The database fallback applies the same limits, so a request is valid whether or not the
+     * index is ready.
+     *
+     * @throws ValidationException if it does not
+     */
+    public void validate(ProductSearchRequestDto request) {
+        if (request.getSortBy() == null
+                || !SORT_RELEVANCE.equals(request.getSortBy()) && !SORTS.containsKey(request.getSortBy())) {
+            throw new ValidationException("sortBy", "must be one of " + SORTS.keySet() + " or " + SORT_RELEVANCE);
+        }
+        long window = ((long) request.getPage() + 1) * request.getSize();
+        if (window > properties.getMaxResultWindow()) {
+            throw new ValidationException("page", "(page + 1) * size must not exceed " + properties.getMaxResultWindow());
+        }
+    }
+
+    /**
+     * Scorer of the query terms, each matched by the postings lists of its group: its own at full weight,
+     * those of similar words at the fuzzy weight
+     */
+    private Bm25Scorer scorer(Set<String> terms, List<List<Postings>> groups) {
+        List<List<Bm25Scorer.Term>> weighted = new ArrayList<>(groups.size());
+        Iterator<String> term = terms.iterator();
+        for (List<Postings> group : groups) {
+            Postings exact = postings.get(term.next());
+            weighted.add(group.stream().map(list -> new Bm25Scorer.Term(list, list == exact ? 1 : Bm25Scorer.FUZZY_WEIGHT))
+                    .toList());
+        }
+        return new Bm25Scorer(weighted, fieldLengths);
+    }
+
+    /**
+     * Ordinals found in at least one postings list of every group, ascending. Groups are intersected
+     * smallest first; only the first is materialized, the others are probed by cursors moving forward with
+     * the ascending candidates.
+     */
+    private static int[] match(List<List<Postings>> groups) {
+        List<List<Postings>> ordered = new ArrayList<>(groups);
+        ordered.sort(Comparator.comparingLong(group -> group.stream().mapToLong(Postings::size).sum()));
+        if (ordered.get(0).isEmpty()) {
+            return new int[0];
+        }
+        int[] candidates = union(ordered.get(0));
+        int count = candidates.length;
+        for (int i = 1; i < ordered.size() && count > 0; i++) {
+            List<Postings> group = ordered.get(i);
+            int[] cursors = new int[group.size()];
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                int candidate = candidates[j];
+                for (int k = 0; k < cursors.length; k++) {
+                    Postings list = group.get(k);
+                    cursors[k] = list.seek(cursors[k], candidate);
+                    if (cursors[k] < list.size() && list.ordinalAt(cursors[k]) == candidate) {
+                        candidates[kept++] = candidate;
+                        break;
+                    }
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private static int[] union(List<Postings> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0).toArray();
+        }
+        int[] all = lists.stream().flatMapToInt(list -> Arrays.stream(list.toArray())).sorted().toArray();
+        int count = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (count == 0 || all[i] != all[count - 1]) {
+                all[count++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, count);
+    }
+
+    private static OrdinalBitmap keep(OrdinalBitmap filtered, int[] matches) {
+        OrdinalBitmap hits = new OrdinalBitmap();
+        for (int ordinal : matches) {
+            if (filtered.contains(ordinal)) {
+                hits.add(ordinal);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Every query term with the indexed terms within its allowed edits, or null when no term has any.
+     * Expansion stops at the fuzzy budget, or earlier when the request's own deadline comes first.
+     */
+    private List<List<Postings>> expand(Set<String> terms) {
+        long budget = properties.getFuzzyBudget().toNanos();
+        Optional<RequestDeadline> request = RequestDeadline.current();
+        if (request.isPresent()) {
+            budget = Math.min(budget, request.get().remaining().toNanos());
+        }
+        long deadline = System.nanoTime() + budget;
+
+        boolean expanded = false;
+        List<List<Postings>> groups = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            List<Postings> group = new ArrayList<>();
+            if (postings.containsKey(term)) {
+                group.add(postings.get(term));
+            }
+            int edits = FuzzyTermIndex.allowedEdits(term, properties.getFuzzyMaxEdits());
+            for (String similar : fuzzyTerms.similar(term, edits, properties.getFuzzyMaxExpansions(), deadline,
+                    candidate -> postings.get(candidate).size())) {
+                group.add(postings.get(similar));
+                expanded = true;
+            }
+            groups.add(group);
+        }
+        return expanded ? groups : null;
+    }
+
+    private void unindex(int ordinal, ProductDocument document) {
+        facets.remove(ordinal, document);
+        fieldLengths.remove(ordinal);
+        for (String term : terms(document, new int[FieldLengths.FIELDS]).keySet()) {
+            Postings list = postings.get(term);
+            if (list != null) {
+                list.remove(ordinal);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                    fuzzyTerms.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Distinct terms of the name, SKU, description and translations, with their frequencies in each field
+     * packed as {@link Postings} keeps them. The SKU is also indexed whole, without its separators, so
+     * "SKU-00123" is found as "sku00123" too.
+     *
+     * @param lengths Receives the number of terms in each field
+     */
+    private static Map<String, Integer> terms(ProductDocument document, int[] lengths) {
+        Map<String, int[]> frequencies = new LinkedHashMap<>();
+        count(frequencies, lengths, FieldLengths.NAME, TextAnalyzer.tokenize(document.name()));
+        List<String> skuTerms = TextAnalyzer.tokenize(document.sku());
+        count(frequencies, lengths, FieldLengths.SKU, skuTerms);
+        if (skuTerms.size() > 1) {
+            frequencies.computeIfAbsent(String.join("", skuTerms), term -> new int[FieldLengths.FIELDS])[FieldLengths.SKU]++;
+        }
+        count(frequencies, lengths, FieldLengths.DESCRIPTION, TextAnalyzer.tokenize(document.description()));
+        count(frequencies, lengths, FieldLengths.TRANSLATIONS, TextAnalyzer.tokenize(document.translations()));
+
+        Map<String, Integer> packed = new LinkedHashMap<>();
+        frequencies.forEach((term, byField) -> packed.put(term, FieldLengths.pack(byField)));
+        return packed;
+    }
+
+    private static void count(Map<String, int[]> frequencies, int[] lengths, int field, List<String> terms) {
+        for (String term : terms) {
+            frequencies.computeIfAbsent(term, key -> new int[FieldLengths.FIELDS])[field]++;
+        }
+        lengths[field] = terms.size();
+    }
+}
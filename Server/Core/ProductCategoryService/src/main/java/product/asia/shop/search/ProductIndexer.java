@@ -0,0 +1,308 @@
+package product.asia.shop.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.config.SearchProperties;
+import product.asia.shop.entities.AttributesEntity;
+import product.asia.shop.entities.ProductAttributeValuesEntity;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.entities.TranslationsEntity;
+import product.asia.shop.repository.AttributeRepository;
+import product.asia.shop.repository.ProductAttributeValueRepository;
+import product.asia.shop.repository.TranslationRepository;
+import product.asia.shop.repository.base.CursorPage;
+import product.asia.shop.repository.base.GenericRepository;
+import product.asia.shop.repository.base.Projection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link ProductIndex} in line with the products table. The index is built in the background once
+ * the application is ready, then catches up every {@code refresh-interval} with the products whose
+ * {@code updated_at} moved, or whose attribute values or translations did, which covers changes made by other instances and
+ * bulk soft deletes. Writes made through this instance refresh the products they touched right after commit.
+ */
+@Component
+@EnableConfigurationProperties(SearchProperties.class)
+public class ProductIndexer implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexer.class);
+
+    private static final Projection<ProductsEntity, Object[]> INDEXED_COLUMNS = Projection.columns(
+            "id", "SKU", "name", "description", "shopId", "categoryId", "status", "createdAt", "updatedAt", "isDeleted");
+    private static final Projection<ProductAttributeValuesEntity, Object[]> VALUE_COLUMNS = Projection.columns(
+            "productId", "attributeId", "valueString", "valueNumber", "valueBoolean", "valueDate", "valueOptionsId");
+    private static final Projection<TranslationsEntity, Object[]> TRANSLATION_COLUMNS = Projection.columns(
+            "entityId", "translation");
+
+    @Autowired
+    private SearchProperties properties;
+    @Autowired
+    private ProductIndex productIndex;
+    @Autowired
+    private GenericRepository<ProductsEntity, UUID> productRepository;
+    @Autowired
+    private ProductAttributeValueRepository productAttributeValueRepository;
+    @Autowired
+    private AttributeRepository attributeRepository;
+    @Autowired
+    private TranslationRepository translationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+    private ScheduledExecutorService executor;
+    // Newest updated_at indexed so far, only touched by the executor thread
+    private LocalDateTime watermark;
+
+    @Override
+    public void afterPropertiesSet() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        executor.execute(this::build);
+        long interval = properties.getRefreshInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::catchUp, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Refresh the given products once the current transaction commits, or now outside of one
+     */
+    public void refreshAfterCommit(Collection<UUID> ids) {
+        if (!properties.isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        List<UUID> copy = List.copyOf(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(() -> refresh(copy));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                executor.execute(() -> refresh(copy));
+            }
+        });
+    }
+
+    /**
+     * Index every live product, in id order
+     */
+    void build() {
+        long start = System.currentTimeMillis();
+        watermark = LocalDateTime.now();
+        try {
+            loadFilterableAttributes();
+            String cursor = "";
+            while (cursor != null) {
+                String after = cursor;
+                cursor = readOnly.execute(status -> {
+                    CursorPage<Object[]> rows = productRepository.findAllAfter(null, after, Sort.by("id"),
+                            properties.getLoadBatchSize(), INDEXED_COLUMNS);
+                    List<Object[]> content = rows.getContent();
+                    if (!content.isEmpty()) {
+                        // The batch is in id order: its values are one range of the product key, not a long IN list
+                        UUID first = (UUID) content.get(0)[0];
+                        UUID last = (UUID) content.get(content.size() - 1)[0];
+                        apply(content, (productId, cb) -> cb.between(productId, first, last));
+                    }
+                    return rows.getNextCursor();
+                });
+            }
+            productIndex.markReady();
+            logger.info("Indexed {} products for search in {} ms", productIndex.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Building the product search index failed, search stays on the database", e);
+        }
+    }
+
+    /**
+     * Apply the products changed since the watermark, deleted ones included, then refresh those whose
+     * attribute values or translations changed
+     */
+    void catchUp() {
+        if (!productIndex.isReady()) {
+            return;
+        }
+        try {
+            loadFilterableAttributes();
+            LocalDateTime since = watermark.minus(properties.getRefreshOverlap());
+            Specification<ProductsEntity> changed = (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("updatedAt"), since);
+            String cursor = "";
+            int applied = 0;
+            while (cursor != null) {
+                String after = cursor;
+                CursorPage<Object[]> rows = readOnly.execute(status -> productRepository.withDeleted(() ->
+                        productRepository.findAllAfter(changed, after, Sort.by("updatedAt"), properties.getLoadBatchSize(),
+                                INDEXED_COLUMNS)));
+                applied += readOnly.execute(status -> apply(rows.getContent(), ofProducts(rows.getContent())));
+                for (Object[] row : rows.getContent()) {
+                    LocalDateTime updatedAt = (LocalDateTime) row[8];
+                    if (updatedAt.isAfter(watermark)) {
+                        watermark = updatedAt;
+                    }
+                }
+                cursor = rows.getNextCursor();
+            }
+
+            Specification<ProductAttributeValuesEntity> changedValues = (root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("updatedAt"), since);
+            Specification<TranslationsEntity> changedTranslations = (root, query, cb) -> cb.and(
+                    cb.equal(root.get("entityType"), TranslationsEntity.ENTITY_TYPE_PRODUCT),
+                    cb.greaterThanOrEqualTo(root.get("updatedAt"), since));
+            List<Object[]> changes = readOnly.execute(status -> {
+                List<Object[]> rows = new ArrayList<>(productAttributeValueRepository.withDeleted(() ->
+                        productAttributeValueRepository.findAll(changedValues, Sort.unsorted(),
+                                Projection.columns("productId", "updatedAt"))));
+                rows.addAll(translationRepository.withDeleted(() -> translationRepository.findAll(changedTranslations,
+                        Sort.unsorted(), Projection.columns("entityId", "updatedAt"))));
+                return rows;
+            });
+            Set<UUID> products = new HashSet<>();
+            for (Object[] change : changes) {
+                products.add((UUID) change[0]);
+                LocalDateTime updatedAt = (LocalDateTime) change[1];
+                if (updatedAt.isAfter(watermark)) {
+                    watermark = updatedAt;
+                }
+            }
+            if (!products.isEmpty()) {
+                refresh(List.copyOf(products));
+            }
+            if (applied > 0) {
+                logger.debug("Applied {} product changes to the search index", applied);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Catching up the product search index failed, retrying in {}", properties.getRefreshInterval(), e);
+        }
+    }
+
+    /**
+     * Re-read the given products; those no longer found were archived and leave the index
+     */
+    void refresh(List<UUID> ids) {
+        try {
+            Set<UUID> missing = new HashSet<>(ids);
+            readOnly.executeWithoutResult(status -> {
+                List<Object[]> rows = productRepository.withDeleted(() -> productRepository.findAll(
+                        (root, query, cb) -> root.get("id").in(ids), Sort.unsorted(), INDEXED_COLUMNS));
+                rows.forEach(row -> missing.remove((UUID) row[0]));
+                apply(rows, ofProducts(rows));
+            });
+            missing.forEach(productIndex::remove);
+        } catch (RuntimeException e) {
+            logger.warn("Refreshing {} products in the search index failed, the next catch-up applies them", ids.size(), e);
+        }
+    }
+
+    /**
+     * Index the given product rows with their live attribute values and translations, or drop them when deleted
+     *
+     * @param products Restriction to at least the live products among the rows, on a product id column
+     * @return Number of products whose index entry changed
+     */
+    private int apply(List<Object[]> rows, ProductFilter products) {
+        Map<UUID, Map<UUID, Set<String>>> attributes = new HashMap<>();
+        Map<UUID, StringBuilder> translations = new HashMap<>();
+        if (rows.stream().anyMatch(row -> !Boolean.TRUE.equals(row[9]))) {
+            Specification<ProductAttributeValuesEntity> values = (root, query, cb) ->
+                    products.on(root.get("productId"), cb);
+            for (Object[] value : productAttributeValueRepository.findAll(values, Sort.unsorted(), VALUE_COLUMNS)) {
+                // A value is stored in the one column of its attribute's data type
+                String key = null;
+                for (int column = 2; column < value.length && key == null; column++) {
+                    key = FacetIndex.valueKey(value[column]);
+                }
+                if (key != null) {
+                    attributes.computeIfAbsent((UUID) value[0], product -> new HashMap<>())
+                            .computeIfAbsent((UUID) value[1], attribute -> new HashSet<>())
+                            .add(key);
+                }
+            }
+
+            // In id order, so an unchanged product reads back the same text and is not reindexed
+            Specification<TranslationsEntity> translated = (root, query, cb) -> cb.and(
+                    cb.equal(root.get("entityType"), TranslationsEntity.ENTITY_TYPE_PRODUCT),
+                    products.on(root.get("entityId"), cb));
+            for (Object[] translation : translationRepository.findAll(translated, Sort.by("id"), TRANSLATION_COLUMNS)) {
+                StringBuilder text = translations.computeIfAbsent((UUID) translation[0], product -> new StringBuilder());
+                text.append(text.isEmpty() ? "" : " ").append((String) translation[1]);
+            }
+        }
+
+        int applied = 0;
+        for (Object[] row : rows) {
+            UUID id = (UUID) row[0];
+            StringBuilder translation = translations.get(id);
+            boolean changed = Boolean.TRUE.equals(row[9]) ? productIndex.remove(id)
+                    : productIndex.index(new ProductDocument(id, (String) row[1], (String) row[2], (String) row[3],
+                    (UUID) row[4], (UUID) row[5], (String) row[6], (LocalDateTime) row[7], (LocalDateTime) row[8],
+                    translation != null ? translation.toString() : null, attributes.getOrDefault(id, Map.of())));
+            applied += changed ? 1 : 0;
+        }
+        return applied;
+    }
+
+    private static ProductFilter ofProducts(List<Object[]> rows) {
+        List<UUID> ids = rows.stream().map(row -> (UUID) row[0]).toList();
+        return (productId, cb) -> productId.in(ids);
+    }
+
+    private void loadFilterableAttributes() {
+        Specification<AttributesEntity> filterable = (root, query, cb) -> cb.isTrue(root.get("isFilterable"));
+        List<Object[]> rows = readOnly.execute(status -> attributeRepository.findAll(filterable, Sort.unsorted(),
+                Projection.columns("id")));
+        productIndex.setFilterableAttributes(rows.stream().map(row -> (UUID) row[0]).toList());
+    }
+
+    /**
+     * Restriction of rows referencing products, by the column holding the product id
+     */
+    private interface ProductFilter {
+
+        Predicate on(Expression<UUID> productId, CriteriaBuilder cb);
+    }
+}
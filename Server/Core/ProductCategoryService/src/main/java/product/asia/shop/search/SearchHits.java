@@ -0,0 +1,16 @@
+package product.asia.shop.search;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One page of search results
+ *
+ * @param total  Products matching the search
+ * @param ids    Ids of the requested page, in result order
+ * @param facets Matching products per value of each filterable attribute, by attribute id
+ * @param fuzzy  Whether query terms were expanded to similar words, too few products matching them exactly
+ */
+public record SearchHits(long total, List<UUID> ids, Map<UUID, Map<String, Long>> facets, boolean fuzzy) {
+}
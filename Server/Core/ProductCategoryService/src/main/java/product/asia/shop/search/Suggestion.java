@@ -0,0 +1,18 @@
+package product.asia.shop.search;
+
+import java.util.UUID;
+
+/**
+ * One autosuggest entry
+ *
+ * @param type   {@link #TYPE_KEYWORD}, {@link #TYPE_CATEGORY} or {@link #TYPE_PRODUCT}
+ * @param id     Category or product id, null for keywords
+ * @param text   Text shown, in the requested locale where translated
+ * @param weight Live products behind the entry: per keyword, per category, 1 for a product
+ */
+public record Suggestion(String type, UUID id, String text, long weight) {
+
+    public static final String TYPE_KEYWORD = "keyword";
+    public static final String TYPE_CATEGORY = "category";
+    public static final String TYPE_PRODUCT = "product";
+}
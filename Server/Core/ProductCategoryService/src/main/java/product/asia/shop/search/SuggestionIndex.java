@@ -0,0 +1,47 @@
+package product.asia.shop.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autosuggest tries, one per locale with translated names and one with the names as stored. They are
+ * rebuilt as a whole by {@link SuggestionIndexer} and swapped in at once, so lookups take no lock.
+ */
+@Component
+public class SuggestionIndex {
+
+    private record Tries(SuggestionTrie untranslated, Map<String, SuggestionTrie> byLocale) {
+    }
+
+    private volatile Tries tries;
+
+    /**
+     * Whether the first build is complete; until then there are no suggestions
+     */
+    public boolean isReady() {
+        return tries != null;
+    }
+
+    void replace(SuggestionTrie untranslated, Map<String, SuggestionTrie> byLocale) {
+        tries = new Tries(untranslated, Map.copyOf(byLocale));
+    }
+
+    /**
+     * Best suggestions starting with the query, or with one of its first words, in the locale's trie, or
+     * the untranslated one for a locale without translations
+     */
+    public List<Suggestion> suggest(String query, String locale, int limit) {
+        Tries current = tries;
+        if (current == null || query == null) {
+            return List.of();
+        }
+        String prefix = SuggestionTrie.key(query, !query.isEmpty() && Character.isWhitespace(query.charAt(query.length() - 1)));
+        if (prefix.isBlank()) {
+            return List.of();
+        }
+        SuggestionTrie trie = locale == null ? null : current.byLocale().get(locale);
+        return (trie != null ? trie : current.untranslated()).lookup(prefix, limit);
+    }
+}
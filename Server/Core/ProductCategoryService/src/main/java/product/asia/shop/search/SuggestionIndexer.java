@@ -0,0 +1,227 @@
+package product.asia.shop.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.config.SearchProperties;
+import product.asia.shop.entities.CategoriesEntity;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.entities.TranslationsEntity;
+import product.asia.shop.repository.CategoryRepository;
+import product.asia.shop.repository.ProductRepository;
+import product.asia.shop.repository.TranslationRepository;
+import product.asia.shop.repository.base.CursorPage;
+import product.asia.shop.repository.base.Projection;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the {@link SuggestionIndex} every {@code suggest-rebuild-interval} from the live products and
+ * categories and the translations of their names. Weights count live products: a category weighs the
+ * products in it, a keyword (a word or pair of words of product names) the products named with it, and a
+ * product 1.
+ */
+@Component
+@EnableConfigurationProperties(SearchProperties.class)
+public class SuggestionIndexer implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndexer.class);
+
+    private static final Projection<ProductsEntity, Object[]> PRODUCT_COLUMNS = Projection.columns("id", "name", "categoryId");
+    private static final Projection<CategoriesEntity, Object[]> CATEGORY_COLUMNS = Projection.columns("id", "name");
+    private static final Projection<TranslationsEntity, Object[]> TRANSLATION_COLUMNS = Projection.columns(
+            "locale", "entityType", "entityId", "translation");
+
+    // Keywords of a single product are noise rather than suggestions
+    private static final int MIN_KEYWORD_PRODUCTS = 2;
+
+    @Autowired
+    private SearchProperties properties;
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private TranslationRepository translationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggestion-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long interval = properties.getSuggestRebuildInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::rebuild, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Read the names and build every trie; the previous tries keep serving until all are built
+     */
+    void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<UUID, String> categories = new HashMap<>();
+            readOnly.execute(status -> categoryRepository.findAll(null, Sort.unsorted(), CATEGORY_COLUMNS))
+                    .forEach(row -> categories.put((UUID) row[0], (String) row[1]));
+
+            Map<UUID, String> products = new HashMap<>();
+            Map<UUID, Long> productsPerCategory = new HashMap<>();
+            String cursor = "";
+            while (cursor != null) {
+                String after = cursor;
+                CursorPage<Object[]> rows = readOnly.execute(status -> productRepository.findAllAfter(null, after,
+                        Sort.by("id"), properties.getLoadBatchSize(), PRODUCT_COLUMNS));
+                for (Object[] row : rows.getContent()) {
+                    products.put((UUID) row[0], (String) row[1]);
+                    productsPerCategory.merge((UUID) row[2], 1L, Long::sum);
+                }
+                cursor = rows.getNextCursor();
+            }
+
+            // locale -> entity type -> entity id -> translated name
+            Map<String, Map<String, Map<UUID, String>>> translations = new HashMap<>();
+            Specification<TranslationsEntity> names = (root, query, cb) -> cb.and(
+                    cb.equal(root.get("field"), TranslationsEntity.FIELD_NAME),
+                    root.get("entityType").in(TranslationsEntity.ENTITY_TYPE_PRODUCT, TranslationsEntity.ENTITY_TYPE_CATEGORY));
+            for (Object[] row : readOnly.execute(status -> translationRepository.findAll(names, Sort.unsorted(),
+                    TRANSLATION_COLUMNS))) {
+                translations.computeIfAbsent((String) row[0], locale -> new HashMap<>())
+                        .computeIfAbsent((String) row[1], type -> new HashMap<>())
+                        .put((UUID) row[2], (String) row[3]);
+            }
+
+            SuggestionTrie untranslated = build(products, categories, productsPerCategory, Map.of());
+            Map<String, SuggestionTrie> byLocale = new HashMap<>();
+            translations.forEach((locale, byType) ->
+                    byLocale.put(locale, build(products, categories, productsPerCategory, byType)));
+            suggestionIndex.replace(untranslated, byLocale);
+            logger.info("Built autosuggest for {} suggestions and {} locales in {} ms", untranslated.size(),
+                    byLocale.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.warn("Building autosuggest failed, retrying in {}", properties.getSuggestRebuildInterval(), e);
+        }
+    }
+
+    /**
+     * Trie showing the translated name where there is one; the stored name still finds the entry
+     */
+    private SuggestionTrie build(Map<UUID, String> products, Map<UUID, String> categories,
+                                 Map<UUID, Long> productsPerCategory, Map<String, Map<UUID, String>> translated) {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder();
+        Map<UUID, String> productNames = translated.getOrDefault(TranslationsEntity.ENTITY_TYPE_PRODUCT, Map.of());
+        Map<UUID, String> categoryNames = translated.getOrDefault(TranslationsEntity.ENTITY_TYPE_CATEGORY, Map.of());
+
+        // folded keyword -> shown keyword and its product count
+        Map<String, Keyword> keywords = new HashMap<>();
+        products.forEach((id, name) -> {
+            String translation = productNames.get(id);
+            String text = translation != null ? translation : name;
+            builder.add(new Suggestion(Suggestion.TYPE_PRODUCT, id, text, 1), name, translation);
+            collectKeywords(text, keywords);
+        });
+        categories.forEach((id, name) -> {
+            String translation = categoryNames.get(id);
+            builder.add(new Suggestion(Suggestion.TYPE_CATEGORY, id, translation != null ? translation : name,
+                    productsPerCategory.getOrDefault(id, 0L)), name, translation);
+        });
+        keywords.values().forEach(keyword -> {
+            if (keyword.products >= MIN_KEYWORD_PRODUCTS) {
+                builder.add(new Suggestion(Suggestion.TYPE_KEYWORD, null, keyword.text, keyword.products), keyword.text);
+            }
+        });
+        return builder.build(properties.getSuggestTopK());
+    }
+
+    /**
+     * Count the words and adjacent word pairs of a name, once per name, shown as first seen
+     */
+    private static void collectKeywords(String name, Map<String, Keyword> keywords) {
+        List<String> words = words(name);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            count(words.get(i), seen, keywords);
+            if (i + 1 < words.size()) {
+                count(words.get(i) + " " + words.get(i + 1), seen, keywords);
+            }
+        }
+    }
+
+    private static void count(String text, Set<String> seen, Map<String, Keyword> keywords) {
+        String key = TextAnalyzer.fold(text);
+        if (key.length() > 1 && seen.add(key)) {
+            keywords.computeIfAbsent(key, folded -> new Keyword(text)).products++;
+        }
+    }
+
+    /**
+     * Runs of letters and digits as written, accents included
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String composed = Normalizer.normalize(text, Normalizer.Form.NFC);
+        int start = -1;
+        for (int i = 0; i <= composed.length(); i++) {
+            boolean wordChar = i < composed.length() && (Character.isLetterOrDigit(composed.charAt(i))
+                    || Character.getType(composed.charAt(i)) == Character.NON_SPACING_MARK);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(composed.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static final class Keyword {
+
+        private final String text;
+        private long products;
+
+        Keyword(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package product.asia.shop.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable radix trie from folded prefixes to the best suggestions starting with them.
+ * <p>
+ * Suggestions are ranked once, by weight then text, and every node keeps the ranks of the top {@code k}
+ * suggestions below it, so a lookup walks the characters of the prefix and copies at most {@code k} entries,
+ * however many products share the prefix. Nodes, edge labels and top lists live in flat arrays.
+ */
+final class SuggestionTrie {
+
+    /**
+     * Keys, and prefixes looked up, are cut to this many characters
+     */
+    static final int MAX_KEY_LENGTH = 50;
+
+    /**
+     * A name is also found from each of its first words, "thoai" finding "Điện thoại Samsung"
+     */
+    private static final int MAX_KEY_WORDS = 4;
+
+    private final Suggestion[] suggestions;
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] childStart;
+    private final int[] childCount;
+    private final char[] childFirst;
+    private final int[] children;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private SuggestionTrie(Suggestion[] suggestions, Nodes nodes) {
+        this.suggestions = suggestions;
+        this.labels = nodes.labels.toString().toCharArray();
+        this.labelStart = nodes.labelStart.toArray();
+        this.labelLength = nodes.labelLength.toArray();
+        this.childStart = nodes.childStart.toArray();
+        this.childCount = nodes.childCount.toArray();
+        this.childFirst = nodes.childFirst.toString().toCharArray();
+        this.children = nodes.children.toArray();
+        this.topStart = nodes.topStart.toArray();
+        this.topCount = nodes.topCount.toArray();
+        this.top = nodes.top.toArray();
+    }
+
+    /**
+     * The form keys are stored in: folded terms separated by one space. A query ending in a space only
+     * matches its last term as a whole word.
+     */
+    static String key(String text, boolean wholeLastWord) {
+        String key = String.join(" ", TextAnalyzer.tokenize(text));
+        if (wholeLastWord && !key.isEmpty()) {
+            key += ' ';
+        }
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Number of suggestions indexed
+     */
+    int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Best suggestions whose key starts with {@code prefix}, already in {@link #key} form, best first
+     */
+    List<Suggestion> lookup(String prefix, int limit) {
+        int node = 0;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = child(node, prefix.charAt(i));
+            if (node < 0) {
+                return List.of();
+            }
+            int start = labelStart[node];
+            int end = start + labelLength[node];
+            for (int j = start; j < end && i < prefix.length(); j++, i++) {
+                if (labels[j] != prefix.charAt(i)) {
+                    return List.of();
+                }
+            }
+        }
+        int count = Math.min(limit, topCount[node]);
+        List<Suggestion> result = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            result.add(suggestions[top[topStart[node] + j]]);
+        }
+        return result;
+    }
+
+    private int child(int node, char c) {
+        int from = childStart[node];
+        int index = Arrays.binarySearch(childFirst, from, from + childCount[node], c);
+        return index >= 0 ? children[index] : -1;
+    }
+
+    /**
+     * Collects suggestions with the names they are found by, then ranks them and builds the trie
+     */
+    static final class Builder {
+
+        private final List<Suggestion> suggestions = new ArrayList<>();
+        private final List<Set<String>> keys = new ArrayList<>();
+
+        /**
+         * Add a suggestion found by a prefix of any of the names, or of their first words; null names are skipped
+         */
+        Builder add(Suggestion suggestion, String... names) {
+            Set<String> nameKeys = new LinkedHashSet<>();
+            for (String name : names) {
+                if (name == null) {
+                    continue;
+                }
+                List<String> terms = TextAnalyzer.tokenize(name);
+                for (int i = 0; i < Math.min(terms.size(), MAX_KEY_WORDS); i++) {
+                    String key = String.join(" ", terms.subList(i, terms.size()));
+                    nameKeys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+                }
+            }
+            if (!nameKeys.isEmpty()) {
+                suggestions.add(suggestion);
+                keys.add(nameKeys);
+            }
+            return this;
+        }
+
+        SuggestionTrie build(int topK) {
+            Integer[] order = new Integer[suggestions.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -suggestions.get(i).weight())
+                    .thenComparing(i -> suggestions.get(i).text(), String.CASE_INSENSITIVE_ORDER));
+
+            // Suggestions in rank order, and every key paired with its suggestion's rank
+            Suggestion[] ranked = new Suggestion[order.length];
+            List<Entry> entries = new ArrayList<>();
+            for (int rank = 0; rank < order.length; rank++) {
+                ranked[rank] = suggestions.get(order[rank]);
+                for (String key : keys.get(order[rank])) {
+                    entries.add(new Entry(key, rank));
+                }
+            }
+            entries.sort(Comparator.comparing(Entry::key).thenComparingInt(Entry::rank));
+
+            Nodes nodes = new Nodes(entries, topK);
+            nodes.node(0, entries.size(), 0, 0);
+            return new SuggestionTrie(ranked, nodes);
+        }
+    }
+
+    private record Entry(String key, int rank) {
+    }
+
+    /**
+     * The trie under construction, built depth-first over the sorted keys
+     */
+    private static final class Nodes {
+
+        private final List<Entry> entries;
+        private final int topK;
+        private final StringBuilder labels = new StringBuilder();
+        private final IntArray labelStart = new IntArray();
+        private final IntArray labelLength = new IntArray();
+        private final IntArray childStart = new IntArray();
+        private final IntArray childCount = new IntArray();
+        private final StringBuilder childFirst = new StringBuilder();
+        private final IntArray children = new IntArray();
+        private final IntArray topStart = new IntArray();
+        private final IntArray topCount = new IntArray();
+        private final IntArray top = new IntArray();
+
+        Nodes(List<Entry> entries, int topK) {
+            this.entries = entries;
+            this.topK = topK;
+        }
+
+        /**
+         * Node for the entries in [from, to), which share their first {@code depth} characters, reached by the
+         * edge label starting at {@code labelFrom} in their keys
+         */
+        int node(int from, int to, int labelFrom, int depth) {
+            int node = labelStart.size();
+            labelStart.add(labels.length());
+            labelLength.add(depth - labelFrom);
+            if (from < to) {
+                labels.append(entries.get(from).key(), labelFrom, depth);
+            }
+            childStart.add(0);
+            childCount.add(0);
+            topStart.add(0);
+            topCount.add(0);
+
+            // Keys ending here sort first, already in rank order
+            IntArray candidates = new IntArray();
+            int i = from;
+            while (i < to && entries.get(i).key().length() == depth) {
+                if (candidates.size() < topK) {
+                    candidates.add(entries.get(i).rank());
+                }
+                i++;
+            }
+            IntArray nodeChildren = new IntArray();
+            StringBuilder firsts = new StringBuilder();
+            while (i < to) {
+                char c = entries.get(i).key().charAt(depth);
+                int j = i + 1;
+                while (j < to && entries.get(j).key().charAt(depth) == c) {
+                    j++;
+                }
+                int child = node(i, j, depth, commonPrefix(entries.get(i).key(), entries.get(j - 1).key(), depth));
+                nodeChildren.add(child);
+                firsts.append(c);
+                for (int k = 0; k < topCount.get(child); k++) {
+                    candidates.add(top.get(topStart.get(child) + k));
+                }
+                i = j;
+            }
+
+            childStart.set(node, children.size());
+            childCount.set(node, nodeChildren.size());
+            for (int k = 0; k < nodeChildren.size(); k++) {
+                children.add(nodeChildren.get(k));
+            }
+            childFirst.append(firsts);
+
+            // A suggestion found by several keys below this node is kept once
+            int[] ranks = candidates.toArray();
+            Arrays.sort(ranks);
+            topStart.set(node, top.size());
+            int count = 0;
+            for (int k = 0; k < ranks.length && count < topK; k++) {
+                if (k == 0 || ranks[k] != ranks[k - 1]) {
+                    top.add(ranks[k]);
+                    count++;
+                }
+            }
+            topCount.set(node, count);
+            return node;
+        }
+
+        private static int commonPrefix(String first, String last, int from) {
+            int length = Math.min(first.length(), last.length());
+            int i = from;
+            while (i < length && first.charAt(i) == last.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    private static final class IntArray {
+
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
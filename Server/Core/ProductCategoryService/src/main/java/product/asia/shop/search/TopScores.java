@@ -0,0 +1,91 @@
+package product.asia.shop.search;
+
+import java.util.Arrays;
+
+/**
+ * The {@code k} best-scoring ordinals seen, in a min-heap of primitives: offering a document that does not
+ * make the cut costs one comparison and no allocation. Equal scores favour the lower ordinal, so results
+ * are stable between pages.
+ */
+final class TopScores {
+
+    private final float[] scores;
+    private final int[] ordinals;
+    private int size;
+
+    TopScores(int k) {
+        scores = new float[k];
+        ordinals = new int[k];
+    }
+
+    void offer(float score, int ordinal) {
+        if (size < scores.length) {
+            scores[size] = score;
+            ordinals[size] = ordinal;
+            siftUp(size++);
+        } else if (size > 0 && worse(0, score, ordinal)) {
+            scores[0] = score;
+            ordinals[0] = ordinal;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Ordinals kept, best first
+     */
+    int[] ordinalsBestFirst() {
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a])
+                : Integer.compare(ordinals[a], ordinals[b]));
+        int[] best = new int[size];
+        for (int i = 0; i < size; i++) {
+            best[i] = ordinals[order[i]];
+        }
+        return best;
+    }
+
+    // Whether the entry at index ranks below the given score and ordinal
+    private boolean worse(int index, float score, int ordinal) {
+        return scores[index] < score || (scores[index] == score && ordinals[index] > ordinal);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!worse(index, scores[parent], ordinals[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && worse(left, scores[worst], ordinals[worst])) {
+                worst = left;
+            }
+            if (right < size && worse(right, scores[worst], ordinals[worst])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        int ordinal = ordinals[a];
+        ordinals[a] = ordinals[b];
+        ordinals[b] = ordinal;
+    }
+}
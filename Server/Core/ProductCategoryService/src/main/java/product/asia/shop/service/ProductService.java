@@ -8,15 +8,17 @@ import java.util.UUID;
 public interface ProductService {
     
     // Product CRUD Operations
-    PageResponseDto<ProductResponseDto> getAllProducts(Integer page, Integer size, String sortBy, String sortDirection, String locale);
+    PageResponseDto<ProductResponseDto> getAllProducts(Integer page, Integer size, String sortBy, String sortDirection, String cursor,
+                                                       PageResponseDto.TotalType totalType, String locale);
     ProductResponseDto getProductById(UUID id, String locale);
     ProductResponseDto createProduct(ProductRequestDto request);
     ProductResponseDto updateProduct(UUID id, ProductRequestDto request);
     void deleteProduct(UUID id);
-    ProductResponseDto updateProductStatus(UUID id, String status);
+    SoftDeleteResultDto deleteProducts(List<UUID> ids);
+    ProductResponseDto updateProductStatus(UUID id, String status, Long version);
     
     // Product Search & Filtering
-    PageResponseDto<ProductResponseDto> searchProducts(ProductSearchRequestDto searchRequest);
+    ProductSearchResponseDto searchProducts(ProductSearchRequestDto searchRequest);
     PageResponseDto<ProductResponseDto> getProductsByCategory(UUID categoryId, Integer page, Integer size, String locale);
     PageResponseDto<ProductResponseDto> getProductsByShop(UUID shopId, Integer page, Integer size, String locale);
     
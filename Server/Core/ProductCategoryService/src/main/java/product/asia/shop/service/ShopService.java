@@ -8,7 +8,7 @@ import java.util.UUID;
 public interface ShopService {
     
     // Shop CRUD
-    PageResponseDto<ShopResponseDto> getAllShops(Integer page, Integer size, String locale);
+    PageResponseDto<ShopResponseDto> getAllShops(Integer page, Integer size, String cursor, String locale);
     ShopResponseDto getShopById(UUID id, String locale);
     ShopResponseDto createShop(ShopRequestDto request);
     ShopResponseDto updateShop(UUID id, ShopRequestDto request);
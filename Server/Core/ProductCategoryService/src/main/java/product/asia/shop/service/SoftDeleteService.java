@@ -0,0 +1,21 @@
+package product.asia.shop.service;
+
+import product.asia.shop.dto.SoftDeleteResultDto;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Set-based soft delete of aggregates together with their dependent rows
+ */
+public interface SoftDeleteService {
+
+    // Products with their variants, images, attribute values, pricing, inventory and translations
+    SoftDeleteResultDto deleteProducts(Collection<UUID> productIds);
+
+    // Shops with their products (cascaded as above) and translations
+    SoftDeleteResultDto deleteShops(Collection<UUID> shopIds);
+
+    // Categories with their descendants, attribute links and translations; refused while live products use them
+    SoftDeleteResultDto deleteCategories(Collection<UUID> categoryIds);
+}
@@ -0,0 +1,11 @@
+package product.asia.shop.service;
+
+import product.asia.shop.dto.*;
+
+import java.util.List;
+
+public interface SuggestService {
+
+    // Autosuggest: keywords, categories and products starting with the query
+    List<SuggestionDto> suggest(String query, Integer limit, String locale);
+}
@@ -8,7 +8,7 @@ import java.util.UUID;
 public interface TranslationService {
     
     // Translation CRUD
-    PageResponseDto<TranslationResponseDto> getAllTranslations(Integer page, Integer size, String entityType, String locale);
+    PageResponseDto<TranslationResponseDto> getAllTranslations(Integer page, Integer size, String entityType, String cursor, String locale);
     List<TranslationResponseDto> getEntityTranslations(String entityType, UUID entityId, String locale);
     TranslationResponseDto getTranslationById(UUID id);
     TranslationResponseDto createTranslation(TranslationRequestDto request);
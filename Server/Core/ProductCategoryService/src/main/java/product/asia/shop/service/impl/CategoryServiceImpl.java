@@ -9,6 +9,7 @@ import product.asia.shop.entities.CategoriesEntity;
 import product.asia.shop.exception.EntityNotFoundException;
 import product.asia.shop.repository.base.GenericRepository;
 import product.asia.shop.service.CategoryService;
+import product.asia.shop.service.SoftDeleteService;
 
 import java.util.List;
 import java.util.UUID;
@@ -18,10 +19,13 @@ import java.util.UUID;
 public class CategoryServiceImpl implements CategoryService {
 
     private final GenericRepository<CategoriesEntity, UUID> categoryRepository;
+    private final SoftDeleteService softDeleteService;
 
     @Autowired
-    public CategoryServiceImpl(GenericRepository<CategoriesEntity, UUID> categoryRepository) {
+    public CategoryServiceImpl(GenericRepository<CategoriesEntity, UUID> categoryRepository,
+                               SoftDeleteService softDeleteService) {
         this.categoryRepository = categoryRepository;
+        this.softDeleteService = softDeleteService;
     }
 
     @Override
@@ -58,13 +62,12 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public void deleteCategory(UUID id) {
-        CategoriesEntity category = categoryRepository.findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
-        
-        // TODO: Check if category has children or products before deletion
-        // Soft delete
-        category.setIsDeleted(true);
-        categoryRepository.save(category);
+        if (!categoryRepository.existsById(id)) {
+            throw new EntityNotFoundException("Category not found with id: " + id);
+        }
+
+        // Soft delete with child categories, attribute links and translations; refused while products use them
+        softDeleteService.deleteCategories(List.of(id));
     }
 
     @Override
@@ -1,44 +1,134 @@
 package product.asia.shop.service.impl;
 
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import product.asia.shop.dto.*;
+import product.asia.shop.entities.AttributesEntity;
+import product.asia.shop.entities.ProductAttributeValuesEntity;
 import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.exception.AttributeException;
 import product.asia.shop.exception.EntityNotFoundException;
+import product.asia.shop.exception.ValidationException;
+import product.asia.shop.repository.AttributeRepository;
+import product.asia.shop.repository.ProductAttributeValueRepository;
+import product.asia.shop.repository.base.CountedFilter;
+import product.asia.shop.repository.base.CursorPage;
+import product.asia.shop.repository.base.FetchPlan;
 import product.asia.shop.repository.base.GenericRepository;
+import product.asia.shop.repository.base.Projection;
+import product.asia.shop.search.ProductIndex;
+import product.asia.shop.search.ProductIndexer;
+import product.asia.shop.search.SearchHits;
 import product.asia.shop.service.ProductService;
+import product.asia.shop.service.SoftDeleteService;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @Transactional
 public class ProductServiceImpl implements ProductService {
 
+    // Product responses carry the category and shop names
+    private static final FetchPlan PRODUCT_RESPONSE = FetchPlan.named(ProductsEntity.GRAPH_CATEGORY_AND_SHOP);
+    // List rows are selected as columns straight into the DTO, with the shop and category names joined in.
+    // Rows carry the stored names and descriptions, translations are not applied to them
+    private static final Projection<ProductsEntity, ProductResponseDto> PRODUCT_ROW = Projection.of(ProductResponseDto.class,
+        "id", "SKU", "name", "description", "status", "shopId", "shop.name", "categoryId", "category.name",
+        "createdAt", "updatedAt", "version");
+    private static final Specification<ProductsEntity> NOT_DELETED = (root, query, cb) -> cb.isFalse(root.get("isDeleted"));
+    private static final CountedFilter<ProductsEntity> NOT_DELETED_COUNT = CountedFilter.of("notDeleted", NOT_DELETED);
+    // Keyset pages seek past the last row's sort value, so only non-null columns can be sorted on with a cursor
+    private static final Set<String> KEYSET_SORTS = Set.of("id", "SKU", "name", "status", "createdAt", "updatedAt");
+    // Author of changes made outside an authenticated request
+    private static final String SYSTEM_USER = "system";
+
     private final GenericRepository<ProductsEntity, UUID> productRepository;
+    private final AttributeRepository attributeRepository;
+    private final ProductAttributeValueRepository productAttributeValueRepository;
+    private final SoftDeleteService softDeleteService;
+    private final ProductIndex productIndex;
+    private final ProductIndexer productIndexer;
 
     @Autowired
-    public ProductServiceImpl(GenericRepository<ProductsEntity, UUID> productRepository) {
+    public ProductServiceImpl(GenericRepository<ProductsEntity, UUID> productRepository,
+                              AttributeRepository attributeRepository,
+                              ProductAttributeValueRepository productAttributeValueRepository,
+                              SoftDeleteService softDeleteService,
+                              ProductIndex productIndex,
+                              ProductIndexer productIndexer) {
         this.productRepository = productRepository;
+        this.attributeRepository = attributeRepository;
+        this.productAttributeValueRepository = productAttributeValueRepository;
+        this.softDeleteService = softDeleteService;
+        this.productIndex = productIndex;
+        this.productIndexer = productIndexer;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponseDto<ProductResponseDto> getAllProducts(Integer page, Integer size, String sortBy, String sortDirection, String locale) {
-        // TODO: Implement pagination, sorting, and translation logic
-        throw new UnsupportedOperationException("Method not implemented yet");
+    public PageResponseDto<ProductResponseDto> getAllProducts(Integer page, Integer size, String sortBy, String sortDirection, String cursor,
+                                                              PageResponseDto.TotalType totalType, String locale) {
+        String sortProperty = sortBy != null ? sortBy : "createdAt";
+        if (cursor != null && !KEYSET_SORTS.contains(sortProperty)) {
+            throw new ValidationException("sortBy", "must be one of " + KEYSET_SORTS + " with a cursor");
+        }
+        Sort sort = Sort.by(Sort.Direction.fromOptionalString(sortDirection).orElse(Sort.Direction.DESC), sortProperty);
+
+        // A cursor (even an empty one for the first page) switches to keyset pagination
+        if (cursor != null) {
+            CursorPage<ProductResponseDto> products = productRepository.findAllAfter(NOT_DELETED, cursor, sort, size, PRODUCT_ROW);
+            return new PageResponseDto<>(products.getContent(), size, products.getNextCursor());
+        }
+
+        PageRequest pageRequest = PageRequest.of(page, size, sort);
+        switch (totalType) {
+            case OMITTED -> {
+                Slice<ProductResponseDto> products = productRepository.findSlice(NOT_DELETED, pageRequest, PRODUCT_ROW);
+                return PageResponseDto.ofSlice(products.getContent(), page, size, products.hasNext());
+            }
+            case ESTIMATED -> {
+                Page<ProductResponseDto> products = productRepository.findAllWithCachedCount(NOT_DELETED_COUNT, pageRequest, PRODUCT_ROW);
+                return new PageResponseDto<>(products.getContent(), page, size,
+                    products.getTotalElements(), PageResponseDto.TotalType.ESTIMATED);
+            }
+            default -> {
+                Page<ProductResponseDto> products = productRepository.findAll(NOT_DELETED, pageRequest, PRODUCT_ROW);
+                return new PageResponseDto<>(products.getContent(), page, size, products.getTotalElements());
+            }
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public ProductResponseDto getProductById(UUID id, String locale) {
-        ProductsEntity product = productRepository.findById(id)
+        ProductsEntity product = productRepository.findById(id, PRODUCT_RESPONSE)
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-        
-        // TODO: Convert entity to DTO with translations and attributes
-        throw new UnsupportedOperationException("Method not implemented yet");
+
+        // The same fields as a list row, shop and category names come from the fetch plan
+        return new ProductResponseDto(product.getId(), product.getSKU(), product.getName(), product.getDescription(),
+            product.getStatus(), product.getShopId(), product.getShop().getName(), product.getCategoryId(),
+            product.getCategory().getName(), product.getCreatedAt(), product.getUpdatedAt(), product.getVersion());
     }
 
     @Override
@@ -58,31 +148,89 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void deleteProduct(UUID id) {
-        ProductsEntity product = productRepository.findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-        
-        // Soft delete
-        product.setIsDeleted(true);
-        productRepository.save(product);
+        if (!productRepository.existsById(id)) {
+            throw new EntityNotFoundException("Product not found with id: " + id);
+        }
+
+        // Soft delete, together with variants, images, attribute values, pricing, inventory and translations
+        softDeleteService.deleteProducts(List.of(id));
     }
 
     @Override
-    public ProductResponseDto updateProductStatus(UUID id, String status) {
-        ProductsEntity product = productRepository.findById(id)
+    public SoftDeleteResultDto deleteProducts(List<UUID> ids) {
+        return softDeleteService.deleteProducts(ids);
+    }
+
+    @Override
+    public ProductResponseDto updateProductStatus(UUID id, String status, Long version) {
+        // One conditional UPDATE, a concurrent change surfaces as 409 instead of being overwritten
+        try {
+            productRepository.updateIfVersion(id, version, Map.of(
+                "status", status,
+                "updatedAt", LocalDateTime.now(),
+                "updatedBy", currentUser()));
+        } catch (OptimisticLockingFailureException e) {
+            if (!productRepository.existsById(id)) {
+                throw new EntityNotFoundException("Product not found with id: " + id);
+            }
+            throw e;
+        }
+        productIndexer.refreshAfterCommit(List.of(id));
+
+        Specification<ProductsEntity> byId = (root, query, cb) -> cb.equal(root.get("id"), id);
+        return productRepository.findAll(byId, Sort.unsorted(), PRODUCT_ROW).stream().findFirst()
             .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-        
-        product.setStatus(status);
-        productRepository.save(product);
-        
-        // TODO: Convert to DTO and return
-        throw new UnsupportedOperationException("Method not implemented yet");
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponseDto<ProductResponseDto> searchProducts(ProductSearchRequestDto searchRequest) {
-        // TODO: Implement full-text search with filters
-        throw new UnsupportedOperationException("Method not implemented yet");
+    public ProductSearchResponseDto searchProducts(ProductSearchRequestDto searchRequest) {
+        int page = searchRequest.getPage();
+        int size = searchRequest.getSize();
+        if (!productIndex.isReady()) {
+            // Sort fields and result window as the index allows them
+            productIndex.validate(searchRequest);
+            // The index is still building or disabled: name matching in SQL, without attribute filters or facets,
+            // and newest first in place of relevance
+            Sort sort = ProductIndex.SORT_RELEVANCE.equals(searchRequest.getSortBy())
+                ? Sort.by(Sort.Direction.DESC, "createdAt")
+                : Sort.by(Sort.Direction.fromOptionalString(searchRequest.getSortDirection())
+                    .orElse(Sort.Direction.DESC), searchRequest.getSortBy());
+            Page<ProductResponseDto> products = productRepository.findAll(searchSpecification(searchRequest),
+                PageRequest.of(page, size, sort), PRODUCT_ROW);
+            return new ProductSearchResponseDto(products.getContent(), page, size, products.getTotalElements(), Map.of(), false);
+        }
+
+        SearchHits hits = productIndex.search(searchRequest);
+        // Rows of the page only, in index order; a product deleted since it was indexed drops out
+        Specification<ProductsEntity> inPage = (root, query, cb) -> root.get("id").in(hits.ids());
+        Map<UUID, ProductResponseDto> rows = new HashMap<>();
+        if (!hits.ids().isEmpty()) {
+            productRepository.findAll(inPage, Sort.unsorted(), PRODUCT_ROW).forEach(row -> rows.put(row.getId(), row));
+        }
+        List<ProductResponseDto> content = hits.ids().stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new ProductSearchResponseDto(content, page, size, hits.total(), hits.facets(), hits.fuzzy());
+    }
+
+    private static Specification<ProductsEntity> searchSpecification(ProductSearchRequestDto searchRequest) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isFalse(root.get("isDeleted")));
+            if (searchRequest.getQuery() != null && !searchRequest.getQuery().isBlank()) {
+                predicates.add(cb.like(cb.lower(root.get("name")),
+                    "%" + searchRequest.getQuery().trim().toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (searchRequest.getShopId() != null) {
+                predicates.add(cb.equal(root.get("shopId"), searchRequest.getShopId()));
+            }
+            if (searchRequest.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("categoryId"), searchRequest.getCategoryId()));
+            }
+            if (searchRequest.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), searchRequest.getStatus()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
     }
 
     @Override
@@ -95,8 +243,12 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public PageResponseDto<ProductResponseDto> getProductsByShop(UUID shopId, Integer page, Integer size, String locale) {
-        // TODO: Implement shop-based product filtering
-        throw new UnsupportedOperationException("Method not implemented yet");
+        Specification<ProductsEntity> inShop = (root, query, cb) ->
+            cb.and(cb.equal(root.get("shopId"), shopId), cb.isFalse(root.get("isDeleted")));
+
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Page<ProductResponseDto> products = productRepository.findAll(inShop, pageRequest, PRODUCT_ROW);
+        return new PageResponseDto<>(products.getContent(), page, size, products.getTotalElements());
     }
 
     @Override
@@ -108,8 +260,47 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<ProductAttributeDto> updateProductAttributes(UUID productId, List<ProductAttributeValueDto> attributes) {
-        // TODO: Implement bulk attribute update
-        throw new UnsupportedOperationException("Method not implemented yet");
+        if (!productRepository.existsById(productId)) {
+            throw new EntityNotFoundException("Product not found with id: " + productId);
+        }
+
+        Map<UUID, AttributesEntity> definitions = new HashMap<>();
+        for (AttributesEntity definition : attributeRepository.findAllById(
+                attributes.stream().map(ProductAttributeValueDto::getAttributeId).toList())) {
+            definitions.put(definition.getId(), definition);
+        }
+
+        String user = currentUser();
+        List<ProductAttributeValuesEntity> values = new ArrayList<>(attributes.size());
+        List<ProductAttributeDto> result = new ArrayList<>(attributes.size());
+        for (ProductAttributeValueDto attribute : attributes) {
+            AttributesEntity definition = definitions.get(attribute.getAttributeId());
+            if (definition == null || Boolean.TRUE.equals(definition.getIsDeleted())) {
+                throw new AttributeException.AttributeNotFound(attribute.getAttributeId());
+            }
+
+            ProductAttributeValuesEntity value = new ProductAttributeValuesEntity();
+            value.setProductId(productId);
+            value.setAttributeId(definition.getId());
+            setTypedValue(value, definition, attribute.getValue());
+            value.setCreatedBy(user);
+            value.setUpdatedBy(user);
+            values.add(value);
+
+            // Attributes are named by their code; localized names are read with a locale from the attribute endpoints
+            ProductAttributeDto dto = new ProductAttributeDto(definition.getId(), definition.getCode(), definition.getCode(),
+                definition.getDataType(), attribute.getValue(), String.valueOf(attribute.getValue()));
+            dto.setInputType(definition.getInputType());
+            dto.setUnit(definition.getUnit());
+            dto.setIsFilterable(definition.getIsFilterable());
+            dto.setIsRequired(definition.getIsRequired());
+            result.add(dto);
+        }
+
+        // One key lookup and one upsert statement per batch, instead of a find and a save per attribute
+        productAttributeValueRepository.upsertAll(values);
+        productIndexer.refreshAfterCommit(List.of(productId));
+        return result;
     }
 
     @Override
@@ -123,4 +314,45 @@ public class ProductServiceImpl implements ProductService {
         // TODO: Implement attribute value removal
         throw new UnsupportedOperationException("Method not implemented yet");
     }
+
+    /**
+     * Name of the authenticated user making the change
+     */
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_USER;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Store a value in the column of the attribute's data type, text for unknown types
+     */
+    private static void setTypedValue(ProductAttributeValuesEntity target, AttributesEntity definition, Object value) {
+        if (value == null) {
+            return;
+        }
+        String dataType = definition.getDataType() == null ? "" : definition.getDataType().toUpperCase();
+        try {
+            switch (dataType) {
+                case "NUMBER" -> target.setValueNumber(value instanceof Number number
+                    ? number.doubleValue() : Double.valueOf(value.toString()));
+                case "BOOLEAN" -> target.setValueBoolean(value instanceof Boolean bool
+                    ? bool : parseBoolean(value.toString()));
+                case "DATE" -> target.setValueDate(LocalDateTime.parse(value.toString()));
+                case "OPTION" -> target.setValueOptionsId(UUID.fromString(value.toString()));
+                default -> target.setValueString(value.toString());
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new AttributeException.InvalidAttributeValue(definition.getCode(), value);
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            throw new IllegalArgumentException(value);
+        }
+        return Boolean.parseBoolean(value);
+    }
 }
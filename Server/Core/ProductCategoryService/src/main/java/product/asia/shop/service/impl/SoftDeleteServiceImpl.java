@@ -0,0 +1,193 @@
+package product.asia.shop.service.impl;
+
+import jakarta.persistence.Table;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import product.asia.shop.dto.SoftDeleteResultDto;
+import product.asia.shop.entities.*;
+import product.asia.shop.exception.BusinessLogicException;
+import product.asia.shop.repository.*;
+import product.asia.shop.search.ProductIndexer;
+import product.asia.shop.service.SoftDeleteService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Soft deletes run as bulk {@code UPDATE ... SET is_deleted = true WHERE ... IN (...)} statements,
+ * split into chunks so the IN lists stay bounded, all inside the caller's transaction.
+ * Bulk updates bypass the persistence context: entities already loaded in the session keep their old state.
+ */
+@Service
+@Transactional
+public class SoftDeleteServiceImpl implements SoftDeleteService {
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductAttributeValueRepository productAttributeValueRepository;
+    private final ProductPricingRepository productPricingRepository;
+    private final ProductInventoryRepository productInventoryRepository;
+    private final ShopRepository shopRepository;
+    private final CategoryRepository categoryRepository;
+    private final CategoryAttributeRepository categoryAttributeRepository;
+    private final TranslationRepository translationRepository;
+    private final ProductIndexer productIndexer;
+
+    @Value("${app.repository.in-clause-chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    public SoftDeleteServiceImpl(ProductRepository productRepository,
+                                 ProductVariantRepository productVariantRepository,
+                                 ProductImageRepository productImageRepository,
+                                 ProductAttributeValueRepository productAttributeValueRepository,
+                                 ProductPricingRepository productPricingRepository,
+                                 ProductInventoryRepository productInventoryRepository,
+                                 ShopRepository shopRepository,
+                                 CategoryRepository categoryRepository,
+                                 CategoryAttributeRepository categoryAttributeRepository,
+                                 TranslationRepository translationRepository,
+                                 ProductIndexer productIndexer) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.productImageRepository = productImageRepository;
+        this.productAttributeValueRepository = productAttributeValueRepository;
+        this.productPricingRepository = productPricingRepository;
+        this.productInventoryRepository = productInventoryRepository;
+        this.shopRepository = shopRepository;
+        this.categoryRepository = categoryRepository;
+        this.categoryAttributeRepository = categoryAttributeRepository;
+        this.translationRepository = translationRepository;
+        this.productIndexer = productIndexer;
+    }
+
+    @Override
+    public SoftDeleteResultDto deleteProducts(Collection<UUID> productIds) {
+        SoftDeleteResultDto result = new SoftDeleteResultDto();
+        List<UUID> ids = distinct(productIds);
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        // Dependents first, the root rows last
+        result.add(table(ProductVariantsEntity.class),
+                updateInChunks(ids, productVariantRepository::softDeleteByParentProductIdInAndIsDeletedFalse));
+        result.add(table(ProductImagesEntity.class),
+                updateInChunks(ids, productImageRepository::softDeleteByProductIdInAndIsDeletedFalse));
+        result.add(table(ProductAttributeValuesEntity.class),
+                updateInChunks(ids, productAttributeValueRepository::softDeleteByProductIdInAndIsDeletedFalse));
+        result.add(table(ProductPricingEntity.class),
+                updateInChunks(ids, productPricingRepository::softDeleteByProductIdInAndIsDeletedFalse));
+        result.add(table(ProductInventoryEntity.class),
+                updateInChunks(ids, productInventoryRepository::softDeleteByProductIdInAndIsDeletedFalse));
+        result.add(table(TranslationsEntity.class), updateInChunks(ids, chunk ->
+                translationRepository.softDeleteByEntityTypeAndEntityIdInAndIsDeletedFalse(TranslationsEntity.ENTITY_TYPE_PRODUCT, chunk)));
+        result.add(table(ProductsEntity.class),
+                updateInChunks(ids, productRepository::softDeleteByIdInAndIsDeletedFalse));
+        productIndexer.refreshAfterCommit(ids);
+        return result;
+    }
+
+    @Override
+    public SoftDeleteResultDto deleteShops(Collection<UUID> shopIds) {
+        SoftDeleteResultDto result = new SoftDeleteResultDto();
+        List<UUID> ids = distinct(shopIds);
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> productIds = selectInChunks(ids, productRepository::findIdsByShopIdInAndIsDeletedFalse);
+        result.addAll(deleteProducts(productIds));
+        result.add(table(TranslationsEntity.class), updateInChunks(ids, chunk ->
+                translationRepository.softDeleteByEntityTypeAndEntityIdInAndIsDeletedFalse(TranslationsEntity.ENTITY_TYPE_SHOP, chunk)));
+        result.add(table(ShopsEntity.class), updateInChunks(ids, shopRepository::softDeleteByIdInAndIsDeletedFalse));
+        return result;
+    }
+
+    @Override
+    public SoftDeleteResultDto deleteCategories(Collection<UUID> categoryIds) {
+        SoftDeleteResultDto result = new SoftDeleteResultDto();
+        List<UUID> ids = collectSubtrees(categoryIds);
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        long liveProducts = 0;
+        for (List<UUID> chunk : chunks(ids)) {
+            liveProducts += productRepository.countByCategoryIdInAndIsDeletedFalse(chunk);
+        }
+        if (liveProducts > 0) {
+            throw new BusinessLogicException("Cannot delete categories still used by " + liveProducts
+                    + " products, move or delete the products first", "CATEGORY_IN_USE");
+        }
+
+        result.add(table(CategoryAttributesEntity.class),
+                updateInChunks(ids, categoryAttributeRepository::softDeleteByCategoryIdInAndIsDeletedFalse));
+        result.add(table(TranslationsEntity.class), updateInChunks(ids, chunk ->
+                translationRepository.softDeleteByEntityTypeAndEntityIdInAndIsDeletedFalse(TranslationsEntity.ENTITY_TYPE_CATEGORY, chunk)));
+        result.add(table(CategoriesEntity.class), updateInChunks(ids, categoryRepository::softDeleteByIdInAndIsDeletedFalse));
+        return result;
+    }
+
+    /**
+     * The given categories and all their live descendants, walked one tree level per query round
+     */
+    private List<UUID> collectSubtrees(Collection<UUID> categoryIds) {
+        Set<UUID> subtree = new LinkedHashSet<>(distinct(categoryIds));
+        List<UUID> level = new ArrayList<>(subtree);
+        while (!level.isEmpty()) {
+            List<UUID> children = selectInChunks(level, categoryRepository::findIdsByParentIdInAndIsDeletedFalse);
+            level = new ArrayList<>();
+            for (UUID child : children) {
+                // Guards against cycles in bad data
+                if (subtree.add(child)) {
+                    level.add(child);
+                }
+            }
+        }
+        return new ArrayList<>(subtree);
+    }
+
+    private int updateInChunks(List<UUID> ids, ToIntFunction<Collection<UUID>> update) {
+        int rows = 0;
+        for (List<UUID> chunk : chunks(ids)) {
+            rows += update.applyAsInt(chunk);
+        }
+        return rows;
+    }
+
+    private List<UUID> selectInChunks(List<UUID> ids, Function<Collection<UUID>, List<UUID>> select) {
+        List<UUID> result = new ArrayList<>();
+        for (List<UUID> chunk : chunks(ids)) {
+            result.addAll(select.apply(chunk));
+        }
+        return result;
+    }
+
+    private List<List<UUID>> chunks(List<UUID> ids) {
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static List<UUID> distinct(Collection<UUID> ids) {
+        return ids == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    private static String table(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        return table != null ? table.name() : entityClass.getSimpleName();
+    }
+}
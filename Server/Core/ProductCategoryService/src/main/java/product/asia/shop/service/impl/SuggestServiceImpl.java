@@ -0,0 +1,36 @@
+package product.asia.shop.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import product.asia.shop.config.SearchProperties;
+import product.asia.shop.dto.*;
+import product.asia.shop.exception.ValidationException;
+import product.asia.shop.search.SuggestionIndex;
+import product.asia.shop.service.SuggestService;
+
+import java.util.List;
+
+@Service
+public class SuggestServiceImpl implements SuggestService {
+
+    private final SuggestionIndex suggestionIndex;
+    private final SearchProperties searchProperties;
+
+    @Autowired
+    public SuggestServiceImpl(SuggestionIndex suggestionIndex, SearchProperties searchProperties) {
+        this.suggestionIndex = suggestionIndex;
+        this.searchProperties = searchProperties;
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, Integer limit, String locale) {
+        if (limit < 1 || limit > searchProperties.getSuggestTopK()) {
+            throw new ValidationException("limit", "must be between 1 and " + searchProperties.getSuggestTopK());
+        }
+        // Served from memory only: no transaction, and no suggestions until the first build completes
+        return suggestionIndex.suggest(query, locale, limit).stream()
+            .map(suggestion -> new SuggestionDto(suggestion.type(), suggestion.id(), suggestion.text(), suggestion.weight()))
+            .toList();
+    }
+}
@@ -0,0 +1,124 @@
+package product.asia.shop.archival;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.repository.base.CountCache;
+import product.asia.shop.repository.base.CountedFilter;
+import product.asia.shop.repository.factory.RepositoryFactory;
+import product.asia.shop.support.RepositoryTest;
+import product.asia.shop.support.TestData;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Archives a soft-deleted product with its variants, images, prices and stock, then restores it.
+ */
+@RepositoryTest
+@Import(ArchivalJob.class)
+// Products first: the job must still archive the tables referencing them before them
+@TestPropertySource(properties = {
+        "app.archival.tables=products,product_variants,product_images,product_pricing,product_inventory",
+        "app.archival.retention=30d",
+        "app.archival.batch-size=2",
+        "app.archival.batch-pause=0ms"})
+class ArchivalJobTest {
+
+    private static final Map<String, String> CHILDREN = Map.of(
+            "product_variants", "parent_product_id",
+            "product_images", "product_id",
+            "product_pricing", "product_id",
+            "product_inventory", "product_id");
+
+    @Autowired
+    private ArchivalJob archivalJob;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void productIsArchivedAndRestoredWithItsChildren() {
+        List<UUID> products = testData.products(2, testData.shops(1), testData.categories(1));
+        UUID archived = products.get(0);
+        UUID referenced = products.get(1);
+        Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now().minusDays(60));
+        softDelete("products", archived, deletedAt);
+        insertChildren(archived, true, deletedAt);
+        // Deleted as long ago, but one of its images is not
+        softDelete("products", referenced, deletedAt);
+        insertImage(referenced, false, deletedAt);
+
+        archivalJob.runPass();
+
+        assertEquals(0, count("products", "id", archived));
+        assertEquals(1, count("products_archive", "id", archived));
+        CHILDREN.forEach((table, column) -> {
+            assertEquals(0, count(table, column, archived), table);
+            assertEquals(1, count(table + "_archive", column, archived), table);
+        });
+        assertEquals(1, count("products", "id", referenced));
+
+        CountCache counts = repositoryFactory.getRepository(ProductsEntity.class).getCountCache();
+        CountedFilter<ProductsEntity> filter = CountedFilter.of("products", null);
+        assertEquals(1, counts.get(filter, false, () -> 1));
+
+        Map<String, Integer> restored = archivalJob.restore("products", archived);
+
+        assertEquals(Map.of("products", 1, "product_variants", 1, "product_images", 1, "product_pricing", 1,
+                "product_inventory", 1), restored);
+        assertFalse(jdbcTemplate.queryForObject("select is_deleted from products where id = ?", Boolean.class, archived));
+        assertEquals(0, count("products_archive", "id", archived));
+        CHILDREN.forEach((table, column) -> {
+            assertFalse(jdbcTemplate.queryForObject("select is_deleted from " + table + " where " + column + " = ?",
+                    Boolean.class, archived), table);
+            assertEquals(0, count(table + "_archive", column, archived), table);
+        });
+        // The count cached before the restore is gone
+        assertEquals(2, counts.get(filter, false, () -> 2));
+        assertEquals(Map.of(), archivalJob.restore("products", archived));
+    }
+
+    private void softDelete(String table, UUID id, Timestamp at) {
+        jdbcTemplate.update("update " + table + " set is_deleted = true, updated_at = ? where id = ?", at, id);
+    }
+
+    private void insertChildren(UUID product, boolean deleted, Timestamp at) {
+        jdbcTemplate.update("insert into product_variants (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                + " version, parent_product_id, variant_sku, variant_name, position, status)"
+                + " values (?, ?, 'seed', ?, ?, 'seed', 0, ?, 'SKU-V', 'Variant', 0, 'ACTIVE')",
+                UUID.randomUUID(), at, deleted, at, product);
+        insertImage(product, deleted, at);
+        jdbcTemplate.update("insert into product_pricing (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                + " version, product_id, price_type, currency, price, is_active)"
+                + " values (?, ?, 'seed', ?, ?, 'seed', 0, ?, 'BASE', 'USD', 10.00, true)",
+                UUID.randomUUID(), at, deleted, at, product);
+        jdbcTemplate.update("insert into product_inventory (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                + " version, product_id, quantity_available, quantity_reserved, quantity_on_order, track_inventory,"
+                + " allow_backorder) values (?, ?, 'seed', ?, ?, 'seed', 0, ?, 5, 0, 0, true, false)",
+                UUID.randomUUID(), at, deleted, at, product);
+    }
+
+    private void insertImage(UUID product, boolean deleted, Timestamp at) {
+        jdbcTemplate.update("insert into product_images (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                + " version, product_id, image_url, image_type, display_order)"
+                + " values (?, ?, 'seed', ?, ?, 'seed', 0, ?, 'https://example.com/image.png', 'MAIN', 0)",
+                UUID.randomUUID(), at, deleted, at, product);
+    }
+
+    private int count(String table, String column, UUID id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?", Integer.class, id);
+    }
+}
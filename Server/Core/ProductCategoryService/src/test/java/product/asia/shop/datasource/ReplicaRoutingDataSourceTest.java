@@ -0,0 +1,146 @@
+package product.asia.shop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.config.DataSourceConfig;
+import product.asia.shop.config.ReadReplicaProperties;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Wires a primary and a replica, two in-memory H2 databases that each know their own name, the way
+ * DataSourceConfig does, and checks which one transactions end up on.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void createDatabases() {
+        primary = database("primary");
+        replica = database("replica");
+        // Replication lag as the replica reports it, checked against the 5s allowed
+        new JdbcTemplate(replica).execute("create table replication_status (seconds_behind bigint)");
+        new JdbcTemplate(replica).update("insert into replication_status values (0)");
+    }
+
+    @AfterEach
+    void closeDatabases() {
+        routing.destroy();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() {
+        route(Map.of("replica", replica));
+
+        assertEquals("replica", readOnly.execute(status -> node()));
+        assertEquals("primary", readWrite.execute(status -> node()));
+        // Outside a transaction statements go to the primary too
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        route(Map.of("replica", replica));
+
+        new JdbcTemplate(replica).update("update replication_status set seconds_behind = 60");
+        routing.checkReplicas();
+        assertFalse(routing.getReplicaStatus().get(0).healthy());
+        assertEquals("primary", readOnly.execute(status -> node()));
+
+        new JdbcTemplate(replica).update("update replication_status set seconds_behind = 1");
+        routing.checkReplicas();
+        assertTrue(routing.getReplicaStatus().get(0).healthy());
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() {
+        // Nothing listens on port 1
+        DriverManagerDataSource unreachable = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable", "sa", "");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("unreachable", unreachable);
+        replicas.put("replica", replica);
+        route(replicas);
+
+        assertFalse(routing.getReplicaStatus().get(0).healthy());
+        assertTrue(routing.getReplicaStatus().get(1).healthy());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica", readOnly.execute(status -> node()));
+        }
+
+        replica.close();
+        routing.checkReplicas();
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void explicitCredentialsAreRoutedLikeTheConfiguredOnes() throws SQLException {
+        // Hikari pools refuse other credentials, a plain data source takes them
+        route(Map.of("replica", new DriverManagerDataSource(replica.getJdbcUrl(), "sa", "")));
+
+        try (Connection connection = routing.getConnection("sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet node = statement.executeQuery("select name from node")) {
+            node.next();
+            assertEquals("replica", node.getString(1));
+        }
+    }
+
+    private void route(Map<String, DataSource> replicas) {
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setHealthCheckInterval(Duration.ofHours(1));
+        properties.setValidationTimeout(Duration.ofSeconds(1));
+        properties.setMaxReplicationLag(Duration.ofSeconds(5));
+        properties.setReplicationLagQuery("select seconds_behind from replication_status");
+        routing = new ReplicaRoutingDataSource(primary, replicas, properties);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new DataSourceConfig().dataSource(primary, routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
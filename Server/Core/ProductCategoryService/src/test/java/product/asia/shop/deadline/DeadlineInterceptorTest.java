@@ -0,0 +1,124 @@
+package product.asia.shop.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import product.asia.shop.config.DeadlineProperties;
+import product.asia.shop.exception.GlobalExceptionHandler;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs requests through the interceptor and the exception handler: the budget each endpoint gets, and
+ * the 503 with {@code Retry-After} of a request that spent it.
+ */
+class DeadlineInterceptorTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DeadlineInterceptor interceptor = new DeadlineInterceptor();
+        ReflectionTestUtils.setField(interceptor, "properties", properties);
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+        GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(exceptionHandler, "deadlineProperties", properties);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TestController())
+                .addInterceptors(interceptor)
+                .setControllerAdvice(exceptionHandler)
+                .build();
+    }
+
+    @Test
+    void spentBudgetIsAnsweredWithServiceUnavailable() throws Exception {
+        properties.setRetryAfter(Duration.ofSeconds(3));
+
+        mockMvc.perform(get("/slow"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.success").value(false));
+
+        assertEquals(1, meterRegistry.counter("app.deadline.exceeded",
+                "endpoint", "TestController.slow", "outcome", "rejected").count());
+        assertTrue(RequestDeadline.current().isEmpty());
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() throws Exception {
+        properties.setRetryAfter(Duration.ofMillis(200));
+
+        mockMvc.perform(get("/slow"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void budgetComesFromTheAnnotationUnlessConfigured() throws Exception {
+        mockMvc.perform(get("/annotated")).andExpect(content().string("PT5S"));
+
+        properties.getEndpoints().put("TestController.annotated", Duration.ofSeconds(2));
+        mockMvc.perform(get("/annotated")).andExpect(content().string("PT2S"));
+    }
+
+    @Test
+    void defaultBudgetAppliesToEndpointsWithout() throws Exception {
+        mockMvc.perform(get("/unannotated")).andExpect(content().string("none"));
+
+        properties.setDefaultBudget(Duration.ofSeconds(1));
+        mockMvc.perform(get("/unannotated")).andExpect(content().string("PT1S"));
+
+        properties.setEnabled(false);
+        mockMvc.perform(get("/unannotated")).andExpect(content().string("none"));
+    }
+
+    @Test
+    void requestsWithinBudgetAreNotCounted() throws Exception {
+        mockMvc.perform(get("/annotated")).andExpect(status().isOk());
+
+        assertNull(meterRegistry.find("app.deadline.exceeded").counter());
+    }
+
+    @RestController
+    static class TestController {
+
+        @GetMapping("/slow")
+        @LatencyBudget("10ms")
+        String slow() throws InterruptedException {
+            Thread.sleep(30);
+            RequestDeadline.check();
+            return "answered";
+        }
+
+        @GetMapping("/annotated")
+        @LatencyBudget("5s")
+        String annotated() {
+            return budget();
+        }
+
+        @GetMapping("/unannotated")
+        String unannotated() {
+            return budget();
+        }
+
+        private static String budget() {
+            return RequestDeadline.current().map(deadline -> deadline.getBudget().toString()).orElse("none");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package product.asia.shop.deadline;
+
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import product.asia.shop.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+import static org.hibernate.jpa.SpecHints.HINT_SPEC_QUERY_TIMEOUT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks the deadline of the calling thread and the query timeout it hands to queries.
+ */
+class RequestDeadlineTest {
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void queriesOutsideRequestsHaveNoTimeout() {
+        Query query = mock(Query.class);
+
+        RequestDeadline.check();
+        RequestDeadline.applyTo(query);
+
+        assertTrue(RequestDeadline.current().isEmpty());
+        verify(query, never()).setHint(anyString(), any());
+    }
+
+    @Test
+    void timeoutIsTheRemainingTimeInMilliseconds() {
+        Query query = mock(Query.class);
+        RequestDeadline.start("ProductController.getAllProducts", Duration.ofSeconds(60));
+
+        RequestDeadline.applyTo(query);
+
+        ArgumentCaptor<Object> timeout = ArgumentCaptor.forClass(Object.class);
+        verify(query).setHint(eq(HINT_SPEC_QUERY_TIMEOUT), timeout.capture());
+        int millis = (Integer) timeout.getValue();
+        assertTrue(millis > 50_000 && millis <= 60_000, millis + " ms");
+    }
+
+    @Test
+    void timeoutIsAtLeastOneSecond() {
+        // Hibernate rounds the hint to whole seconds, less than half of one would mean no timeout at all
+        Query query = mock(Query.class);
+        RequestDeadline.start("SuggestController.suggest", Duration.ofMillis(200));
+
+        RequestDeadline.applyTo(query);
+
+        verify(query).setHint(HINT_SPEC_QUERY_TIMEOUT, 1_000);
+    }
+
+    @Test
+    void spentBudgetFailsBeforeTheQuery() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.start("SuggestController.suggest", Duration.ofMillis(5));
+        Thread.sleep(20);
+        Query query = mock(Query.class);
+
+        assertTrue(deadline.isExceeded());
+        DeadlineExceededException error = assertThrows(DeadlineExceededException.class, RequestDeadline::check);
+        assertEquals("SuggestController.suggest exceeded its latency budget of 5 ms", error.getMessage());
+        assertThrows(DeadlineExceededException.class, () -> RequestDeadline.applyTo(query));
+        verify(query, never()).setHint(anyString(), any());
+    }
+}
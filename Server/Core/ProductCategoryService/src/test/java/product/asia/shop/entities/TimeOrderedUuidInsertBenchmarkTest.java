@@ -0,0 +1,123 @@
+package product.asia.shop.entities;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares batched inserts into a product-like table keyed by random (version 4) UUIDs, with foreign
+ * keys stored as 36 bytes of text, against time-ordered (version 7) UUIDs with every UUID in 16 bytes.
+ * The database lives on disk with a page cache far smaller than the indexes, as a production table would
+ * against its buffer pool, so random keys pay for touching pages all over the index.
+ */
+class TimeOrderedUuidInsertBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+    private static final int SHOPS = 500;
+    // Page cache in KB
+    private static final int CACHE_SIZE = 1_024;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void versionSevenIdsAreOrdered() {
+        UUID previous = TimeOrderedUuidGenerator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.next();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            // Unsigned byte order, as BINARY(16) compares
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void timeOrderedIdsInsertFasterThanRandomOnes() throws SQLException {
+        List<UUID> shops = new ArrayList<>();
+        for (int i = 0; i < SHOPS; i++) {
+            shops.add(UUID.randomUUID());
+        }
+
+        long before = insert("before", "binary(36)", UUID::randomUUID,
+                uuid -> uuid.toString().getBytes(StandardCharsets.US_ASCII), shops);
+        long after = insert("after", "binary(16)", TimeOrderedUuidGenerator::next,
+                TimeOrderedUuidInsertBenchmarkTest::toBytes, shops);
+
+        assertTrue(after > before, "time-ordered ids, BINARY(16) foreign keys: " + after
+                + " rows/s, random ids, BINARY(36) foreign keys: " + before + " rows/s");
+    }
+
+    /**
+     * Rows per second inserted into a fresh database
+     */
+    private long insert(String name, String foreignKeyType, Supplier<UUID> ids,
+                        Function<UUID, byte[]> foreignKey, List<UUID> shops) throws SQLException {
+        String url = "jdbc:h2:file:" + directory.resolve(name) + ";CACHE_SIZE=" + CACHE_SIZE;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table products (id binary(16) primary key, shop_id " + foreignKeyType
+                        + " not null, category_id " + foreignKeyType + " not null, sku varchar(64) not null,"
+                        + " name varchar(255) not null, created_at timestamp not null)");
+                statement.execute("create index idx_products_shop_id on products (shop_id)");
+                statement.execute("create index idx_products_category_id on products (category_id)");
+            }
+            connection.setAutoCommit(false);
+
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement("insert into products"
+                    + " (id, shop_id, category_id, sku, name, created_at) values (?, ?, ?, ?, ?, current_timestamp)")) {
+                for (int i = 0; i < ROWS; i++) {
+                    insert.setBytes(1, toBytes(ids.get()));
+                    insert.setBytes(2, foreignKey.apply(shops.get(i % shops.size())));
+                    insert.setBytes(3, foreignKey.apply(shops.get(i * 7 % shops.size())));
+                    insert.setString(4, "SKU-" + i);
+                    insert.setString(5, "Product " + i);
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            try (Statement statement = connection.createStatement();
+                 var count = statement.executeQuery("select count(*) from products")) {
+                count.next();
+                assertEquals(ROWS, count.getInt(1));
+            }
+            return ROWS * 1_000_000_000L / elapsed;
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        long most = uuid.getMostSignificantBits();
+        long least = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (most >>> (56 - 8 * i));
+            bytes[8 + i] = (byte) (least >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,208 @@
+package product.asia.shop.migration;
+
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import product.asia.shop.config.BinaryUuidMigrationProperties;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the backfill, trigger and verify phases of the migration on H2 in MySQL mode. H2 has no
+ * {@code CREATE TABLE ... LIKE} nor MySQL trigger bodies, so the shadow table is created here and the
+ * triggers are Java triggers running the statements the migration generates, with the row bound to them.
+ */
+class BinaryUuidMigrationTest {
+
+    private static final Map<String, List<String>> TRIGGER_BODIES = new ConcurrentHashMap<>();
+    private static final Pattern ROW_REFERENCE = Pattern.compile("\\b(new|old)\\.(\\w+)");
+
+    private final BinaryUuidMigration.Table items = new BinaryUuidMigration.Table("items", "id",
+            columns(new BinaryUuidMigration.Column("id", "char", false),
+                    new BinaryUuidMigration.Column("shop_id", "char", true)),
+            List.of("id", "shop_id", "name"));
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BinaryUuidMigration migration;
+
+    @BeforeEach
+    void createTables() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:binary-uuid-migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create alias unhex for \"" + MySqlFunctions.class.getName() + ".unhex\"");
+        jdbcTemplate.execute("create table items (id char(36) primary key, shop_id char(36) null, name varchar(64) not null)");
+        jdbcTemplate.execute("create table items__bin (id binary(16) primary key, shop_id binary(16) null, name varchar(64) not null)");
+
+        BinaryUuidMigrationProperties properties = new BinaryUuidMigrationProperties();
+        properties.setBatchSize(7);
+        properties.setBatchPause(Duration.ZERO);
+        migration = new BinaryUuidMigration(jdbcTemplate, null, properties);
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("drop all objects");
+        dataSource.destroy();
+    }
+
+    @Test
+    void backfillKeepsTheChangesTheTriggersReplayed() throws InterruptedException {
+        List<UUID> ids = new ArrayList<>();
+        UUID shop = UUID.randomUUID();
+        for (int i = 0; i < 30; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            jdbcTemplate.update("insert into items values (?, ?, ?)", id.toString(), i % 3 == 0 ? null : shop.toString(), "item " + i);
+        }
+
+        createTriggers();
+        UUID inserted = UUID.randomUUID();
+        UUID rekeyed = UUID.randomUUID();
+        jdbcTemplate.update("insert into items values (?, ?, 'inserted')", inserted.toString(), shop.toString());
+        jdbcTemplate.update("update items set name = 'updated' where id = ?", ids.get(1).toString());
+        jdbcTemplate.update("update items set id = ? where id = ?", rekeyed.toString(), ids.get(2).toString());
+        jdbcTemplate.update("delete from items where id = ?", ids.get(3).toString());
+        // The triggers copied the changed rows, none of the untouched ones
+        assertEquals(3, count("items__bin"));
+
+        migration.backfill(items);
+        migration.verify(items);
+
+        assertEquals(30, count("items"));
+        assertEquals(30, count("items__bin"));
+        assertEquals("updated", shadowName(ids.get(1)));
+        assertEquals("inserted", shadowName(inserted));
+        assertEquals("item 2", shadowName(rekeyed));
+        assertNull(shadowName(ids.get(2)));
+        assertNull(shadowName(ids.get(3)));
+        assertArrayEquals(bytes(shop), jdbcTemplate.queryForObject(
+                "select shop_id from items__bin where id = ?", byte[].class, (Object) bytes(ids.get(1))));
+        assertNull(jdbcTemplate.queryForObject(
+                "select shop_id from items__bin where id = ?", byte[].class, (Object) bytes(ids.get(0))));
+    }
+
+    @Test
+    void verifyRejectsValuesThatAreNotUuids() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("insert into items values (?, ?, 'item')", UUID.randomUUID().toString(),
+                    UUID.randomUUID().toString());
+        }
+        jdbcTemplate.update("insert into items values (?, '1234', 'item')", UUID.randomUUID().toString());
+
+        migration.backfill(items);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> migration.verify(items));
+        assertEquals("1 rows of items hold values that are not UUIDs or were not copied, fix them and rerun the migration",
+                error.getMessage());
+    }
+
+    @Test
+    void verifyRejectsRowsMissingFromTheShadow() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("insert into items values (?, null, 'item')", UUID.randomUUID().toString());
+        }
+        migration.backfill(items);
+        // Written while no trigger copied it
+        jdbcTemplate.update("insert into items values (?, null, 'late')", UUID.randomUUID().toString());
+
+        assertThrows(IllegalStateException.class, () -> migration.verify(items));
+    }
+
+    private void createTriggers() {
+        for (String event : List.of("insert", "update", "delete")) {
+            String name = items.trigger(event);
+            TRIGGER_BODIES.put(name, migration.triggerBody(items, event));
+            jdbcTemplate.execute("create trigger " + name + " after " + event + " on items for each row call \""
+                    + ReplayTrigger.class.getName() + "\"");
+        }
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    private String shadowName(UUID id) {
+        List<String> names = jdbcTemplate.queryForList("select name from items__bin where id = ?", String.class, (Object) bytes(id));
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    private static Map<String, BinaryUuidMigration.Column> columns(BinaryUuidMigration.Column... columns) {
+        Map<String, BinaryUuidMigration.Column> byName = new LinkedHashMap<>();
+        for (BinaryUuidMigration.Column column : columns) {
+            byName.put(column.name(), column);
+        }
+        return byName;
+    }
+
+    private static byte[] bytes(UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * MySQL functions H2 lacks
+     */
+    public static class MySqlFunctions {
+
+        public static byte[] unhex(String hex) {
+            return hex == null ? null : HexFormat.of().parseHex(hex);
+        }
+    }
+
+    /**
+     * Runs the generated trigger body of its trigger, each {@code new.column} and {@code old.column}
+     * bound to the value of the row
+     */
+    public static class ReplayTrigger implements Trigger {
+
+        private static final List<String> COLUMNS = List.of("id", "shop_id", "name");
+
+        private List<String> body;
+
+        @Override
+        public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) {
+            body = TRIGGER_BODIES.get(triggerName.toLowerCase());
+        }
+
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            for (String sql : body) {
+                List<Object> values = new ArrayList<>();
+                Matcher reference = ROW_REFERENCE.matcher(sql);
+                while (reference.find()) {
+                    Object[] row = reference.group(1).equals("new") ? newRow : oldRow;
+                    values.add(row[COLUMNS.indexOf(reference.group(2))]);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(reference.replaceAll("?"))) {
+                    for (int i = 0; i < values.size(); i++) {
+                        statement.setObject(i + 1, values.get(i));
+                    }
+                    statement.execute();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package product.asia.shop.repository.base;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that counts are keyed by filter instance and that a write inside a transaction drops the counts
+ * other transactions cache before it commits.
+ */
+class CountCacheTest {
+
+    private final CountCache cache = new CountCache(Duration.ofMinutes(1));
+    private final AtomicLong rows = new AtomicLong(10);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void filtersWithTheSameNameDoNotShareACount() {
+        CountedFilter<Object> active = CountedFilter.of("filter", null);
+        CountedFilter<Object> other = CountedFilter.of("filter", null);
+
+        assertEquals(10, cache.get(active, false, rows::get));
+        assertEquals(7, cache.get(other, false, () -> 7));
+        assertEquals(3, cache.get(active, true, () -> 3));
+        assertEquals(10, cache.get(active, false, () -> -1));
+    }
+
+    @Test
+    void countsCachedBeforeCommitAreDroppedAfterCommit() {
+        CountedFilter<Object> filter = CountedFilter.of("filter", null);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidateAll();
+        cache.invalidateAll();
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+        // Another transaction counts before the write commits
+        assertEquals(10, cache.get(filter, false, rows::get));
+        rows.set(11);
+        assertEquals(10, cache.get(filter, false, rows::get));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(11, cache.get(filter, false, rows::get));
+    }
+}
@@ -0,0 +1,160 @@
+package product.asia.shop.repository.base;
+
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.dto.ProductResponseDto;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.repository.factory.RepositoryFactory;
+import product.asia.shop.support.RepositoryTest;
+import product.asia.shop.support.TestData;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares a product list page read as projected DTO rows with the same page read as entities
+ * (shop and category join-fetched) and mapped to DTOs. Both take one statement; the projection leaves
+ * nothing in the persistence context and allocates less per page. Slices are read so the count query,
+ * identical for both, stays out of the comparison.
+ */
+@RepositoryTest
+class ProjectionBenchmarkTest {
+
+    private static final int PRODUCTS = 5_000;
+    private static final int SHOPS = 20;
+    private static final int CATEGORIES = 10;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_PAGES = 200;
+    private static final int MEASURED_PAGES = 500;
+
+    private static final Projection<ProductsEntity, ProductResponseDto> PRODUCT_ROW = Projection.of(ProductResponseDto.class,
+            "id", "SKU", "name", "description", "status", "shopId", "shop.name", "categoryId", "category.name",
+            "createdAt", "updatedAt", "version");
+    private static final FetchPlan PRODUCT_GRAPH = FetchPlan.named(ProductsEntity.GRAPH_CATEGORY_AND_SHOP);
+
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestData testData;
+
+    private GenericRepository<ProductsEntity, UUID> products;
+    private TransactionTemplate readOnly;
+    private Specification<ProductsEntity> seeded;
+
+    @BeforeEach
+    void seed() {
+        List<UUID> shops = testData.shops(SHOPS);
+        testData.products(PRODUCTS, shops, testData.categories(CATEGORIES));
+        // Other tests sharing the database leave products behind
+        seeded = (root, query, cb) -> cb.and(cb.isFalse(root.get("isDeleted")), root.get("shopId").in(shops));
+        products = repositoryFactory.getRepository(ProductsEntity.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void projectedPageReadsTheSameRowsWithoutManagingEntities() {
+        Read entities = read(() -> entityPage(3));
+        Read projections = read(() -> projectedPage(3));
+
+        assertEquals(PAGE_SIZE, projections.rows().size());
+        assertEquals(entities.rows().stream().map(ProjectionBenchmarkTest::describe).toList(),
+                projections.rows().stream().map(ProjectionBenchmarkTest::describe).toList());
+        // Shop and category come in the same statement either way
+        assertEquals(1, entities.statements());
+        assertEquals(1, projections.statements());
+        // The page and the row read ahead to tell whether there is a next slice, plus every shop and category
+        assertEquals(PAGE_SIZE + 1 + SHOPS + CATEGORIES, entities.managed());
+        assertEquals(0, projections.managed());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void projectedPagesAllocateLessThanEntityPages() {
+        long entityBytes = allocatedPerPage(this::entityPage);
+        long projectedBytes = allocatedPerPage(this::projectedPage);
+
+        assertTrue(projectedBytes < entityBytes,
+                "projected page " + projectedBytes + " bytes, entity page " + entityBytes + " bytes");
+    }
+
+    private List<ProductResponseDto> entityPage(int page) {
+        return products.findSlice(seeded, pageRequest(page), PRODUCT_GRAPH).getContent().stream()
+                .map(ProjectionBenchmarkTest::toResponseDto)
+                .toList();
+    }
+
+    private List<ProductResponseDto> projectedPage(int page) {
+        return products.findSlice(seeded, pageRequest(page), PRODUCT_ROW).getContent();
+    }
+
+    /**
+     * Read one page in a read-only transaction, counting statements and the entities it left managed
+     */
+    private Read read(Supplier<List<ProductResponseDto>> page) {
+        return readOnly.execute(status -> {
+            Statistics statistics = testData.statistics();
+            List<ProductResponseDto> rows = page.get();
+            int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            return new Read(rows, statistics.getPrepareStatementCount(), managed);
+        });
+    }
+
+    private long allocatedPerPage(IntFunction<List<ProductResponseDto>> readPage) {
+        int pages = PRODUCTS / PAGE_SIZE;
+        for (int i = 0; i < WARMUP_PAGES; i++) {
+            int page = i % pages;
+            readOnly.execute(status -> readPage.apply(page));
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            int page = i % pages;
+            readOnly.execute(status -> readPage.apply(page));
+        }
+        return (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / MEASURED_PAGES;
+    }
+
+    private static PageRequest pageRequest(int page) {
+        return PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    /**
+     * The entity-to-DTO mapping the list endpoints used before projections
+     */
+    private static ProductResponseDto toResponseDto(ProductsEntity product) {
+        return new ProductResponseDto(product.getId(), product.getSKU(), product.getName(), product.getDescription(),
+                product.getStatus(), product.getShopId(), product.getShop().getName(), product.getCategoryId(),
+                product.getCategory().getName(), product.getCreatedAt(), product.getUpdatedAt(), product.getVersion());
+    }
+
+    private static String describe(ProductResponseDto product) {
+        return product.getId() + "|" + product.getSku() + "|" + product.getShopName() + "|" + product.getCategoryName()
+                + "|" + product.getCreatedAt();
+    }
+
+    private record Read(List<ProductResponseDto> rows, long statements, int managed) {
+    }
+}
@@ -0,0 +1,123 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.repository.factory.RepositoryFactory;
+import product.asia.shop.support.RepositoryTest;
+import product.asia.shop.support.TestData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads a product page (shop and category join-fetched) in a read-write and in a read-only transaction.
+ * The read-only session loads the entities read-only: it keeps no loaded-state snapshot to dirty-check
+ * and never flushes.
+ */
+@RepositoryTest
+class ReadOnlySessionTest {
+
+    private static final int PRODUCTS = 60;
+    private static final int SHOPS = 4;
+    private static final int CATEGORIES = 3;
+    private static final int PAGE_SIZE = 20;
+
+    private static final FetchPlan PRODUCT_GRAPH = FetchPlan.named(ProductsEntity.GRAPH_CATEGORY_AND_SHOP);
+
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TestData testData;
+
+    private GenericRepository<ProductsEntity, UUID> products;
+    private Specification<ProductsEntity> seeded;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void seed() {
+        List<UUID> shops = testData.shops(SHOPS);
+        testData.products(PRODUCTS, shops, testData.categories(CATEGORIES));
+        // Other tests sharing the database leave products behind
+        seeded = (root, query, cb) -> cb.and(cb.isFalse(root.get("isDeleted")), root.get("shopId").in(shops));
+        products = repositoryFactory.getRepository(ProductsEntity.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlySessionKeepsNoSnapshots() {
+        // The page and the row read ahead to tell whether there is a next slice, plus every shop and category
+        int managed = PAGE_SIZE + 1 + SHOPS + CATEGORIES;
+
+        Session readWriteSession = readWrite.execute(status -> readPage());
+        assertEquals(managed, readWriteSession.managed());
+        assertEquals(managed, readWriteSession.snapshots());
+        assertEquals(FlushMode.AUTO, readWriteSession.flushMode());
+
+        Session readOnlySession = readOnly.execute(status -> readPage());
+        assertEquals(managed, readOnlySession.managed());
+        assertEquals(0, readOnlySession.snapshots());
+        assertTrue(readOnlySession.allReadOnly());
+        assertEquals(FlushMode.MANUAL, readOnlySession.flushMode());
+    }
+
+    @Test
+    void readOnlySessionDoesNotWriteChanges() {
+        UUID id = readOnly.execute(status -> {
+            ProductsEntity product = products.findSlice(seeded, pageRequest(), PRODUCT_GRAPH).getContent().get(0);
+            product.setName("Renamed");
+            return product.getId();
+        });
+
+        String name = jdbcTemplate.queryForObject("select name from products where id = ?", String.class, id);
+        assertTrue(name.startsWith("Product "), name);
+    }
+
+    private Session readPage() {
+        List<ProductsEntity> page = products.findSlice(seeded, pageRequest(), PRODUCT_GRAPH).getContent();
+        assertEquals(PAGE_SIZE, page.size());
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        int managed = 0;
+        int snapshots = 0;
+        boolean allReadOnly = true;
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            managed++;
+            if (entry.getValue().getLoadedState() != null) {
+                snapshots++;
+            }
+            allReadOnly &= entry.getValue().isReadOnly();
+        }
+        return new Session(managed, snapshots, allReadOnly, session.getHibernateFlushMode());
+    }
+
+    private static PageRequest pageRequest() {
+        return PageRequest.of(1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    private record Session(int managed, int snapshots, boolean allReadOnly, FlushMode flushMode) {
+    }
+}
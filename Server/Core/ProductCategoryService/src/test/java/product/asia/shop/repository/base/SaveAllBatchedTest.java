@@ -0,0 +1,96 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.entities.ShopsEntity;
+import product.asia.shop.repository.factory.RepositoryFactory;
+import product.asia.shop.support.RepositoryTest;
+import product.asia.shop.support.TestData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts the same rows through saveAll, one statement per row as the repository wrote before JDBC
+ * batching, and through saveAllBatched, and counts the statements prepared and the entities left in the
+ * persistence context at commit.
+ */
+@RepositoryTest
+// Unbatched, as before; saveAllBatched sets its own batch size on the session
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=1")
+class SaveAllBatchedTest {
+
+    private static final int ROWS = 2_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void batchedInsertsAgainstRowByRow() {
+        Written rowByRow = insert("row-", (repository, rows) -> repository.saveAll(rows));
+        Written batched = insert("batched-", (repository, rows) -> repository.saveAllBatched(rows, BATCH_SIZE));
+
+        assertEquals(ROWS, rowByRow.statements());
+        assertEquals(ROWS / BATCH_SIZE, batched.statements());
+        assertEquals(ROWS, rowByRow.managed());
+        assertEquals(0, batched.managed());
+        assertEquals(ROWS, jdbcTemplate.queryForObject(
+                "select count(*) from shops where name like 'batched-%'", Integer.class));
+    }
+
+    private Written insert(String prefix, BiConsumer<GenericRepository<ShopsEntity, UUID>, List<ShopsEntity>> save) {
+        GenericRepository<ShopsEntity, UUID> repository = repositoryFactory.getRepository(ShopsEntity.class);
+        List<ShopsEntity> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(shop(prefix + i));
+        }
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Statistics statistics = testData.statistics();
+            save.accept(repository, rows);
+            entityManager.flush();
+            int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+            return new Written(statistics.getPrepareStatementCount(), managed);
+        });
+    }
+
+    private static ShopsEntity shop(String name) {
+        ShopsEntity shop = new ShopsEntity();
+        shop.setName(name);
+        shop.setDescription("description");
+        shop.setAddress("address");
+        shop.setPhone("0123456789");
+        shop.setEmail("shop@example.com");
+        shop.setWebsite("https://example.com");
+        shop.setLogo("logo");
+        shop.setCreatedBy("test");
+        shop.setUpdatedBy("test");
+        // Not audited outside Spring Data repositories
+        ReflectionTestUtils.setField(shop, "updatedAt", LocalDateTime.now());
+        return shop;
+    }
+
+    private record Written(long statements, int managed) {
+    }
+}
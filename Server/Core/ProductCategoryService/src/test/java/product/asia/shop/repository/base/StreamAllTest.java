@@ -0,0 +1,91 @@
+package product.asia.shop.repository.base;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import product.asia.shop.entities.ProductsEntity;
+import product.asia.shop.repository.factory.RepositoryFactory;
+import product.asia.shop.support.RepositoryTest;
+import product.asia.shop.support.TestData;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams a table far larger than a fetch through streamAll and checks that the persistence context
+ * holds at most the entity being consumed, and that closing the stream releases the cursor before the
+ * transaction ends.
+ */
+@RepositoryTest
+class StreamAllTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int FETCH_SIZE = 500;
+
+    @Autowired
+    private RepositoryFactory repositoryFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TestData testData;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void persistenceContextStaysFlatAndCursorIsClosed() {
+        UUID shop = testData.shops(1).get(0);
+        testData.products(PRODUCTS, List.of(shop), testData.categories(1));
+        // Other tests sharing the database leave products behind
+        Specification<ProductsEntity> seeded = (root, query, cb) -> cb.equal(root.get("shopId"), shop);
+        GenericRepository<ProductsEntity, UUID> products = repositoryFactory.getRepository(ProductsEntity.class);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            int maxManaged = 0;
+            int streamed = 0;
+            String previousSku = "";
+            Statistics statistics = testData.statistics();
+            try (Stream<ProductsEntity> stream = products.streamAll(seeded, Sort.by("SKU"), FETCH_SIZE)) {
+                assertTrue(hasOpenJdbcResources());
+                for (Iterator<ProductsEntity> rows = stream.iterator(); rows.hasNext(); ) {
+                    ProductsEntity product = rows.next();
+                    assertTrue(product.getSKU().compareTo(previousSku) > 0);
+                    previousSku = product.getSKU();
+                    maxManaged = Math.max(maxManaged, session.getStatistics().getEntityCount());
+                    streamed++;
+                }
+            }
+            assertFalse(hasOpenJdbcResources());
+
+            assertEquals(PRODUCTS, streamed);
+            // One query, read through the cursor rather than page by page
+            assertEquals(1, statistics.getPrepareStatementCount());
+            // Only the row being consumed: every earlier one was detached
+            assertTrue(maxManaged <= 1, "managed entities: " + maxManaged);
+            assertEquals(0, session.getStatistics().getEntityCount());
+        });
+    }
+
+    /**
+     * Whether the session still holds statements or result sets
+     */
+    private boolean hasOpenJdbcResources() {
+        return entityManager.unwrap(SessionImplementor.class).getJdbcCoordinator().getLogicalConnection()
+                .getResourceRegistry().hasRegisteredResources();
+    }
+}
@@ -0,0 +1,62 @@
+package product.asia.shop.repository.query;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import product.asia.shop.support.RepositoryTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the compiled repository queries on H2 and checks the SQL and plans it reports.
+ */
+@RepositoryTest
+@Import(IndexAudit.class)
+class IndexAuditTest {
+
+    @Autowired
+    private IndexAudit indexAudit;
+    @Autowired
+    private DerivedQueryEngine queryEngine;
+
+    @Test
+    void explainsEveryReadQuery() {
+        List<IndexAudit.Result> results = indexAudit.audit();
+
+        long readQueries = queryEngine.getPlans().stream().filter(plan -> !plan.isModifying()).count();
+        assertEquals(readQueries, results.stream().filter(result -> !result.method().endsWith(" (count)")).count());
+        // H2 does not create attribute_allowed_values, its value column is a keyword there
+        List<IndexAudit.Result> errors = results.stream()
+                .filter(result -> result.error() != null && !result.method().startsWith("AttributeAllowedValueRepository."))
+                .toList();
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    void flagsQueriesScanningATable() {
+        List<IndexAudit.Result> results = indexAudit.audit();
+        Map<String, IndexAudit.Result> byMethod = results.stream()
+                .collect(Collectors.toMap(IndexAudit.Result::method, Function.identity()));
+
+        IndexAudit.Result scan = byMethod.get("AttributeRepository.findByIsDeletedFalse (count)");
+        assertTrue(scan.scan());
+        assertTrue(scan.sql().startsWith("select count(ae1_0.id) from attributes ae1_0 where"), scan.sql());
+        assertTrue(scan.plan().get(0).contains("PUBLIC.ATTRIBUTES.tableScan"), scan.plan().toString());
+
+        IndexAudit.Result seek = byMethod.get("CategoryRepository.existsByNameAndIsDeletedFalse");
+        assertFalse(seek.scan());
+        assertTrue(seek.sql().contains("ce1_0.name=?"), seek.sql());
+        assertTrue(seek.plan().get(0).contains("PUBLIC.IDX_CATEGORIES_DELETED_NAME"), seek.plan().toString());
+
+        // Scans come first
+        int firstSeek = results.indexOf(results.stream().filter(result -> !result.scan()).findFirst().orElseThrow());
+        assertTrue(results.subList(firstSeek, results.size()).stream().noneMatch(IndexAudit.Result::scan));
+    }
+}
@@ -0,0 +1,166 @@
+package product.asia.shop.repository.unitofwork;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import product.asia.shop.config.CacheConfig;
+import product.asia.shop.config.RepositoryConfig;
+import product.asia.shop.entities.TranslationsEntity;
+import product.asia.shop.repository.TranslationRepository;
+import product.asia.shop.repository.factory.RepositoryFactoryImpl;
+import product.asia.shop.repository.query.DerivedQueryEngine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the shared UnitOfWork from thousands of virtual threads at once
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({UnitOfWorkImpl.class, DerivedQueryEngine.class, RepositoryFactoryImpl.class, RepositoryConfig.class, CacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UnitOfWorkImplConcurrencyTest {
+
+    private static final int THREADS = 2_000;
+
+    @Autowired
+    private UnitOfWork unitOfWork;
+    @Autowired
+    private TranslationRepository translationRepository;
+
+    @Test
+    void executeInTransactionFromThousandsOfVirtualThreads() throws Exception {
+        String entityType = "stress-" + UUID.randomUUID();
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> unitOfWork.executeInTransaction(() -> {
+                    assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+                    unitOfWork.getRepository(TranslationsEntity.class).save(translation(entityType, index));
+                    if (index % 10 == 0) {
+                        throw new IllegalStateException("rollback " + index);
+                    }
+                })));
+            }
+        }
+
+        int rolledBack = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // Exceptions of the action come back unchanged
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+                rolledBack++;
+            }
+        }
+
+        assertEquals(THREADS / 10, rolledBack);
+        long committed = unitOfWork.executeInTransaction(() ->
+                translationRepository.countByEntityTypeAndIsDeletedFalse(entityType));
+        assertEquals(THREADS - rolledBack, committed);
+        assertFalse(unitOfWork.isTransactionActive());
+    }
+
+    @Test
+    void explicitTransactionsAreIsolatedPerThread() throws Exception {
+        String entityType = "explicit-" + UUID.randomUUID();
+        int threads = 200;
+        CountDownLatch allBegun = new CountDownLatch(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    unitOfWork.beginTransaction();
+                    try {
+                        unitOfWork.getRepository(TranslationsEntity.class).save(translation(entityType, index));
+                        // Every thread holds its own open transaction at the same time
+                        allBegun.countDown();
+                        assertTrue(allBegun.await(30, TimeUnit.SECONDS));
+                        assertTrue(unitOfWork.isTransactionActive());
+                        if (index % 2 == 0) {
+                            unitOfWork.commit();
+                        } else {
+                            unitOfWork.rollback();
+                        }
+                    } finally {
+                        unitOfWork.close();
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertFalse(unitOfWork.isTransactionActive());
+        assertThrows(IllegalStateException.class, unitOfWork::commit);
+        long committed = unitOfWork.executeInTransaction(() ->
+                translationRepository.countByEntityTypeAndIsDeletedFalse(entityType));
+        assertEquals(threads / 2, committed);
+    }
+
+    @Test
+    void queriesSeePendingSavesAndCloseRollsBack() {
+        String entityType = "pending-" + UUID.randomUUID();
+        UnitOfWork work = unitOfWork;
+        try (work) {
+            work.beginTransaction();
+            work.getRepository(TranslationsEntity.class).save(translation(entityType, 0));
+            // Auto-flushed before the query runs
+            assertEquals(1, translationRepository.countByEntityTypeAndIsDeletedFalse(entityType));
+        }
+
+        assertFalse(unitOfWork.isTransactionActive());
+        assertEquals(0, unitOfWork.executeInTransaction(() ->
+                translationRepository.countByEntityTypeAndIsDeletedFalse(entityType)));
+    }
+
+    @Test
+    void batchedWritesAreFlushedAtCommit() {
+        String entityType = "batched-" + UUID.randomUUID();
+        long pendingCount = unitOfWork.executeBatched(() -> {
+            unitOfWork.getRepository(TranslationsEntity.class).save(translation(entityType, 0));
+            // Not flushed before the query
+            return translationRepository.countByEntityTypeAndIsDeletedFalse(entityType);
+        });
+
+        assertEquals(0, pendingCount);
+        assertEquals(1, unitOfWork.executeInTransaction(() ->
+                translationRepository.countByEntityTypeAndIsDeletedFalse(entityType)));
+    }
+
+    private static TranslationsEntity translation(String entityType, int index) {
+        TranslationsEntity translation = new TranslationsEntity();
+        translation.setEntityType(entityType);
+        translation.setEntityId(UUID.randomUUID());
+        translation.setLocale("en");
+        translation.setField("name");
+        translation.setTranslation("value " + index);
+        translation.setCreatedBy("test");
+        translation.setUpdatedBy("test");
+        ReflectionTestUtils.setField(translation, "updatedAt", LocalDateTime.now());
+        return translation;
+    }
+}
@@ -0,0 +1,126 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scores hand-built postings and field lengths: the BM25 value itself, and how rarity, field boosts, field
+ * lengths, repetition and fuzzy words move it.
+ */
+class Bm25ScorerTest {
+
+    private final FieldLengths lengths = new FieldLengths();
+
+    @Test
+    void scoreFollowsTheBm25Formula() {
+        Postings term = new Postings();
+        // Three documents, names of 2, 4 and 6 terms; the term once in the first two names
+        document(0, 2, 0);
+        document(1, 4, 0);
+        document(2, 6, 0);
+        term.add(0, frequencies(1, 0));
+        term.add(1, frequencies(1, 0));
+
+        Bm25Scorer scorer = scorer(List.of(List.of(new Bm25Scorer.Term(term, 1))));
+
+        double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+        // Boost 3 on names, average name length 4, k1 1.2, b 0.75
+        double first = 3 * 1 / (1 - 0.75 + 0.75 * 2 / 4.0);
+        double second = 3 * 1 / (1 - 0.75 + 0.75 * 4 / 4.0);
+        assertEquals(idf * 2.2 * first / (first + 1.2), scorer.score(0), 1e-5);
+        assertEquals(idf * 2.2 * second / (second + 1.2), scorer.score(1), 1e-5);
+        assertEquals(0, scorer.score(2));
+    }
+
+    @Test
+    void rareTermsOutweighCommonOnes() {
+        Postings common = new Postings();
+        Postings rare = new Postings();
+        for (int ordinal = 0; ordinal < 10; ordinal++) {
+            document(ordinal, 3, 0);
+            common.add(ordinal, frequencies(1, 0));
+        }
+        rare.add(4, frequencies(1, 0));
+
+        Bm25Scorer scorer = scorer(List.of(List.of(new Bm25Scorer.Term(common, 1)), List.of(new Bm25Scorer.Term(rare, 1))));
+
+        float withoutRare = scorer.score(3);
+        float withRare = scorer.score(4);
+        assertTrue(withRare > 2 * withoutRare, withRare + " " + withoutRare);
+    }
+
+    @Test
+    void nameMatchesOutweighDescriptionMatches() {
+        Postings term = new Postings();
+        document(0, 4, 4);
+        document(1, 4, 4);
+        term.add(0, frequencies(1, 0));
+        term.add(1, frequencies(0, 1));
+
+        Bm25Scorer scorer = scorer(List.of(List.of(new Bm25Scorer.Term(term, 1))));
+
+        assertTrue(scorer.score(0) > scorer.score(1));
+    }
+
+    @Test
+    void shorterFieldsAndRepeatsScoreHigherWithDiminishingReturns() {
+        Postings term = new Postings();
+        document(0, 2, 0);
+        document(1, 8, 0);
+        document(2, 8, 0);
+        document(3, 8, 0);
+        term.add(0, frequencies(1, 0));
+        term.add(1, frequencies(1, 0));
+        term.add(2, frequencies(2, 0));
+        term.add(3, frequencies(4, 0));
+
+        Bm25Scorer scorer = scorer(List.of(List.of(new Bm25Scorer.Term(term, 1))));
+        float shortOnce = scorer.score(0);
+        float once = scorer.score(1);
+        float twice = scorer.score(2);
+        float fourTimes = scorer.score(3);
+
+        assertTrue(shortOnce > once);
+        assertTrue(twice > once && twice < 2 * once);
+        assertTrue(fourTimes - twice < twice - once);
+    }
+
+    @Test
+    void termScoresWithTheBestOfItsWords() {
+        Postings exact = new Postings();
+        Postings fuzzy = new Postings();
+        for (int ordinal = 0; ordinal < 4; ordinal++) {
+            document(ordinal, 3, 0);
+        }
+        // Same document frequency, so both words have the same idf
+        exact.add(0, frequencies(1, 0));
+        exact.add(2, frequencies(1, 0));
+        fuzzy.add(1, frequencies(1, 0));
+        fuzzy.add(2, frequencies(1, 0));
+
+        Bm25Scorer scorer = scorer(List.of(List.of(new Bm25Scorer.Term(exact, 1),
+                new Bm25Scorer.Term(fuzzy, Bm25Scorer.FUZZY_WEIGHT))));
+
+        float exactMatch = scorer.score(0);
+        assertEquals(Bm25Scorer.FUZZY_WEIGHT * exactMatch, scorer.score(1), 1e-5);
+        // Matching both words counts the better one only
+        assertEquals(exactMatch, scorer.score(2), 1e-5);
+        assertEquals(0, scorer.score(3));
+    }
+
+    private void document(int ordinal, int nameLength, int descriptionLength) {
+        lengths.add(ordinal, new int[]{nameLength, 1, descriptionLength, 0});
+    }
+
+    private Bm25Scorer scorer(List<List<Bm25Scorer.Term>> groups) {
+        return new Bm25Scorer(groups, lengths);
+    }
+
+    private static int frequencies(int name, int description) {
+        return FieldLengths.pack(new int[]{name, 0, description, 0});
+    }
+}
@@ -0,0 +1,134 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+import product.asia.shop.dto.ProductSearchRequestDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Filters and facet counts over a handful of products, and the value keys attribute values are indexed under.
+ */
+class FacetIndexTest {
+
+    private static final UUID SHOP = UUID.randomUUID();
+    private static final UUID OTHER_SHOP = UUID.randomUUID();
+    private static final UUID CATEGORY = UUID.randomUUID();
+    private static final UUID COLOR = UUID.randomUUID();
+    private static final UUID MATERIAL = UUID.randomUUID();
+
+    private final FacetIndex facets = new FacetIndex();
+
+    @Test
+    void valueKeysNormalizeNumbersDatesAndText() {
+        assertEquals("1.5", FacetIndex.valueKey(new BigDecimal("1.50")));
+        assertEquals("2", FacetIndex.valueKey(2.0));
+        assertEquals("2", FacetIndex.valueKey(" 2.00 "));
+        assertEquals("2026-03-01", FacetIndex.valueKey(LocalDateTime.of(2026, 3, 1, 10, 30)));
+        assertEquals("2026-03-01", FacetIndex.valueKey(LocalDate.of(2026, 3, 1)));
+        assertEquals("true", FacetIndex.valueKey(true));
+        assertEquals("xanh la", FacetIndex.valueKey("Xanh Lá"));
+        assertNull(FacetIndex.valueKey(" "));
+        assertNull(FacetIndex.valueKey(null));
+    }
+
+    @Test
+    void filtersOnShopCategoryStatusAndAttributes() {
+        facets.add(0, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("red"), MATERIAL, Set.of("cotton"))));
+        facets.add(1, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("blue"), MATERIAL, Set.of("cotton"))));
+        facets.add(2, product(OTHER_SHOP, "ACTIVE", Map.of(COLOR, Set.of("red"))));
+        facets.add(3, product(SHOP, "DRAFT", Map.of(COLOR, Set.of("red", "blue"))));
+
+        assertEquals(List.of(0, 1, 2, 3), ordinals(facets.filter(new ProductSearchRequestDto())));
+        assertEquals(List.of(0, 1, 3), ordinals(facets.filter(request(SHOP, null, Map.of()))));
+        assertEquals(List.of(0, 1), ordinals(facets.filter(request(SHOP, "active", Map.of()))));
+        assertEquals(List.of(0, 2, 3), ordinals(facets.filter(request(null, null, Map.of(COLOR, "Red")))));
+        assertEquals(List.of(0), ordinals(facets.filter(request(null, null, Map.of(COLOR, "red", MATERIAL, "cotton")))));
+        assertEquals(List.of(), ordinals(facets.filter(request(null, null, Map.of(COLOR, "green")))));
+        assertEquals(List.of(), ordinals(facets.filter(request(UUID.randomUUID(), null, Map.of()))));
+
+        ProductSearchRequestDto otherCategory = new ProductSearchRequestDto();
+        otherCategory.setCategoryId(UUID.randomUUID());
+        assertEquals(List.of(), ordinals(facets.filter(otherCategory)));
+    }
+
+    @Test
+    void severalValuesOfOneAttributeMatchAnyOfThem() {
+        facets.add(0, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("red"))));
+        facets.add(1, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("blue"))));
+        facets.add(2, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("green"))));
+
+        // A JSON array, and a query parameter given twice
+        assertEquals(List.of(0, 1), ordinals(facets.filter(request(null, null, Map.of(COLOR, List.of("red", "blue"))))));
+        assertEquals(List.of(1, 2), ordinals(facets.filter(request(null, null,
+                Map.of(COLOR, new String[]{"blue", "green"})))));
+    }
+
+    @Test
+    void textValuesContainingCommasMatchWhole() {
+        facets.add(0, product(SHOP, "ACTIVE", Map.of(MATERIAL, Set.of(FacetIndex.valueKey("Cotton, Linen")))));
+        facets.add(1, product(SHOP, "ACTIVE", Map.of(MATERIAL, Set.of("cotton"))));
+
+        assertEquals(List.of(0), ordinals(facets.filter(request(null, null, Map.of(MATERIAL, "cotton, linen")))));
+        assertEquals(List.of(1), ordinals(facets.filter(request(null, null, Map.of(MATERIAL, "cotton")))));
+    }
+
+    @Test
+    void countsProductsOfTheResultPerValue() {
+        facets.add(0, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("red"), MATERIAL, Set.of("cotton"))));
+        facets.add(1, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("blue"))));
+        facets.add(2, product(OTHER_SHOP, "ACTIVE", Map.of(COLOR, Set.of("red", "blue"))));
+
+        assertEquals(Map.of(COLOR, Map.of("red", 2L, "blue", 2L), MATERIAL, Map.of("cotton", 1L)),
+                facets.counts(facets.filter(new ProductSearchRequestDto()), List.of(COLOR, MATERIAL)));
+        // Values and attributes without products in the result are left out
+        assertEquals(Map.of(COLOR, Map.of("blue", 1L)),
+                facets.counts(facets.filter(request(SHOP, null, Map.of(COLOR, "blue"))),
+                        List.of(COLOR, MATERIAL)));
+        assertEquals(Map.of(COLOR, Map.of("red", 1L, "blue", 1L)),
+                facets.counts(facets.filter(request(OTHER_SHOP, null, Map.of())), List.of(COLOR, MATERIAL)));
+    }
+
+    @Test
+    void removedProductsLeaveTheFiltersAndCounts() {
+        ProductDocument red = product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("red")));
+        facets.add(0, red);
+        facets.add(1, product(SHOP, "ACTIVE", Map.of(COLOR, Set.of("blue"))));
+
+        facets.remove(0, red);
+
+        assertEquals(List.of(1), ordinals(facets.filter(request(SHOP, null, Map.of()))));
+        assertEquals(List.of(), ordinals(facets.filter(request(null, null, Map.of(COLOR, "red")))));
+        assertEquals(Map.of(COLOR, Map.of("blue", 1L)),
+                facets.counts(facets.filter(new ProductSearchRequestDto()), List.of(COLOR)));
+    }
+
+    private static ProductSearchRequestDto request(UUID shopId, String status, Map<UUID, Object> attributeFilters) {
+        ProductSearchRequestDto request = new ProductSearchRequestDto();
+        request.setShopId(shopId);
+        request.setStatus(status);
+        request.setAttributeFilters(attributeFilters);
+        return request;
+    }
+
+    private static ProductDocument product(UUID shopId, String status, Map<UUID, Set<String>> attributes) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ProductDocument(UUID.randomUUID(), "SKU", "Product", "", shopId, CATEGORY, status, now, now, "",
+                attributes);
+    }
+
+    private static List<Integer> ordinals(OrdinalBitmap bitmap) {
+        List<Integer> ordinals = new ArrayList<>();
+        bitmap.forEach(ordinals::add);
+        return ordinals;
+    }
+}
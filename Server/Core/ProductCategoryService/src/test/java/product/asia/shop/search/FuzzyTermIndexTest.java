@@ -0,0 +1,170 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bounded Damerau distance against a plain one, and that the bigram filter finds every indexed
+ * term within the allowed edits of a misspelled word.
+ */
+class FuzzyTermIndexTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    private final FuzzyTermIndex index = new FuzzyTermIndex();
+
+    @Test
+    void distanceCountsASwapOfAdjacentLettersAsOneEdit() {
+        assertEquals(0, FuzzyTermIndex.distance("receive", "receive", 2));
+        assertEquals(1, FuzzyTermIndex.distance("recieve", "receive", 2));
+        assertEquals(1, FuzzyTermIndex.distance("teh", "the", 2));
+        assertEquals(1, FuzzyTermIndex.distance("runing", "running", 2));
+        assertEquals(1, FuzzyTermIndex.distance("running", "runing", 2));
+        assertEquals(1, FuzzyTermIndex.distance("laptop", "lapdop", 2));
+        assertEquals(2, FuzzyTermIndex.distance("lpatop", "laptpo", 2));
+        // Past the bound the distance is reported as one more than the bound
+        assertEquals(2, FuzzyTermIndex.distance("keyboard", "monitor", 1));
+        assertEquals(3, FuzzyTermIndex.distance("keyboard", "kbyeoadr", 2));
+        assertEquals(4, FuzzyTermIndex.distance("", "abcd", 10));
+    }
+
+    @Test
+    void distanceMatchesAnUnboundedComputation() {
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            String a = randomWord(random, 1 + random.nextInt(8));
+            String b = random.nextBoolean() ? mutate(a, 1 + random.nextInt(3), random) : randomWord(random, 1 + random.nextInt(8));
+            int expected = osaDistance(a, b);
+            assertEquals(expected, FuzzyTermIndex.distance(a, b, 20), a + " " + b);
+            for (int max = 0; max <= 3; max++) {
+                assertEquals(Math.min(expected, max + 1), FuzzyTermIndex.distance(a, b, max), a + " " + b + " " + max);
+            }
+        }
+    }
+
+    @Test
+    void allowedEditsGrowWithTheLengthOfLetterTerms() {
+        assertEquals(0, FuzzyTermIndex.allowedEdits("tv", 2));
+        assertEquals(0, FuzzyTermIndex.allowedEdits("usb", 2));
+        assertEquals(1, FuzzyTermIndex.allowedEdits("lamp", 2));
+        assertEquals(1, FuzzyTermIndex.allowedEdits("blender", 2));
+        assertEquals(2, FuzzyTermIndex.allowedEdits("keyboard", 2));
+        assertEquals(1, FuzzyTermIndex.allowedEdits("keyboard", 1));
+        assertEquals(0, FuzzyTermIndex.allowedEdits("keyboard", 0));
+        // Model numbers and SKUs are not expanded
+        assertEquals(0, FuzzyTermIndex.allowedEdits("a55x", 2));
+        assertFalse(FuzzyTermIndex.isFuzzy("sku00123"));
+        assertTrue(FuzzyTermIndex.isFuzzy("điện"));
+    }
+
+    @Test
+    void similarTermsClosestThenMostFrequentFirst() {
+        List.of("shirt", "skirt", "shirts", "short", "shift", "t1000", "sh").forEach(index::add);
+        Map<String, Integer> frequencies = Map.of("shirt", 50, "skirt", 30, "shirts", 10, "short", 80, "shift", 5);
+
+        // One edit each; "shirt" itself, digits and short terms are left out
+        assertEquals(List.of("short", "skirt", "shirts", "shift"),
+                index.similar("shirt", 1, 10, NO_DEADLINE, frequencies::get));
+        assertEquals(List.of("shirt"), index.similar("shrit", 1, 10, NO_DEADLINE, frequencies::get));
+        assertEquals(List.of("short", "skirt"), index.similar("shirt", 1, 2, NO_DEADLINE, frequencies::get));
+        assertEquals(List.of(), index.similar("shirt", 0, 10, NO_DEADLINE, frequencies::get));
+        // No time left to compare candidates
+        assertEquals(List.of(), index.similar("shirt", 1, 10, System.nanoTime() - 1, frequencies::get));
+
+        index.remove("short");
+        index.remove("t1000");
+        assertEquals(List.of("skirt", "shirts", "shift"), index.similar("shirt", 1, 10, NO_DEADLINE, frequencies::get));
+    }
+
+    @Test
+    void everyTermWithinTheAllowedEditsIsFound() {
+        Random random = new Random(5);
+        Set<String> dictionary = new TreeSet<>();
+        while (dictionary.size() < 3_000) {
+            dictionary.add(randomWord(random, 4 + random.nextInt(9)));
+        }
+        dictionary.forEach(index::add);
+        List<String> terms = new ArrayList<>(dictionary);
+
+        for (int i = 0; i < 500; i++) {
+            String query = mutate(terms.get(random.nextInt(terms.size())), 1 + random.nextInt(2), random);
+            int edits = FuzzyTermIndex.allowedEdits(query, 2);
+            Set<String> expected = new TreeSet<>();
+            for (String term : dictionary) {
+                if (!term.equals(query) && osaDistance(query, term) <= edits) {
+                    expected.add(term);
+                }
+            }
+            assertEquals(expected, new TreeSet<>(index.similar(query, edits, Integer.MAX_VALUE, NO_DEADLINE, term -> 1)),
+                    query);
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(8)));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Apply random substitutions, insertions, deletions and swaps of adjacent letters
+     */
+    private static String mutate(String word, int edits, Random random) {
+        StringBuilder mutated = new StringBuilder(word);
+        for (int i = 0; i < edits; i++) {
+            int at = random.nextInt(mutated.length());
+            switch (random.nextInt(4)) {
+                case 0 -> mutated.setCharAt(at, (char) ('a' + random.nextInt(8)));
+                case 1 -> mutated.insert(at, (char) ('a' + random.nextInt(8)));
+                case 2 -> {
+                    if (mutated.length() > 1) {
+                        mutated.deleteCharAt(at);
+                    }
+                }
+                default -> {
+                    if (at + 1 < mutated.length()) {
+                        char c = mutated.charAt(at);
+                        mutated.setCharAt(at, mutated.charAt(at + 1));
+                        mutated.setCharAt(at + 1, c);
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+
+    /**
+     * Optimal string alignment distance over the full matrix
+     */
+    private static int osaDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,129 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bitmap against a sorted set, across array containers, bitmap containers and the switches
+ * between them at 4096 ordinals.
+ */
+class OrdinalBitmapTest {
+
+    private static final int ARRAY_LIMIT = 4096;
+
+    @Test
+    void containerTurnsIntoABitmapPastTheArrayLimitAndBack() {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i <= ARRAY_LIMIT; i++) {
+            bitmap.add(i * 3);
+            expected.add(i * 3);
+        }
+        // Already present, in either form
+        bitmap.add(0);
+        bitmap.add(ARRAY_LIMIT * 3);
+        assertMatches(expected, bitmap);
+
+        bitmap.remove(3);
+        bitmap.remove(4);
+        expected.remove(3);
+        assertMatches(expected, bitmap);
+        assertFalse(bitmap.contains(3));
+        assertTrue(bitmap.contains(6));
+    }
+
+    @Test
+    void ordinalsSpreadOverSeveralContainers() {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int ordinal : new int[]{70_000, 5, 1 << 20, 65_535, 65_536, 200_000}) {
+            bitmap.add(ordinal);
+            expected.add(ordinal);
+        }
+        assertMatches(expected, bitmap);
+
+        // Emptied containers are dropped
+        for (int ordinal : new int[]{70_000, 65_536, 5, 65_535, 1 << 20, 200_000}) {
+            bitmap.remove(ordinal);
+            expected.remove(ordinal);
+            assertMatches(expected, bitmap);
+        }
+        assertTrue(bitmap.isEmpty());
+        bitmap.remove(42);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void setOperationsMatchASortedSet() {
+        Random random = new Random(7);
+        // Sparse and dense containers on both sides, and containers only one side has
+        int[][] densities = {{100, 100}, {100, 6_000}, {6_000, 100}, {6_000, 30_000}, {0, 5_000}, {3_000, 0}};
+        OrdinalBitmap left = new OrdinalBitmap();
+        OrdinalBitmap right = new OrdinalBitmap();
+        TreeSet<Integer> leftSet = new TreeSet<>();
+        TreeSet<Integer> rightSet = new TreeSet<>();
+        for (int container = 0; container < densities.length; container++) {
+            fill(left, leftSet, container, densities[container][0], random);
+            fill(right, rightSet, container, densities[container][1], random);
+        }
+
+        TreeSet<Integer> intersection = new TreeSet<>(leftSet);
+        intersection.retainAll(rightSet);
+        TreeSet<Integer> union = new TreeSet<>(leftSet);
+        union.addAll(rightSet);
+
+        assertMatches(intersection, left.and(right));
+        assertMatches(intersection, right.and(left));
+        assertEquals(intersection.size(), left.andCardinality(right));
+        assertEquals(intersection.size(), right.andCardinality(left));
+        assertMatches(union, left.or(right));
+        assertMatches(union, right.or(left));
+        // Neither operand changed
+        assertMatches(leftSet, left);
+        assertMatches(rightSet, right);
+    }
+
+    @Test
+    void orCopiesTheContainersItDoesNotMerge() {
+        OrdinalBitmap left = new OrdinalBitmap();
+        left.add(1);
+        OrdinalBitmap right = new OrdinalBitmap();
+        right.add(70_000);
+
+        OrdinalBitmap union = left.or(right);
+        union.add(2);
+        union.add(70_001);
+
+        assertEquals(1, left.cardinality());
+        assertEquals(1, right.cardinality());
+        assertEquals(4, union.cardinality());
+    }
+
+    private static void fill(OrdinalBitmap bitmap, TreeSet<Integer> set, int container, int count, Random random) {
+        int added = 0;
+        while (added < count) {
+            int ordinal = (container << 16) | random.nextInt(1 << 16);
+            bitmap.add(ordinal);
+            if (set.add(ordinal)) {
+                added++;
+            }
+        }
+    }
+
+    private static void assertMatches(TreeSet<Integer> expected, OrdinalBitmap bitmap) {
+        List<Integer> ordinals = new ArrayList<>();
+        bitmap.forEach(ordinals::add);
+        assertEquals(List.copyOf(expected), ordinals);
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertEquals(expected.isEmpty(), bitmap.isEmpty());
+        expected.forEach(ordinal -> assertTrue(bitmap.contains(ordinal), () -> "missing " + ordinal));
+    }
+}
@@ -0,0 +1,298 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import product.asia.shop.config.SearchProperties;
+import product.asia.shop.dto.ProductSearchRequestDto;
+import product.asia.shop.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Searches an index filled with hand-written products: term matching across fields, relevance and field
+ * sorts, paging, filters and facets, fuzzy expansion, and the changes of products already indexed.
+ */
+class ProductIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final UUID SHOP = UUID.randomUUID();
+    private static final UUID OTHER_SHOP = UUID.randomUUID();
+    private static final UUID CATEGORY = UUID.randomUUID();
+    private static final UUID COLOR = UUID.randomUUID();
+
+    private final SearchProperties properties = new SearchProperties();
+    private final ProductIndex index = new ProductIndex();
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(index, "properties", properties);
+    }
+
+    @Test
+    void matchesProductsContainingEveryQueryTerm() {
+        ProductDocument shoe = product("Red running shoe", "Light trail shoe");
+        index.index(shoe);
+        index.index(product("Blue running jacket", "Windproof"));
+        index.index(product("Red wool hat", "Warm"));
+
+        SearchHits hits = index.search(request("red SHOE"));
+
+        assertEquals(1, hits.total());
+        assertEquals(List.of(shoe.id()), hits.ids());
+        assertFalse(hits.fuzzy());
+        assertEquals(2, index.search(request("running")).total());
+        assertEquals(0, index.search(request("red jacket")).total());
+        // A query of separators only matches nothing, a blank one everything
+        assertEquals(0, index.search(request("--")).total());
+        assertEquals(3, index.search(request(" ")).total());
+    }
+
+    @Test
+    void findsSkuWholeAndByItsParts() {
+        ProductDocument product = document("Desk lamp", "LMP-00123", "", SHOP, "ACTIVE", 0, Map.of());
+        index.index(product);
+
+        assertEquals(List.of(product.id()), index.search(request("lmp00123")).ids());
+        assertEquals(List.of(product.id()), index.search(request("00123")).ids());
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductDocument inDescription = product("Card holder", "A slim wallet of leather");
+        ProductDocument inName = product("Leather wallet", "Stitched by hand");
+        ProductDocument inNameOnly = product("Wallet chain", "Steel");
+        index.index(inDescription);
+        index.index(inName);
+        index.index(inNameOnly);
+
+        ProductSearchRequestDto request = request("leather wallet");
+        request.setSortBy(ProductIndex.SORT_RELEVANCE);
+
+        assertEquals(List.of(inName.id(), inDescription.id()), index.search(request).ids());
+    }
+
+    @Test
+    void sortsOnAFieldAndPages() {
+        List<UUID> ids = new ArrayList<>();
+        for (String name : List.of("Delta", "alpha", "Echo", "charlie", "Bravo")) {
+            ProductDocument product = product(name, "");
+            ids.add(product.id());
+            index.index(product);
+        }
+        ProductSearchRequestDto request = request(null);
+        request.setSortBy("name");
+        request.setSortDirection("ASC");
+        request.setSize(2);
+        request.setPage(1);
+
+        SearchHits hits = index.search(request);
+
+        // alpha, Bravo | charlie, Delta | Echo
+        assertEquals(5, hits.total());
+        assertEquals(List.of(ids.get(3), ids.get(0)), hits.ids());
+        request.setPage(2);
+        assertEquals(List.of(ids.get(2)), index.search(request).ids());
+        request.setPage(3);
+        assertEquals(List.of(), index.search(request).ids());
+    }
+
+    @Test
+    void blankQuerySortedOnRelevanceIsNewestFirst() {
+        ProductDocument older = document("Kettle", "K-1", "", SHOP, "ACTIVE", 10, Map.of());
+        ProductDocument newer = document("Toaster", "T-1", "", SHOP, "ACTIVE", 1, Map.of());
+        index.index(older);
+        index.index(newer);
+        ProductSearchRequestDto request = request(null);
+        request.setSortBy(ProductIndex.SORT_RELEVANCE);
+
+        assertEquals(List.of(newer.id(), older.id()), index.search(request).ids());
+    }
+
+    @Test
+    void filtersAndCountsFacetsOfTheMatches() {
+        index.setFilterableAttributes(List.of(COLOR));
+        ProductDocument red = document("Cotton shirt", "S-1", "", SHOP, "ACTIVE", 0, Map.of(COLOR, Set.of("red")));
+        ProductDocument blue = document("Linen shirt", "S-2", "", SHOP, "ACTIVE", 0, Map.of(COLOR, Set.of("blue")));
+        ProductDocument redElsewhere = document("Silk shirt", "S-3", "", OTHER_SHOP, "ACTIVE", 0, Map.of(COLOR, Set.of("red")));
+        ProductDocument draft = document("Wool shirt", "S-4", "", SHOP, "DRAFT", 0, Map.of(COLOR, Set.of("red", "blue")));
+        List.of(red, blue, redElsewhere, draft).forEach(index::index);
+
+        ProductSearchRequestDto request = request("shirt");
+        SearchHits all = index.search(request);
+        assertEquals(4, all.total());
+        assertEquals(Map.of(COLOR, Map.of("red", 3L, "blue", 2L)), all.facets());
+
+        request.setShopId(SHOP);
+        request.setStatus("active");
+        SearchHits filtered = index.search(request);
+        assertEquals(Set.of(red.id(), blue.id()), Set.copyOf(filtered.ids()));
+        assertEquals(Map.of(COLOR, Map.of("red", 1L, "blue", 1L)), filtered.facets());
+
+        request.setAttributeFilters(Map.of(COLOR, "RED"));
+        assertEquals(List.of(red.id()), index.search(request).ids());
+    }
+
+    @Test
+    void expandsMisspelledTermsWhenTooFewProductsMatch() {
+        ProductDocument running = product("Running shoe", "");
+        index.index(running);
+        index.index(product("Rain jacket", ""));
+
+        SearchHits hits = index.search(request("runing"));
+
+        assertTrue(hits.fuzzy());
+        assertEquals(List.of(running.id()), hits.ids());
+        properties.setFuzzyMaxEdits(0);
+        assertEquals(0, index.search(request("runing")).total());
+    }
+
+    @Test
+    void reindexingReplacesAndRemovingDrops() {
+        ProductDocument product = product("Glass teapot", "");
+        assertTrue(index.index(product));
+        assertFalse(index.index(product));
+
+        ProductDocument renamed = new ProductDocument(product.id(), product.sku(), "Ceramic teapot", product.description(),
+                product.shopId(), product.categoryId(), product.status(), product.createdAt(), NOW,
+                product.translations(), product.attributes());
+        assertTrue(index.index(renamed));
+        assertEquals(1, index.size());
+        assertEquals(0, index.search(request("glass")).total());
+        assertEquals(List.of(product.id()), index.search(request("ceramic")).ids());
+
+        assertTrue(index.remove(product.id()));
+        assertFalse(index.remove(product.id()));
+        assertEquals(0, index.size());
+        assertEquals(0, index.search(request("teapot")).total());
+
+        // The freed ordinal is reused by the next product
+        ProductDocument next = product("Glass vase", "");
+        index.index(next);
+        assertEquals(List.of(next.id()), index.search(request("glass")).ids());
+    }
+
+    @Test
+    void rejectsUnknownSortsAndPagesPastTheWindow() {
+        index.index(product("Notebook", ""));
+        properties.setMaxResultWindow(100);
+
+        ProductSearchRequestDto unknownSort = request("notebook");
+        unknownSort.setSortBy("price");
+        assertThrows(ValidationException.class, () -> index.search(unknownSort));
+        unknownSort.setSortBy(null);
+        assertThrows(ValidationException.class, () -> index.validate(unknownSort));
+
+        ProductSearchRequestDto deep = request("notebook");
+        deep.setSize(20);
+        deep.setPage(4);
+        index.validate(deep);
+        deep.setPage(5);
+        assertThrows(ValidationException.class, () -> index.search(deep));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void searchesStayUnderTenMillisecondsAtP99() {
+        // 100,000 products over 2,000 words, common words far more frequent than rare ones as in real catalogs
+        Random random = new Random(42);
+        String[] words = new String[2_000];
+        double[] cumulative = new double[words.length];
+        double total = 0;
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(random);
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        WordSource vocabulary = () -> {
+            int i = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return words[Math.min(i < 0 ? -i - 1 : i, words.length - 1)];
+        };
+        index.setFilterableAttributes(List.of(COLOR));
+        for (int i = 0; i < 100_000; i++) {
+            index.index(document(vocabulary.words(3), "SKU-" + i, vocabulary.words(12),
+                    random.nextBoolean() ? SHOP : OTHER_SHOP, "ACTIVE", i, Map.of(COLOR, Set.of(words[random.nextInt(8)]))));
+        }
+        // Relevance, a shop filter, typos and deeper pages, of one to three words
+        List<ProductSearchRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            ProductSearchRequestDto request = request(vocabulary.words(1 + i % 3));
+            switch (i % 4) {
+                case 0 -> request.setSortBy(ProductIndex.SORT_RELEVANCE);
+                case 1 -> request.setShopId(SHOP);
+                // A typo in a rare word
+                case 2 -> request.setQuery(words[100 + random.nextInt(1_000)].substring(1));
+                default -> request.setPage(random.nextInt(10));
+            }
+            requests.add(request);
+        }
+
+        // The first thousand warm the JIT up
+        requests.subList(0, 1_000).forEach(index::search);
+        long[] nanos = new long[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            long start = System.nanoTime();
+            index.search(requests.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        long p99 = nanos[(int) (nanos.length * 0.99)];
+        assertTrue(p99 < 10_000_000, "p99 " + p99 / 1_000 + " µs");
+    }
+
+    /**
+     * A pronounceable word of 4 to 9 letters
+     */
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append(i % 2 == 0 ? "bcdfghklmnprstvz".charAt(random.nextInt(16)) : "aeiou".charAt(random.nextInt(5)));
+        }
+        return word.toString();
+    }
+
+    private interface WordSource {
+
+        String next();
+
+        default String words(int count) {
+            StringBuilder text = new StringBuilder(next());
+            for (int i = 1; i < count; i++) {
+                text.append(' ').append(next());
+            }
+            return text.toString();
+        }
+    }
+
+    private static ProductSearchRequestDto request(String query) {
+        ProductSearchRequestDto request = new ProductSearchRequestDto();
+        request.setQuery(query);
+        return request;
+    }
+
+    private static ProductDocument product(String name, String description) {
+        return document(name, "SKU-" + UUID.randomUUID(), description, SHOP, "ACTIVE", 0, Map.of());
+    }
+
+    private static ProductDocument document(String name, String sku, String description, UUID shopId, String status,
+                                            int minutesOld, Map<UUID, Set<String>> attributes) {
+        LocalDateTime created = NOW.minusMinutes(minutesOld);
+        return new ProductDocument(UUID.randomUUID(), sku, name, description, shopId, CATEGORY, status, created, created,
+                "", attributes);
+    }
+}
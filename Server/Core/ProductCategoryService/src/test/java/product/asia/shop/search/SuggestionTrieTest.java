@@ -0,0 +1,138 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Looks prefixes up in tries built from hand-written names and from random ones, the latter checked
+ * against ranking every matching suggestion.
+ */
+class SuggestionTrieTest {
+
+    @Test
+    void bestSuggestionsFirstUpToTheLimit() {
+        Suggestion phones = keyword("Điện thoại", 40);
+        Suggestion appliances = keyword("Điện máy", 40);
+        Suggestion lamp = keyword("Đèn bàn", 12);
+        Suggestion power = keyword("Điện", 7);
+        SuggestionTrie trie = new SuggestionTrie.Builder()
+                .add(power, power.text())
+                .add(lamp, lamp.text())
+                .add(phones, phones.text())
+                .add(appliances, appliances.text())
+                .build(10);
+
+        // Equal weights by text
+        assertEquals(List.of(appliances, phones, power), trie.lookup(SuggestionTrie.key("điện", false), 10));
+        assertEquals(List.of(appliances, phones, lamp, power), trie.lookup(SuggestionTrie.key("D", false), 10));
+        assertEquals(List.of(appliances, phones), trie.lookup(SuggestionTrie.key("di", false), 2));
+        assertEquals(List.of(appliances, phones, lamp, power), trie.lookup("", 10));
+        assertEquals(List.of(), trie.lookup(SuggestionTrie.key("dieu", false), 10));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void namesAreFoundFromTheirFirstWords() {
+        Suggestion samsung = product("Điện thoại Samsung Galaxy A55 xanh", 1);
+        SuggestionTrie trie = new SuggestionTrie.Builder().add(samsung, samsung.text()).build(5);
+
+        assertEquals(List.of(samsung), trie.lookup(SuggestionTrie.key("thoai sam", false), 5));
+        assertEquals(List.of(samsung), trie.lookup(SuggestionTrie.key("galaxy", false), 5));
+        assertEquals(List.of(samsung), trie.lookup(SuggestionTrie.key("galaxy a55 xanh", false), 5));
+        // Only the first four words start a key
+        assertEquals(List.of(), trie.lookup(SuggestionTrie.key("a55", false), 5));
+    }
+
+    @Test
+    void trailingSpaceMatchesTheLastWordWhole() {
+        Suggestion phone = keyword("Dien thoai", 3);
+        Suggestion store = keyword("Dienmay store", 5);
+        SuggestionTrie trie = new SuggestionTrie.Builder().add(phone, phone.text()).add(store, store.text()).build(5);
+
+        assertEquals(List.of(store, phone), trie.lookup(SuggestionTrie.key("dien", false), 5));
+        assertEquals(List.of(phone), trie.lookup(SuggestionTrie.key("dien ", true), 5));
+        assertEquals("dien ", SuggestionTrie.key("  Điện  ", true));
+        assertEquals("", SuggestionTrie.key("  ", true));
+    }
+
+    @Test
+    void suggestionFoundBySeveralNamesIsListedOnce() {
+        UUID id = UUID.randomUUID();
+        Suggestion category = new Suggestion(Suggestion.TYPE_CATEGORY, id, "Phones", 9);
+        Suggestion other = keyword("Phone cases", 2);
+        SuggestionTrie trie = new SuggestionTrie.Builder()
+                .add(category, "Phones", "Phone", "Điện thoại", null)
+                .add(other, other.text())
+                .add(keyword("Nameless", 100), (String) null)
+                .build(5);
+
+        assertEquals(List.of(category, other), trie.lookup(SuggestionTrie.key("phone", false), 5));
+        assertEquals(List.of(category), trie.lookup(SuggestionTrie.key("dien", false), 5));
+        // Without a name a suggestion is not indexed
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void topKOfEveryPrefixMatchesRankingAllItsSuggestions() {
+        Random random = new Random(11);
+        String[] words = {"ao", "ao khoac", "an", "bia", "binh", "bo", "ca", "cam", "can", "cap", "dau", "den", "dien"};
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder();
+        Map<Suggestion, String> names = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                    + (random.nextBoolean() ? "" : " " + random.nextInt(50));
+            Suggestion suggestion = product(name + " #" + i, random.nextInt(20));
+            builder.add(suggestion, name);
+            names.put(suggestion, name);
+        }
+        int topK = 8;
+        SuggestionTrie trie = builder.build(topK);
+
+        Comparator<Suggestion> rank = Comparator.comparingLong(Suggestion::weight).reversed()
+                .thenComparing(Suggestion::text, String.CASE_INSENSITIVE_ORDER);
+        List<String> prefixes = new ArrayList<>(List.of("", "a", "ao k", "b", "bi", "ca", "cap 1", "d", "dien ", "x"));
+        for (String word : words) {
+            prefixes.add(word);
+            prefixes.add(word + " ");
+        }
+        for (String prefix : prefixes) {
+            List<Suggestion> expected = names.entrySet().stream()
+                    .filter(entry -> keys(entry.getValue()).stream().anyMatch(key -> key.startsWith(prefix)))
+                    .map(Map.Entry::getKey)
+                    .sorted(rank)
+                    .limit(topK)
+                    .toList();
+            assertEquals(expected, trie.lookup(prefix, topK), prefix);
+            assertEquals(expected.subList(0, Math.min(3, expected.size())), trie.lookup(prefix, 3), prefix);
+        }
+    }
+
+    /**
+     * Keys a name is indexed under: its terms from each of the first four words on
+     */
+    private static List<String> keys(String name) {
+        List<String> terms = TextAnalyzer.tokenize(name);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < Math.min(terms.size(), 4); i++) {
+            keys.add(String.join(" ", terms.subList(i, terms.size())));
+        }
+        return keys;
+    }
+
+    private static Suggestion keyword(String text, long weight) {
+        return new Suggestion(Suggestion.TYPE_KEYWORD, null, text, weight);
+    }
+
+    private static Suggestion product(String text, long weight) {
+        return new Suggestion(Suggestion.TYPE_PRODUCT, UUID.randomUUID(), text, weight);
+    }
+}
@@ -0,0 +1,80 @@
+package product.asia.shop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks the heap against sorting every offer, best score first and the lower ordinal first on equal scores.
+ */
+class TopScoresTest {
+
+    @Test
+    void keepsTheBestOffersBestFirst() {
+        TopScores top = new TopScores(3);
+        top.offer(1.5f, 0);
+        top.offer(0.5f, 1);
+        top.offer(3.0f, 2);
+        top.offer(2.0f, 3);
+        top.offer(0.1f, 4);
+
+        assertArrayEquals(new int[]{2, 3, 0}, top.ordinalsBestFirst());
+    }
+
+    @Test
+    void equalScoresFavourTheLowerOrdinal() {
+        TopScores top = new TopScores(2);
+        top.offer(1.0f, 7);
+        top.offer(1.0f, 9);
+        top.offer(1.0f, 3);
+        top.offer(1.0f, 8);
+
+        assertArrayEquals(new int[]{3, 7}, top.ordinalsBestFirst());
+    }
+
+    @Test
+    void fewerOffersThanKAndNoRoomAtAll() {
+        TopScores few = new TopScores(5);
+        few.offer(0.2f, 4);
+        few.offer(0.9f, 1);
+        assertArrayEquals(new int[]{1, 4}, few.ordinalsBestFirst());
+
+        TopScores none = new TopScores(0);
+        none.offer(1.0f, 1);
+        assertArrayEquals(new int[0], none.ordinalsBestFirst());
+    }
+
+    @Test
+    void matchesSortingEveryOffer() {
+        Random random = new Random(13);
+        for (int round = 0; round < 200; round++) {
+            int k = random.nextInt(40);
+            int offers = random.nextInt(300);
+            // Few distinct scores, so ties are common
+            float[] scores = new float[offers];
+            for (int i = 0; i < offers; i++) {
+                scores[i] = random.nextInt(20) / 4.0f;
+            }
+            List<Integer> ordinals = IntStream.range(0, offers).boxed().toList();
+            List<Integer> shuffled = new ArrayList<>(ordinals);
+            Collections.shuffle(shuffled, random);
+
+            TopScores top = new TopScores(k);
+            shuffled.forEach(ordinal -> top.offer(scores[ordinal], ordinal));
+
+            int[] expected = ordinals.stream()
+                    .sorted(Comparator.<Integer>comparingDouble(ordinal -> -scores[ordinal]).thenComparing(ordinal -> ordinal))
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertArrayEquals(expected, top.ordinalsBestFirst(), "k " + k + ", offers " + offers);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package product.asia.shop.support;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import product.asia.shop.config.CacheConfig;
+import product.asia.shop.config.RepositoryConfig;
+import product.asia.shop.repository.factory.RepositoryFactoryImpl;
+import product.asia.shop.repository.query.DerivedQueryEngine;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A JPA slice on H2 with the custom repositories and {@link TestData}. Tests are not wrapped in a
+ * transaction: they open their own, so that commits, flushes and the persistence context behave as in
+ * a request. Hibernate statistics are on so tests can count statements.
+ * <p>
+ * Every test class shares one H2 database, so tests must only count the rows they seeded.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"})
+@Import({DerivedQueryEngine.class, RepositoryFactoryImpl.class, RepositoryConfig.class, CacheConfig.class, TestData.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface RepositoryTest {
+}
@@ -0,0 +1,103 @@
+package product.asia.shop.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seeds shops, categories and products over JDBC. Categories cannot be persisted through JPA
+ * (PARENT_ID is not insertable), and JDBC batches keep large fixtures fast.
+ */
+@Component
+public class TestData {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public List<UUID> shops(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> shops = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID shop = UUID.randomUUID();
+            jdbcTemplate.update("insert into shops (id, created_at, created_by, is_deleted, updated_at, updated_by, address,"
+                            + " description, email, logo, name, phone, website, version) values (?, ?, 'seed', false, ?,"
+                            + " 'seed', 'address', 'description', 'shop@example.com', 'logo', ?, '0123456789',"
+                            + " 'https://example.com', 0)",
+                    shop, now, now, "Shop " + i);
+            shops.add(shop);
+        }
+        return shops;
+    }
+
+    /**
+     * Root categories, each its own parent
+     */
+    public List<UUID> categories(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID category = UUID.randomUUID();
+            jdbcTemplate.update("insert into categories (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                            + " description, name, parent_id, version) values (?, ?, 'seed', false, ?, 'seed',"
+                            + " 'description', ?, ?, 0)",
+                    category, now, now, "Category " + i, category);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    /**
+     * Active products spread round-robin over the shops and categories. Product i is i minutes old and has
+     * SKU {@code SKU-i}, zero-padded to seven digits so SKU order is insertion order.
+     */
+    public List<UUID> products(int count, List<UUID> shops, List<UUID> categories) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> products = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(Math.min(count, INSERT_BATCH));
+        for (int i = 0; i < count; i++) {
+            UUID product = UUID.randomUUID();
+            Timestamp created = Timestamp.valueOf(now.minusMinutes(i));
+            rows.add(new Object[]{product, created, created, String.format("SKU-%07d", i),
+                    categories.get(i % categories.size()), "Description of product " + i, "Product " + i,
+                    shops.get(i % shops.size())});
+            products.add(product);
+            if (rows.size() == INSERT_BATCH) {
+                insertProducts(rows);
+                rows.clear();
+            }
+        }
+        insertProducts(rows);
+        return products;
+    }
+
+    /**
+     * The session factory's statistics, cleared
+     */
+    public Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private void insertProducts(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("insert into products (id, created_at, created_by, is_deleted, updated_at, updated_by,"
+                + " sku, category_id, description, name, shop_id, status, version)"
+                + " values (?, ?, 'seed', false, ?, 'seed', ?, ?, ?, ?, ?, 'ACTIVE', 0)", rows);
+    }
+}